@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * This class stores the cost of the shortest path between every pair of nodes
+ * of a frozen graph, along with the next node to visit on each of those paths.
+ * Both tables are flat arrays with one row of getNodeCount() entries per start
+ * node, and are filled by running one Dijkstra search from each node in
+ * parallel. Once built, a path is read by following next hops, and its cost,
+ * and the most distant node from any start, are single lookups. The tables
+ * take quadratic memory, so they are only meant for small graphs like the
+ * campus map.
+ */
+public class AllPairsTable<NodeType> {
+
+    // the snapshot the tables were computed from
+    protected final CSRGraph<NodeType> graph;
+    protected final int nodeCount;
+    // cost[from * nodeCount + to] is the cost of the shortest path from the
+    // node with id from to the node with id to, or infinity when there is none
+    protected final double[] cost;
+    // nextHop[from * nodeCount + to] is the id of the node after from on that
+    // path, from itself when from == to, and -1 when there is no path
+    protected final int[] nextHop;
+    // the id of the reachable node farthest from each start, or -1 when no
+    // other node can be reached at any cost above zero
+    protected final int[] mostDistant;
+    protected final long buildMillis;
+
+    /**
+     * Constructor that runs a shortest path search from every node of a
+     * snapshot, using the common ForkJoinPool to run searches in parallel.
+     *
+     * @param graph the snapshot to compute shortest paths within
+     */
+    public AllPairsTable(CSRGraph<NodeType> graph) {
+        long startTime = System.nanoTime();
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+        this.cost = new double[nodeCount * nodeCount];
+        this.nextHop = new int[nodeCount * nodeCount];
+        this.mostDistant = new int[nodeCount];
+        IntStream.range(0, nodeCount).parallel().forEach(this::fillRow);
+        this.buildMillis = (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    // searches from one start node and copies the results into its rows
+    private void fillRow(int from) {
+        double[] rowCost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        int[] settledOrder = new int[nodeCount];
+        int settledCount = graph.search(from, -1, rowCost, pred, settledOrder);
+
+        // the first hop toward each node is found from its predecessor's, so
+        // nodes are visited in settled order where predecessors come first
+        int row = from * nodeCount;
+        Arrays.fill(nextHop, row, row + nodeCount, -1);
+        nextHop[row + from] = from;
+        int farthest = -1;
+        double maxCost = 0.0;
+        for (int i = 1; i < settledCount; i++) {
+            int node = settledOrder[i];
+            nextHop[row + node] = pred[node] == from ? node : nextHop[row + pred[node]];
+            if (rowCost[node] > maxCost) {
+                maxCost = rowCost[node];
+                farthest = node;
+            }
+        }
+        System.arraycopy(rowCost, 0, cost, row, nodeCount);
+        mostDistant[from] = farthest;
+    }
+
+    /**
+     * Returns the number of nodes in the graph these tables cover.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns how long building these tables took.
+     *
+     * @return the build time in milliseconds
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Returns the number of bytes taken by the cost, next hop and most distant
+     * node arrays, not counting the snapshot they were computed from.
+     *
+     * @return the size of these tables in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) cost.length * Double.BYTES + (long) nextHop.length * Integer.BYTES
+                + (long) mostDistant.length * Integer.BYTES;
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path from
+     * the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public List<NodeType> getPath(NodeType start, NodeType end) {
+        List<NodeType> path = new LinkedList<>();
+        for (int node : pathIds(start, end))
+            path.add(graph.getNodeData(node));
+        return path;
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data, with the weight of each edge along it
+     * and its total cost, by following next hops.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the route along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteResult<NodeType> getRoute(NodeType start, NodeType end) {
+        return graph.toRoute(pathIds(start, end));
+    }
+
+    // follows next hops to list the node ids along a path
+    private List<Integer> pathIds(NodeType start, NodeType end) {
+        int from = nodeId(start, "Start");
+        int to = nodeId(end, "End");
+        if (nextHop[from * nodeCount + to] == -1)
+            throw new NoSuchElementException("Path does not exist");
+
+        List<Integer> path = new ArrayList<>();
+        path.add(from);
+        for (int node = from; node != to; node = nextHop[node * nodeCount + to])
+            path.add(nextHop[node * nodeCount + to]);
+        return path;
+    }
+
+    /**
+     * Looks up the shortest path between two nodes like getPath, and
+     * describes how it was found: no search runs, so no nodes are settled,
+     * the search time is the time to look up the path's cost, and the path
+     * time is the time to follow next hops along it.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the explanation of this lookup, which is not found when there
+     *         is no path from start to end
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteExplanation<NodeType> explain(NodeType start, NodeType end) {
+        int from = nodeId(start, "Start");
+        int to = nodeId(end, "End");
+        long searchStart = System.nanoTime();
+        double pathCost = cost[from * nodeCount + to];
+
+        long pathStart = System.nanoTime();
+        List<NodeType> path = new LinkedList<>();
+        if (pathCost != Double.POSITIVE_INFINITY) {
+            path.add(start);
+            for (int node = from; node != to; node = nextHop[node * nodeCount + to])
+                path.add(graph.getNodeData(nextHop[node * nodeCount + to]));
+        }
+        long pathNanos = System.nanoTime() - pathStart;
+        return new RouteExplanation<>(start, end, "AllPairsTable", 0, 0, pathStart - searchStart, pathNanos, true,
+                path, pathCost);
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node containing the start
+     * data to the node containing the end data.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public double getCost(NodeType start, NodeType end) {
+        double pathCost = cost[nodeId(start, "Start") * nodeCount + nodeId(end, "End")];
+        if (pathCost == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("Path does not exist");
+        return pathCost;
+    }
+
+    /**
+     * Returns the node whose shortest path from start has the largest cost.
+     *
+     * @param start the data item in the starting node
+     * @return the data of the most distant reachable node
+     * @throws NoSuchElementException when start does not correspond to a graph
+     *                                node, or no other node can be reached
+     */
+    public NodeType getMostDistantNode(NodeType start) {
+        int farthest = mostDistant[nodeId(start, "Start")];
+        if (farthest == -1)
+            throw new NoSuchElementException("No location can be reached from " + start);
+        return graph.getNodeData(farthest);
+    }
+
+    // looks up a node's id, throwing NSE naming which end of the path is missing
+    private int nodeId(NodeType data, String role) {
+        if (!graph.containsNode(data))
+            throw new NoSuchElementException(role + " does not exist");
+        return graph.getNodeId(data);
+    }
+
+}
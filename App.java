@@ -9,7 +9,10 @@ public class App {
         Frontend.setBackend(back);
         Frontend frontend = new Frontend();
         try {
-            back.loadGraphData("campus.dot");
+            // later starts load the binary snapshot instead of parsing text
+            back.loadGraphData("campus.dot", "campus.snapshot");
+            // edits to campus.dot are picked up without restarting
+            back.watchGraphData("campus.dot");
         } catch (IOException e) {
             System.out.println("Error loading data");
             System.exit(1);
@@ -1,99 +1,618 @@
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Backend implements BackendInterface {
-    private GraphADT<String, Double> graph;
-    private List<String> listOfAllLocations;
+    // graphs with at most this many nodes are answered from an AllPairsTable
+    public static final int DEFAULT_ALL_PAIRS_THRESHOLD = 1000;
+    // a watched file must stop changing for this long before it is reloaded
+    public static final long RELOAD_QUIET_MILLIS = 200;
 
+    // one loaded graph with everything queries read from it; versions are
+    // replaced as a whole, so each query reads a single consistent version
+    private static class GraphVersion {
+        final GraphADT<String, Double> graph;
+        final List<String> locations;
+        final AllPairsTable<String> allPairs; // null when queries search the graph
+        // the graph's modification count when allPairs was brought up to
+        // date with it, or -1 when it is stale
+        final long modificationCount;
+        // indexes locations for searchLocations, rebuilt when locations grows
+        volatile LocationIndex locationIndex;
+
+        GraphVersion(GraphADT<String, Double> graph, List<String> locations, AllPairsTable<String> allPairs,
+                long modificationCount) {
+            this.graph = graph;
+            this.locations = locations;
+            this.allPairs = allPairs;
+            this.modificationCount = modificationCount;
+        }
+    }
+
+    private final AtomicReference<GraphVersion> version = new AtomicReference<>();
+    private volatile int allPairsThreshold = DEFAULT_ALL_PAIRS_THRESHOLD;
+    private volatile ReloadMetrics reloadMetrics = new ReloadMetrics(0, 0, 0, 0, 0);
+    // set while a rebuild of a stale all pairs table is waiting or running
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final RoutingMetrics metrics = new RoutingMetrics();
+    private WatchService watcher;
+
+    /**
+     * Creates a backend that answers queries from the provided graph, with
+     * the graph's nodes as its first locations.
+     * @param graph the graph to answer queries from until data is loaded
+     */
     public Backend(GraphADT<String, Double> graph) {
-        this.graph = graph;
-        this.listOfAllLocations = new ArrayList<>();
+        graph.setMetrics(metrics);
+        CSRGraph<String> frozen = graph.freeze();
+        List<String> listOfAllLocations = frozen == null ? new ArrayList<>() : locations(frozen);
+        version.set(new GraphVersion(graph, listOfAllLocations, null, -1));
+    }
+
+    /**
+     * Returns the metrics this backend's queries are timed and counted in.
+     * They start disabled; enable them with setEnabled, and publish them
+     * over JMX with register.
+     * @return this backend's routing metrics
+     */
+    public RoutingMetrics getMetrics() {
+        return metrics;
     }
 
+    /**
+     * Returns the graph this backend currently answers queries from. Loading
+     * or reloading graph data replaces it with a new graph, so callers that
+     * want the loaded data should call this after loading rather than keep
+     * the graph passed to the constructor.
+     * @return the graph of the current version
+     */
+    public GraphADT<String, Double> getGraph() {
+        return version.get().graph;
+    }
+
+    /**
+     * Loads graph data from a dot file, adding it to the data loaded so far.
+     * The data is loaded into a new graph, which this backend swaps in for
+     * the current one once it is complete, so queries keep being answered
+     * from the current graph while the file is read.
+     * @param filename the path to a dot file to read graph data from
+     * @throws IOException if the file does not exist, is empty, or cannot be
+     *                     read
+     */
     @Override
-    public void loadGraphData(String filename) throws IOException {
+    public synchronized void loadGraphData(String filename) throws IOException {
         File file = new File(filename);
 
         if (!file.exists() || file.length() == 0) {
             throw new IOException("File does not exist or is empty!");
         }
 
-        Scanner scan = new Scanner(file);
-
-        while (scan.hasNextLine()) {
-            String line = scan.nextLine().trim();
-            if (line.startsWith("\"")) {
-                String[] parts = line.split("\"");
-                if (parts.length >= 4) {
-                    String start = parts[1];
-                    String finish = parts[3];
-                    String[] edgeDetails = parts[4].trim().split("\\[");
-                    if (edgeDetails.length >= 2) {
-                        String[] secondsPart = edgeDetails[1].split("=");
-                        if (secondsPart.length >= 2) {
-                            double time = Double.parseDouble(secondsPart[1].replaceAll("[^\\d.]", ""));
-                            if (!graph.containsNode(start)) {
-                                graph.insertNode(start);
-                                listOfAllLocations.add(start);
-                            }
-                            if (!graph.containsNode(finish)) {
-                                graph.insertNode(finish);
-                                listOfAllLocations.add(finish);
-                            }
-                            if (!graph.containsEdge(start, finish)) {
-                                graph.insertEdge(start, finish, time);
-                            }
-                        }
-                    }
+        GraphVersion current = version.get();
+        GraphADT<String, Double> graph = current.graph.newEmptyGraph();
+        List<String> listOfAllLocations = new ArrayList<>(current.locations);
+        copyGraph(current.graph, graph);
+        // the reader tokenizes each edge line in one pass over the file's bytes
+        new DotReader((start, finish, time) -> {
+            // insertNode gives each new name its dense node id
+            if (graph.insertNode(start)) {
+                listOfAllLocations.add(start);
+            }
+            if (graph.insertNode(finish)) {
+                listOfAllLocations.add(finish);
+            }
+            if (!graph.containsEdge(start, finish)) {
+                graph.insertEdge(start, finish, time);
+            }
+        }).read(file.toPath());
+        // build the table and name index now rather than on the first query
+        version.set(newVersion(graph, listOfAllLocations));
+    }
+
+    // inserts every node and edge of source into an empty graph, keeping the
+    // order of source's node ids
+    private static void copyGraph(GraphADT<String, Double> source, GraphADT<String, Double> target) {
+        CSRGraph<String> frozen = source.freeze();
+        if (frozen == null)
+            return;
+        for (int id = 0; id < frozen.getNodeCount(); id++)
+            target.insertNode(frozen.getNodeData(id));
+        for (int id = 0; id < frozen.getNodeCount(); id++) {
+            for (int i = frozen.offsets[id]; i < frozen.offsets[id + 1]; i++)
+                target.insertEdge(frozen.getNodeData(id), frozen.getNodeData(frozen.targets[i]), frozen.weights[i]);
+        }
+    }
+
+    /**
+     * Loads graph data from a binary snapshot when one exists for the current
+     * version of a dot file, and otherwise from the dot file itself, after
+     * which a snapshot is written for the next start. A snapshot whose
+     * checksum does not match is ignored like a stale one. After loading a
+     * snapshot, this backend answers queries from the read-only CSRGraph it
+     * holds instead of the graph it was constructed with.
+     * @param filename the path to a dot file to read graph data from
+     * @param snapshotFilename the path of the snapshot to read or write
+     * @return true if the data was loaded from the snapshot, or false if it
+     *         was loaded from the dot file
+     * @throws IOException if neither file could be read
+     */
+    public boolean loadGraphData(String filename, String snapshotFilename) throws IOException {
+        Path snapshot = Path.of(snapshotFilename);
+        if (GraphSnapshot.isCurrent(snapshot, Path.of(filename))) {
+            try {
+                version.set(frozenVersion(GraphSnapshot.read(snapshot)));
+                return true;
+            } catch (IOException e) {
+                // a damaged snapshot is replaced below
+            }
+        }
+
+        loadGraphData(filename);
+        CSRGraph<String> frozen = version.get().graph.freeze();
+        if (frozen != null) {
+            try {
+                GraphSnapshot.write(frozen, Path.of(filename), snapshot);
+            } catch (IOException e) {
+                // the data is loaded, so only the next start is slower
+                System.out.println("Could not write graph snapshot: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads graph data from a dot file by parsing chunks of it in parallel on
+     * the common ForkJoinPool and building a CSRGraph from all of their edges
+     * at once, which is much faster than loadGraphData for very large files.
+     * Afterwards, this backend answers queries from that read-only CSRGraph
+     * instead of the graph it was constructed with.
+     * @param filename the path to a dot file to read graph data from
+     * @throws IOException if the file does not exist, is empty, or cannot be
+     *                     read
+     */
+    public void loadGraphDataParallel(String filename) throws IOException {
+        version.set(frozenVersion(readFrozenGraph(filename)));
+    }
+
+    /**
+     * Reads a new version of a dot file and swaps it in for the graph this
+     * backend answers queries from. The new graph and its query tables are
+     * built first, on the calling thread, while queries keep being answered
+     * from the current graph. Queries that started before the swap finish on
+     * the graph they started with, and queries that start after it use the
+     * new one. If the file cannot be read, the current graph is kept.
+     * @param filename the path to a dot file to read graph data from
+     * @throws IOException if the file does not exist, is empty, or cannot be
+     *                     read
+     */
+    public void reloadGraphData(String filename) throws IOException {
+        reloadGraphData(filename, System.nanoTime());
+    }
+
+    // reloads a file whose change was noticed at changeTime
+    private void reloadGraphData(String filename, long changeTime) throws IOException {
+        ReloadMetrics before = reloadMetrics;
+        GraphVersion next;
+        long startTime = System.nanoTime();
+        try {
+            next = frozenVersion(readFrozenGraph(filename));
+        } catch (IOException e) {
+            reloadMetrics = new ReloadMetrics(before.getReloadCount(), before.getFailedReloadCount() + 1,
+                    before.getLastReloadMillis(), before.getLastSwapNanos(), before.getLastChangeToSwapMillis());
+            throw e;
+        }
+        long swapTime = System.nanoTime();
+        version.set(next);
+        long endTime = System.nanoTime();
+        reloadMetrics = new ReloadMetrics(before.getReloadCount() + 1, before.getFailedReloadCount(),
+                (swapTime - startTime) / 1_000_000, endTime - swapTime, (endTime - changeTime) / 1_000_000);
+    }
+
+    /**
+     * Starts watching a dot file, and reloads it with reloadGraphData each
+     * time it is written, once it has stopped changing for
+     * RELOAD_QUIET_MILLIS. Changes are watched for and reloaded on a daemon
+     * thread, so queries are never blocked by a reload. A reload that fails
+     * is counted in getReloadMetrics, and the next change is tried again.
+     * @param filename the path of the dot file to watch
+     * @throws IOException if the file's directory cannot be watched
+     */
+    public synchronized void watchGraphData(String filename) throws IOException {
+        stopWatching();
+        Path file = Path.of(filename).toAbsolutePath();
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = watchService;
+        Thread thread = new Thread(() -> watch(watchService, file), "graph-reload " + file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the dot file passed to watchGraphData, if any.
+     */
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // the watching thread stops either way
+            }
+            watcher = null;
+        }
+    }
+
+    // waits for changes to file and reloads it, until watchService is closed
+    private void watch(WatchService watchService, Path file) {
+        try {
+            while (true) {
+                if (!changed(watchService.take(), file))
+                    continue;
+                long changeTime = System.nanoTime();
+                // wait until the file has been quiet for a while, so a file
+                // that is still being written is not read half finished
+                WatchKey key;
+                while ((key = watchService.poll(RELOAD_QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null)
+                    changed(key, file);
+                try {
+                    reloadGraphData(file.toString(), changeTime);
+                } catch (IOException e) {
+                    System.out.println("Could not reload " + file + ": " + e.getMessage());
                 }
             }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopWatching was called
+        }
+    }
+
+    // checks whether any of a key's events are for file, and resets the key
+    private static boolean changed(WatchKey key, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (file.getFileName().equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW)
+                changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Returns counts and timings of the reloads done so far.
+     * @return a record of this backend's reloads
+     */
+    public ReloadMetrics getReloadMetrics() {
+        return reloadMetrics;
+    }
+
+    // reads a dot file into a CSRGraph with a ParallelDotReader
+    private static CSRGraph<String> readFrozenGraph(String filename) throws IOException {
+        File file = new File(filename);
+
+        if (!file.exists() || file.length() == 0) {
+            throw new IOException("File does not exist or is empty!");
+        }
+        return new ParallelDotReader().read(file.toPath());
+    }
+
+    // builds a version that answers queries from a loaded CSRGraph, with its
+    // all pairs table when it is small enough
+    private GraphVersion frozenVersion(CSRGraph<String> frozen) {
+        return newVersion(frozen, locations(frozen));
+    }
+
+    // lists the nodes of a frozen graph in id order
+    private static List<String> locations(CSRGraph<String> frozen) {
+        List<String> listOfAllLocations = new ArrayList<>();
+        for (int id = 0; id < frozen.getNodeCount(); id++) {
+            listOfAllLocations.add(frozen.getNodeData(id));
+        }
+        return listOfAllLocations;
+    }
+
+    // builds a version that answers queries from a newly loaded graph, which
+    // no other thread has seen yet, with its all pairs table when it is small
+    // enough
+    private GraphVersion newVersion(GraphADT<String, Double> graph, List<String> locations) {
+        graph.setMetrics(metrics);
+        GraphVersion next = new GraphVersion(graph, locations, allPairsTable(graph), graph.getModificationCount());
+        // index the names before the version is used, so a load builds it
+        // off the query path
+        locationIndex(next);
+        return next;
+    }
+
+    /**
+     * Sets the largest graph, by node count, whose queries are answered from
+     * a precomputed AllPairsTable. Use 0 to always search the graph instead.
+     * The table is built or dropped before this returns.
+     * @param threshold the largest node count to precompute all pairs for
+     */
+    public void setAllPairsThreshold(int threshold) {
+        this.allPairsThreshold = threshold;
+        version.updateAndGet(Backend::stale);
+        rebuildAllPairsTable();
+    }
+
+    /**
+     * Returns the all pairs table used to answer queries, building it first
+     * when the graph has changed since the last one was built.
+     * @return the current table, or null when the graph has more nodes than
+     *         the threshold or cannot be frozen
+     */
+    public AllPairsTable<String> getAllPairsTable() {
+        return rebuildAllPairsTable().allPairs;
+    }
+
+    // returns the version queries should use. Queries never build the all
+    // pairs table: while it is stale they search the graph, and the table is
+    // rebuilt once in the background
+    private GraphVersion currentVersion() {
+        GraphVersion current = version.get();
+        if (current.modificationCount == current.graph.getModificationCount())
+            return current;
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    rebuildAllPairsTable();
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        }
+        if (current.allPairs == null)
+            return current;
+        // drop the out of date table, so no query answers from it
+        GraphVersion searching = stale(current);
+        version.compareAndSet(current, searching);
+        return searching;
+    }
+
+    // brings the current version's all pairs table up to date with its
+    // graph, and returns the version holding it. Rebuilds are serialized so
+    // that concurrent callers build each table only once
+    private synchronized GraphVersion rebuildAllPairsTable() {
+        while (true) {
+            GraphVersion current = version.get();
+            // read before freezing, so a change made meanwhile leaves it stale
+            long modificationCount = current.graph.getModificationCount();
+            if (current.modificationCount == modificationCount)
+                return current;
+            GraphVersion next = new GraphVersion(current.graph, current.locations, allPairsTable(current.graph),
+                    modificationCount);
+            next.locationIndex = current.locationIndex;
+            // a version swapped in meanwhile by a reload is newer, so bring
+            // that one up to date instead
+            if (version.compareAndSet(current, next))
+                return next;
         }
-        scan.close();
+    }
+
+    // builds the all pairs table of a graph, or returns null when the graph
+    // is over the threshold or cannot be frozen
+    private AllPairsTable<String> allPairsTable(GraphADT<String, Double> graph) {
+        if (graph.getNodeCount() > allPairsThreshold)
+            return null;
+        CSRGraph<String> frozen = graph.freeze();
+        return frozen == null ? null : new AllPairsTable<>(frozen);
+    }
+
+    // returns a copy of a version without its all pairs table, marked stale
+    private static GraphVersion stale(GraphVersion current) {
+        GraphVersion next = new GraphVersion(current.graph, current.locations, null, -1);
+        next.locationIndex = current.locationIndex;
+        return next;
     }
 
     @Override
     public List<String> getListOfAllLocations() {
-        return listOfAllLocations;
+        return version.get().locations;
+    }
+
+    @Override
+    public List<String> searchLocations(String query, int limit) {
+        return locationIndex(version.get()).search(query, limit);
+    }
+
+    // returns the name index of a version, building it first when the
+    // version has none yet or has gained locations since it was built
+    private static LocationIndex locationIndex(GraphVersion current) {
+        LocationIndex index = current.locationIndex;
+        if (index == null || index.size() != current.locations.size()) {
+            index = new LocationIndex(current.locations);
+            current.locationIndex = index;
+        }
+        return index;
     }
 
     @Override
     public List<String> findShortestPath(String startLocation, String endLocation) {
-        return graph.shortestPathData(startLocation, endLocation);
+        long startNanos = metrics.startQuery();
+        // stays -1 when the query throws, so failed queries are timed too
+        int pathLength = -1;
+        try {
+            GraphVersion current = currentVersion();
+            List<String> path;
+            if (current.allPairs != null && RouteQueryEvent.isTracing())
+                path = tracedPath(current.allPairs, startLocation, endLocation);
+            else if (current.allPairs != null)
+                path = current.allPairs.getPath(startLocation, endLocation);
+            else
+                path = current.graph.shortestPathData(startLocation, endLocation);
+            pathLength = path.size();
+            return path;
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.SHORTEST_PATH, startNanos, pathLength);
+        }
+    }
+
+    // looks a path up in the table as an explained query, committing a
+    // RouteQueryEvent for it; graphs trace the queries they answer themselves
+    private static List<String> tracedPath(AllPairsTable<String> allPairs, String startLocation, String endLocation) {
+        RouteExplanation<String> explanation = RouteQueryEvent.trace(() -> allPairs.explain(startLocation, endLocation));
+        if (!explanation.isFound())
+            throw new NoSuchElementException("Path does not exist");
+        return new ArrayList<>(explanation.getPath());
+    }
+
+    /**
+     * Finds the shortest path between two locations the way findShortestPath
+     * would, and describes how it was answered: by the all pairs table or
+     * by which search, how many nodes that search settled and how large its
+     * queue grew, and how long searching and reading the path back took.
+     * @param startLocation the start location of the path
+     * @param endLocation the end location of the path
+     * @return the explanation of this query, which is not found when there is no path
+     * @throws NoSuchElementException if either location does not exist
+     */
+    public RouteExplanation<String> explain(String startLocation, String endLocation) throws NoSuchElementException {
+        GraphVersion current = currentVersion();
+        if (current.allPairs != null)
+            return current.allPairs.explain(startLocation, endLocation);
+        return current.graph.explain(startLocation, endLocation);
     }
 
     @Override
     public List<Double> getTravelTimesOnPath(String startLocation, String endLocation) {
-        List<String> path = findShortestPath(startLocation, endLocation);
-        List<Double> travelTimes = new ArrayList<>();
+        long startNanos = metrics.startQuery();
+        int pathLength = -1;
+        try {
+            // the leg weights come from the same search as the path
+            RouteResult<String> route = route(startLocation, endLocation);
+            pathLength = route.getPath().size();
+            return new ArrayList<>(route.getLegWeights());
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.TRAVEL_TIMES, startNanos, pathLength);
+        }
+    }
 
-        if (path.size() <= 1) {
-            return travelTimes; // Return empty list if no path or only one node is found
+    @Override
+    public RouteResult<String> findRoute(String startLocation, String endLocation) throws NoSuchElementException {
+        long startNanos = metrics.startQuery();
+        int pathLength = -1;
+        try {
+            RouteResult<String> route = route(startLocation, endLocation);
+            pathLength = route.getPath().size();
+            return route;
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.ROUTE, startNanos, pathLength);
         }
+    }
 
-        for (int i = 0; i < path.size() - 1; i++) {
-            travelTimes.add(graph.getEdge(path.get(i), path.get(i + 1)));
+    // finds a route without timing it, for the queries that time themselves
+    private RouteResult<String> route(String startLocation, String endLocation) {
+        GraphVersion current = currentVersion();
+        if (current.allPairs != null)
+            return current.allPairs.getRoute(startLocation, endLocation);
+        return current.graph.shortestPathRoute(startLocation, endLocation);
+    }
+
+    @Override
+    public List<RouteResult<String>> findShortestPaths(Collection<RouteQuery> queries) {
+        long startNanos = metrics.startQuery();
+        try {
+            List<RouteResult<String>> routes = shortestPaths(new ArrayList<>(queries));
+            // the paths of the batch are each counted
+            if (metrics.isEnabled()) {
+                for (RouteResult<String> route : routes)
+                    if (route != null)
+                        metrics.recordPath(route.getPath().size());
+            }
+            return routes;
+        } finally {
+            // the whole batch is timed as one query
+            metrics.recordQuery(RoutingMetrics.Query.BATCH, startNanos, -1);
         }
+    }
+
+    // answers a batch of queries in order, without timing it
+    private List<RouteResult<String>> shortestPaths(List<RouteQuery> batch) {
+        // filled in by position as the groups finish, so results keep the
+        // order of the queries
+        List<RouteResult<String>> routes = new ArrayList<>(Collections.nCopies(batch.size(), null));
+        GraphVersion current = currentVersion();
 
-        return travelTimes;
+        // the positions within batch of the queries from each start location
+        Map<String, List<Integer>> queriesByStart = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            queriesByStart.computeIfAbsent(batch.get(i).getStartLocation(), start -> new ArrayList<>()).add(i);
+        }
+        // one search per start location answers all of its queries, stopping
+        // once all of their ends are settled, and the searches run in
+        // parallel on the common ForkJoinPool
+        queriesByStart.entrySet().parallelStream().forEach(group -> {
+            String start = group.getKey();
+            if (!current.graph.containsNode(start))
+                return;
+            if (current.allPairs != null) {
+                for (int i : group.getValue()) {
+                    try {
+                        routes.set(i, current.allPairs.getRoute(start, batch.get(i).getEndLocation()));
+                    } catch (NoSuchElementException e) {
+                        // no path, so this query's route stays null
+                    }
+                }
+                return;
+            }
+            Set<String> ends = new HashSet<>();
+            for (int i : group.getValue()) {
+                String end = batch.get(i).getEndLocation();
+                if (current.graph.containsNode(end))
+                    ends.add(end);
+            }
+            ShortestPathTree<String> tree = current.graph.shortestPathTree(start, ends);
+            for (int i : group.getValue()) {
+                String end = batch.get(i).getEndLocation();
+                if (tree.contains(end))
+                    routes.set(i, tree.getRouteTo(end));
+            }
+        });
+        return routes;
     }
 
     @Override
     public String getMostDistantLocation(String location) throws NoSuchElementException {
-        List<String> allLocations = getListOfAllLocations();
+        long startNanos = metrics.startQuery();
+        try {
+            return mostDistantLocation(currentVersion(), location);
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.MOST_DISTANT, startNanos, -1);
+        }
+    }
+
+    // finds the location farthest from location, without timing it
+    private static String mostDistantLocation(GraphVersion current, String location) {
+        if (current.allPairs != null)
+            return current.allPairs.getMostDistantNode(location);
+
+        // a single search finds the cost of reaching every other location
+        ShortestPathTree<String> tree = current.graph.shortestPathTree(location);
         String mostDistantLocation = null;
         double maxCost = 0.0;
 
-        for (String loc : allLocations) {
-            if (!loc.equals(location)) {
-                double cost = graph.shortestPathCost(location, loc);
-                if (cost > maxCost) {
-                    maxCost = cost;
-                    mostDistantLocation = loc;
-                }
+        for (String loc : tree.getReachedNodes()) {
+            double cost = tree.getCost(loc);
+            if (cost > maxCost) {
+                maxCost = cost;
+                mostDistantLocation = loc;
             }
         }
 
@@ -103,6 +622,28 @@ public class Backend implements BackendInterface {
 
         return mostDistantLocation;
     }
-}
 
+    @Override
+    public ShortestPathTree<String> findLocationsWithin(String location, double seconds)
+            throws NoSuchElementException {
+        long startNanos = metrics.startQuery();
+        try {
+            // the all pairs table is not used, since reading a whole row of
+            // it costs more than a bounded search of a small area
+            return version.get().graph.isochrone(location, seconds);
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.ISOCHRONE, startNanos, -1);
+        }
+    }
 
+    @Override
+    public ShortestPathTree<String> findLocationsReaching(String location, double seconds)
+            throws NoSuchElementException {
+        long startNanos = metrics.startQuery();
+        try {
+            return version.get().graph.reverseIsochrone(location, seconds);
+        } finally {
+            metrics.recordQuery(RoutingMetrics.Query.ISOCHRONE, startNanos, -1);
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -43,6 +44,38 @@ public interface BackendInterface {
    */
   public List<Double> getTravelTimesOnPath(String startLocation, String endLocation);
 
+  /**
+   * Return the shortest path from startLocation to endLocation together with the walking time in
+   * seconds of each leg and the total walking time, all from a single search. Callers that show
+   * both a path and its travel times should use this instead of calling findShortestPath and
+   * getTravelTimesOnPath, which would search twice.
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @return the route along the shortest path from startLocation to endLocation
+   * @throws NoSuchElementException if either location does not exist, or there is no path
+   */
+  public RouteResult<String> findRoute(String startLocation, String endLocation) throws NoSuchElementException;
+
+  /**
+   * Return the shortest route for each of a batch of queries, in the same order as the queries.
+   * Implementations may answer queries that share a start location with a single search, and may
+   * answer the queries of different start locations in parallel.
+   * @param queries the start and end locations of each route to find
+   * @return one route per query, in the order the queries were given, which is null for a query
+   *         whose locations do not exist or have no path between them
+   */
+  public List<RouteResult<String>> findShortestPaths(Collection<RouteQuery> queries);
+
+  /**
+   * Return up to limit location names that match what has been typed so far, for type-ahead.
+   * Matching ignores case and punctuation, and a name matches when it, or one of its words, starts
+   * with the query. Names that start with the query come first.
+   * @param query the text typed so far
+   * @param limit the most names to return
+   * @return the matching location names, or an empty list if none match
+   */
+  public List<String> searchLocations(String query, int limit);
+
   /**
    * Return the most distant location from startLocation that is reachable in the graph.
    * @param startLocation the location to find the most distant location for
@@ -51,4 +84,32 @@ public interface BackendInterface {
    */
   public String getMostDistantLocation(String startLocation) throws NoSuchElementException;
 
+  /**
+   * Return every location that can be walked to from location within the provided number of
+   * seconds, with the walking time to each, such as everything within five minutes of Memorial
+   * Union. The work done grows with the number of locations within reach, not with the whole map.
+   * @param location the location to walk from
+   * @param seconds the longest walking time to include
+   * @return the tree of shortest paths from location to each location within reach, in order of
+   *         walking time and starting with location itself
+   * @throws NoSuchElementException if location does not exist
+   * @throws IllegalArgumentException if seconds is negative
+   */
+  public ShortestPathTree<String> findLocationsWithin(String location, double seconds)
+      throws NoSuchElementException;
+
+  /**
+   * Return every location that location can be walked to from within the provided number of
+   * seconds, with the walking time from each. Each location's predecessor in the tree returned is
+   * the next location on its path to location.
+   * @param location the location to walk to
+   * @param seconds the longest walking time to include
+   * @return the tree of shortest paths to location from each location that reaches it in time, in
+   *         order of walking time and starting with location itself
+   * @throws NoSuchElementException if location does not exist
+   * @throws IllegalArgumentException if seconds is negative
+   */
+  public ShortestPathTree<String> findLocationsReaching(String location, double seconds)
+      throws NoSuchElementException;
+
 }
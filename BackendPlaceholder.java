@@ -1,5 +1,7 @@
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -21,8 +23,37 @@ public class BackendPlaceholder implements BackendInterface {
     return Arrays.asList(176.0, 80.0);
   }
 
+  public RouteResult<String> findRoute(String startLocation, String endLocation) {
+    return new RouteResult<>(findShortestPath(startLocation, endLocation),
+        getTravelTimesOnPath(startLocation, endLocation), 256.0);
+  }
+
+  public List<RouteResult<String>> findShortestPaths(Collection<RouteQuery> queries) {
+    List<RouteResult<String>> routes = new ArrayList<>();
+    for (RouteQuery query : queries)
+      routes.add(findRoute(query.getStartLocation(), query.getEndLocation()));
+    return routes;
+  }
+
+  public List<String> searchLocations(String query, int limit) {
+    return new LocationIndex(getListOfAllLocations()).search(query, limit);
+  }
+
   public String getMostDistantLocation(String location) throws NoSuchElementException {
     return "Atmospheric, Oceanic and Space Sciences";
   }
 
+  public ShortestPathTree<String> findLocationsWithin(String location, double seconds) {
+    List<String> locations = getListOfAllLocations();
+    ShortestPathTree<String> tree = new ShortestPathTree<>(locations.size());
+    tree.add(locations.get(0), 0.0, -1, 0.0);
+    tree.add(locations.get(1), 176.0, 0, 176.0);
+    tree.add(locations.get(2), 256.0, 1, 80.0);
+    return tree;
+  }
+
+  public ShortestPathTree<String> findLocationsReaching(String location, double seconds) {
+    return findLocationsWithin(location, seconds);
+  }
+
 }
@@ -0,0 +1,200 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of Backend's queries and graph loading against real graphs, rather
+ * than the placeholders BackendDeveloperTests uses.
+ */
+public class BackendTests {
+
+    @Test
+    public void testHotReload() throws Exception {
+        // Creating a dot file, loading it, and watching it for changes
+        Path dot = Files.createTempFile("reload", ".dot");
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"B\" [seconds=1];\n"
+                + "\"B\" -> \"C\" [seconds=1];\n\"A\" -> \"C\" [seconds=5];\n}\n");
+        Backend backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData(dot.toString());
+        List<String> oldLocations = backend.getListOfAllLocations();
+        RouteResult<String> oldRoute = backend.findRoute("A", "C");
+        backend.watchGraphData(dot.toString());
+
+        // Tests that writing the file swaps in a graph with the new weights
+        // and location, while results read before the swap are unchanged
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"B\" [seconds=1];\n"
+                + "\"B\" -> \"C\" [seconds=9];\n\"A\" -> \"C\" [seconds=5];\n\"C\" -> \"D\" [seconds=2];\n}\n");
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (backend.getReloadMetrics().getReloadCount() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+        backend.stopWatching();
+        assertEquals(1, backend.getReloadMetrics().getReloadCount());
+        assertEquals(Arrays.asList("A", "C"), backend.findShortestPath("A", "C"));
+        assertEquals(Arrays.asList("A", "B", "C", "D"), backend.getListOfAllLocations());
+        assertEquals(Arrays.asList("A", "B", "C"), oldLocations);
+        assertEquals(Arrays.asList("A", "B", "C"), oldRoute.getPath());
+
+        // Tests that a failed reload keeps the current graph and is counted
+        Files.delete(dot);
+        assertThrows(IOException.class, () -> backend.reloadGraphData(dot.toString()));
+        assertEquals(1, backend.getReloadMetrics().getFailedReloadCount());
+        assertEquals(7.0, backend.findRoute("A", "D").getTotalCost());
+    }
+
+    @Test
+    public void testLoadIntoNewGraph() throws Exception {
+        // Loading a file in parallel, so the backend holds a read-only CSRGraph
+        Path first = Files.createTempFile("first", ".dot");
+        Files.writeString(first, "digraph test {\n\"A\" -> \"B\" [seconds=1];\n}\n");
+        Path second = Files.createTempFile("second", ".dot");
+        Files.writeString(second, "digraph test {\n\"B\" -> \"C\" [seconds=2];\n}\n");
+        DijkstraGraph<String, Double> constructed = new DijkstraGraph<>();
+        Backend backend = new Backend(constructed);
+        backend.loadGraphDataParallel(first.toString());
+        GraphADT<String, Double> frozen = backend.getGraph();
+        List<String> oldLocations = backend.getListOfAllLocations();
+
+        // Tests that loading more data builds a new graph holding both files,
+        // and leaves the graph and locations read before it unchanged
+        backend.loadGraphData(second.toString());
+        Files.delete(first);
+        Files.delete(second);
+        assertNotSame(frozen, backend.getGraph());
+        assertEquals(Arrays.asList("A", "B", "C"), backend.getListOfAllLocations());
+        assertEquals(3.0, backend.findRoute("A", "C").getTotalCost());
+        assertEquals(Arrays.asList("A", "B"), oldLocations);
+        assertEquals(1, frozen.getEdgeCount());
+        assertEquals(0, constructed.getNodeCount());
+    }
+
+    @Test
+    public void testStaleAllPairsTable() throws Exception {
+        // Loading a small graph, which builds its all pairs table
+        Path dot = Files.createTempFile("stale", ".dot");
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"B\" [seconds=1];\n"
+                + "\"B\" -> \"C\" [seconds=1];\n\"A\" -> \"C\" [seconds=5];\n}\n");
+        Backend backend = new Backend(new ConcurrentGraph<>());
+        backend.loadGraphData(dot.toString());
+        Files.delete(dot);
+        GraphADT<String, Double> graph = backend.getGraph();
+        AllPairsTable<String> table = backend.getAllPairsTable();
+        assertNotNull(table);
+        assertEquals(Arrays.asList("A", "B", "C"), table.getPath("A", "C"));
+
+        // Tests that queries on a changed graph search it instead of
+        // answering from the out of date table
+        graph.insertEdge("A", "C", 1.0);
+        assertEquals(Arrays.asList("A", "C"), backend.findShortestPath("A", "C"));
+        assertEquals(1.0, backend.findRoute("A", "C").getTotalCost());
+
+        // Tests that the table is rebuilt for the changed graph
+        AllPairsTable<String> rebuilt = backend.getAllPairsTable();
+        assertNotSame(table, rebuilt);
+        assertEquals(Arrays.asList("A", "C"), rebuilt.getPath("A", "C"));
+        assertSame(rebuilt, backend.getAllPairsTable());
+    }
+
+    @Test
+    public void testGraphSnapshot() throws IOException {
+        // Creating a dot file, and loading it twice with a snapshot path
+        Path dot = Files.createTempFile("snapshot", ".dot");
+        Path snapshot = Files.createTempFile("snapshot", ".snapshot");
+        Files.delete(snapshot);
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"C\" [seconds=1];\n"
+                + "\"A\" -> \"D\" [seconds=4];\n\"C\" -> \"E\" [seconds=10];\n\"D\" -> \"B\" [seconds=2.5];\n"
+                + "\"D\" -> \"E\" [seconds=10];\n\"B\" -> \"E\" [seconds=1];\n}\n");
+        Backend fromDot = new Backend(new DijkstraGraph<>());
+        Backend fromSnapshot = new Backend(new DijkstraGraph<>());
+
+        // Tests that the second load uses the snapshot and gives the same answers
+        assertEquals(false, fromDot.loadGraphData(dot.toString(), snapshot.toString()));
+        assertEquals(true, fromSnapshot.loadGraphData(dot.toString(), snapshot.toString()));
+        assertEquals(fromDot.getListOfAllLocations(), fromSnapshot.getListOfAllLocations());
+        assertEquals(Arrays.asList("A", "D", "B", "E"), fromSnapshot.findShortestPath("A", "E"));
+        assertEquals(fromDot.getTravelTimesOnPath("A", "E"), fromSnapshot.getTravelTimesOnPath("A", "E"));
+
+        // Tests that a damaged snapshot is rejected by its checksum
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> GraphSnapshot.read(snapshot));
+        assertEquals(false, new Backend(new DijkstraGraph<>()).loadGraphData(dot.toString(), snapshot.toString()));
+        assertEquals(true, GraphSnapshot.isCurrent(snapshot, dot));
+
+        // Tests that changing the dot file makes the snapshot stale
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"B\" [seconds=1];\n}\n");
+        assertEquals(false, GraphSnapshot.isCurrent(snapshot, dot));
+        Backend changed = new Backend(new DijkstraGraph<>());
+        assertEquals(false, changed.loadGraphData(dot.toString(), snapshot.toString()));
+        assertEquals(Arrays.asList("A", "B"), changed.getListOfAllLocations());
+        Files.delete(dot);
+        Files.delete(snapshot);
+    }
+
+    @Test
+    public void testFindShortestPaths() {
+        // Creating a random graph of 300 locations, and a batch of queries
+        // that repeat start locations and include missing ones
+        Random random = new Random(17);
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 300; i++)
+            graph.insertNode("L" + i);
+        for (int i = 0; i < 900; i++)
+            graph.insertEdge("L" + random.nextInt(300), "L" + random.nextInt(300), 1.0 + random.nextInt(50));
+        List<RouteQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            queries.add(new RouteQuery("L" + random.nextInt(20), "L" + random.nextInt(320)));
+        queries.add(new RouteQuery("Nowhere", "L1"));
+
+        // Tests that both the searching and the all pairs table backends
+        // answer each query in input order, as findRoute would
+        for (int threshold : new int[] {0, 1000}) {
+            Backend backend = new Backend(graph);
+            backend.setAllPairsThreshold(threshold);
+            List<RouteResult<String>> routes = backend.findShortestPaths(queries);
+            assertEquals(queries.size(), routes.size());
+            for (int i = 0; i < queries.size(); i++) {
+                RouteQuery query = queries.get(i);
+                RouteResult<String> expected;
+                try {
+                    expected = backend.findRoute(query.getStartLocation(), query.getEndLocation());
+                } catch (NoSuchElementException e) {
+                    expected = null;
+                }
+                assertEquals(expected == null, routes.get(i) == null, query.toString());
+                if (expected != null) {
+                    assertEquals(expected.getPath(), routes.get(i).getPath());
+                    assertEquals(expected.getLegWeights(), routes.get(i).getLegWeights());
+                    assertEquals(expected.getTotalCost(), routes.get(i).getTotalCost());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFindLocationsWithin() {
+        // Creating a backend for the graph from DijkstraGraph's testShortPathOne
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        TestGraphs.insertShortPathOne(graph);
+        Backend backend = new Backend(graph);
+
+        // Tests that the backend answers both isochrones from its graph
+        assertEquals(List.of("A", "C", "D"), backend.findLocationsWithin("A", 5).getReachedNodes());
+        assertEquals(List.of("E", "B"), backend.findLocationsReaching("E", 2).getReachedNodes());
+        assertThrows(NoSuchElementException.class, () -> backend.findLocationsWithin("F", 5));
+    }
+
+}
@@ -1,5 +1,8 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.LinkedList;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -8,11 +11,17 @@ import java.util.NoSuchElementException;
  */
 public class BaseGraph<NodeType, EdgeType extends Number> {
 
-    // Each node contains unique data along with two lists of directed edges
+    // Each node contains unique data along with two collections of directed
+    // edges. The edges are indexed by the node at their other end, so that
+    // the edge between two nodes is found and removed in constant time, and
+    // are iterated in the order they were inserted.
     protected class Node {
         public NodeType data;
-        public List<Edge> edgesLeaving = new LinkedList<>();
-        public List<Edge> edgesEntering = new LinkedList<>();
+        public int index; // position of this node within nodeList
+        public Map<Node, Edge> leavingBySuccessor = new LinkedHashMap<>();
+        public Map<Node, Edge> enteringByPredecessor = new LinkedHashMap<>();
+        public Collection<Edge> edgesLeaving = leavingBySuccessor.values();
+        public Collection<Edge> edgesEntering = enteringByPredecessor.values();
 
         public Node(NodeType data) {
             this.data = data;
@@ -22,6 +31,10 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     // Nodes can be retrieved from this map by their unique data
     protected MapADT<NodeType, Node> nodes = null;
 
+    // Every node is also kept in this list, so that nodes can be enumerated
+    // and numbered 0..getNodeCount()-1 by their index field
+    protected List<Node> nodeList = new ArrayList<>();
+
     // Each edge contains data/weight, and two nodes that it connects
     protected class Edge {
         public EdgeType data; // the weight or cost of this edge
@@ -36,7 +49,11 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     }
 
     protected int edgeCount = 0;
-    // Edges can be retrieved through the edge lists in either connected node
+    // Edges can be retrieved through the edge indexes in either connected node
+
+    // Counts every change to the graph's nodes, edges or weights, so that data
+    // derived from the graph can tell when it is out of date
+    protected int modificationCount = 0;
 
     /**
      * Constructor for BaseGraph that provides the map the graph uses.
@@ -59,7 +76,11 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     public boolean insertNode(NodeType data) {
         if (nodes.containsKey(data))
             return false; // throws NPE when data's null
-        nodes.put(data, new Node(data));
+        Node newNode = new Node(data);
+        newNode.index = nodeList.size();
+        nodes.put(data, newNode);
+        nodeList.add(newNode);
+        modificationCount++;
         return true;
     }
 
@@ -77,12 +98,19 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (!nodes.containsKey(data))
             return false; // throws NPE when data==null
         Node oldNode = nodes.remove(data);
+        // keep nodeList free of gaps by moving its last node into the hole
+        Node lastNode = nodeList.remove(nodeList.size() - 1);
+        if (lastNode != oldNode) {
+            lastNode.index = oldNode.index;
+            nodeList.set(lastNode.index, lastNode);
+        }
         // remove all edges entering neighboring nodes from this one
         for (Edge edge : oldNode.edgesLeaving)
-            edge.successor.edgesEntering.remove(edge);
+            edge.successor.enteringByPredecessor.remove(oldNode);
         // remove all edges leaving neighboring nodes toward this one
         for (Edge edge : oldNode.edgesEntering)
-            edge.predecessor.edgesLeaving.remove(edge);
+            edge.predecessor.leavingBySuccessor.remove(oldNode);
+        modificationCount++;
         return true;
     }
 
@@ -123,18 +151,19 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         Node succNode = nodes.get(succ);
         if (predNode == null || succNode == null)
             return false;
-        try {
+        Edge existingEdge = predNode.leavingBySuccessor.get(succNode);
+        if (existingEdge != null) {
             // when an edge alread exists within the graph, update its weight
-            Edge existingEdge = getEdgeHelper(pred, succ);
             existingEdge.data = weight;
-        } catch (NoSuchElementException e) {
+        } else {
             // otherwise create a new edges
             Edge newEdge = new Edge(weight, predNode, succNode);
             this.edgeCount++;
-            // and insert it into each of its adjacent nodes' respective lists
-            predNode.edgesLeaving.add(newEdge);
-            succNode.edgesEntering.add(newEdge);
+            // and insert it into each of its adjacent nodes' respective indexes
+            predNode.leavingBySuccessor.put(succNode, newEdge);
+            succNode.enteringByPredecessor.put(predNode, newEdge);
         }
+        modificationCount++;
         return true;
     }
 
@@ -150,11 +179,12 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         try {
             // when an edge exists
             Edge oldEdge = getEdgeHelper(pred, succ);
-            // remove it from the edge lists of each adjacent node
-            oldEdge.predecessor.edgesLeaving.remove(oldEdge);
-            oldEdge.successor.edgesEntering.remove(oldEdge);
+            // remove it from the edge indexes of each adjacent node
+            oldEdge.predecessor.leavingBySuccessor.remove(oldEdge.successor);
+            oldEdge.successor.enteringByPredecessor.remove(oldEdge.predecessor);
             // and decrement the edge count before removing
             this.edgeCount--;
+            modificationCount++;
             return true;
         } catch (NoSuchElementException e) {
             // when no such edge exists, return false instead
@@ -170,12 +200,9 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      * @return true if the edge is found in the graph, or false other
      */
     public boolean containsEdge(NodeType pred, NodeType succ) {
-        try {
-            getEdgeHelper(pred, succ);
-            return true;
-        } catch (NoSuchElementException e) {
+        if (!nodes.containsKey(pred) || !nodes.containsKey(succ))
             return false;
-        }
+        return nodes.get(pred).leavingBySuccessor.containsKey(nodes.get(succ));
     }
 
     /**
@@ -193,11 +220,11 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
 
     protected Edge getEdgeHelper(NodeType pred, NodeType succ) {
         Node predNode = nodes.get(pred);
-        // search for edge through the predecessor's list of leaving edges
-        for (Edge edge : predNode.edgesLeaving)
-            // compare succ to the data in each leaving edge's successor
-            if (edge.successor.data.equals(succ))
-                return edge;
+        Node succNode = nodes.get(succ);
+        // look the edge up in the predecessor's index of leaving edges
+        Edge edge = predNode.leavingBySuccessor.get(succNode);
+        if (edge != null)
+            return edge;
         // when no such edge can be found, throw NSE
         throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
                 succ.toString());
@@ -212,5 +239,72 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         return this.edgeCount;
     }
 
+    /**
+     * Return the dense id of the node containing the provided data. Ids run
+     * from 0 to getNodeCount()-1 and are assigned in insertion order, so
+     * searches can index arrays by id instead of hashing node data. Removing
+     * a node gives its id to the node that had the largest id.
+     * 
+     * @param data the node contents to look up
+     * @return the id of that node
+     * @throws NoSuchElementException if no node contains this data
+     */
+    public int getNodeId(NodeType data) {
+        return nodes.get(data).index;
+    }
+
+    /**
+     * Return the data stored in the node with the provided dense id.
+     * 
+     * @param id the id of the node, from 0 to getNodeCount()-1
+     * @return the data stored in that node
+     * @throws IndexOutOfBoundsException if no node has this id
+     */
+    public NodeType getNodeData(int id) {
+        return nodeList.get(id).data;
+    }
+
+    /**
+     * Return the number of changes made to this graph so far. Any call that
+     * inserts, removes or updates a node or edge increases this count.
+     * 
+     * @return the number of changes made to this graph
+     */
+    public long getModificationCount() {
+        return this.modificationCount;
+    }
+
+    /**
+     * Create a read-only snapshot of this graph in compressed sparse row form.
+     * Node i of the snapshot holds the data of the node at index i of this
+     * graph, and edge weights are copied out as primitive doubles. Later
+     * changes to this graph are not reflected in the snapshot.
+     * 
+     * @return a CSRGraph holding the current nodes and edges of this graph
+     */
+    @SuppressWarnings("unchecked")
+    public CSRGraph<NodeType> freeze() {
+        int nodeCount = nodeList.size();
+        NodeType[] data = (NodeType[]) new Object[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        // count the edges leaving each node to find where its row starts
+        for (Node node : nodeList) {
+            data[node.index] = node.data;
+            offsets[node.index + 1] = offsets[node.index] + node.edgesLeaving.size();
+        }
+        int[] targets = new int[offsets[nodeCount]];
+        double[] weights = new double[offsets[nodeCount]];
+        // then copy every row's successors and weights into the flat arrays
+        for (Node node : nodeList) {
+            int position = offsets[node.index];
+            for (Edge edge : node.edgesLeaving) {
+                targets[position] = edge.successor.index;
+                weights[position] = edge.data.doubleValue();
+                position++;
+            }
+        }
+        return new CSRGraph<>(data, offsets, targets, weights);
+    }
+
 }
 
@@ -0,0 +1,1435 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Command line benchmarks for the routing code. Each benchmark is selected by
+ * name on the command line, for example: java Benchmarks csr
+ * Synthetic graphs are built from a fixed seed so that runs are repeatable.
+ */
+public class Benchmarks {
+
+    /**
+     * Runs the benchmarks named in args, or all of them when args is empty.
+     *
+     * @param args names of the benchmarks to run
+     */
+    public static void main(String[] args) {
+        if (args.length == 4 && args[0].equals("startup")) {
+            // run by benchmarkSnapshot in a separate JVM
+            startupChild(args[1], args[2], args[3]);
+            return;
+        }
+        if (args.length == 0)
+            args = new String[] { "csr", "queue", "distant", "algorithms", "ch", "allpairs", "route", "edges", "map", "dot",
+                    "snapshot", "parallel", "concurrent",
+                    "batch", "frontend", "autocomplete", "generate",
+                    "metrics", "trace", "isochrone" };
+        for (String name : args) {
+            switch (name) {
+                case "csr":
+                    benchmarkCSR();
+                    break;
+                case "queue":
+                    benchmarkQueues();
+                    break;
+                case "distant":
+                    benchmarkMostDistant();
+                    break;
+                case "algorithms":
+                    benchmarkSearchAlgorithms();
+                    break;
+                case "ch":
+                    benchmarkContractionHierarchy();
+                    break;
+                case "allpairs":
+                    benchmarkAllPairs();
+                    break;
+                case "route":
+                    benchmarkRoute();
+                    break;
+                case "edges":
+                    benchmarkEdgeLookup();
+                    break;
+                case "map":
+                    benchmarkMaps();
+                    break;
+                case "dot":
+                    benchmarkDotReader();
+                    break;
+                case "snapshot":
+                    benchmarkSnapshot();
+                    break;
+                case "parallel":
+                    benchmarkParallelDot();
+                    break;
+                case "concurrent":
+                    benchmarkConcurrentGraph();
+                    break;
+                case "batch":
+                    benchmarkBatchRouting();
+                    break;
+                case "frontend":
+                    benchmarkFrontendStall();
+                    break;
+                case "autocomplete":
+                    benchmarkAutocomplete();
+                    break;
+                case "generate":
+                    benchmarkGeneratedSizes();
+                    break;
+                case "metrics":
+                    benchmarkMetricsOverhead();
+                    break;
+                case "trace":
+                    benchmarkTraceOverhead();
+                    break;
+                case "isochrone":
+                    benchmarkIsochrone();
+                    break;
+                default:
+                    System.out.println("Unknown benchmark: " + name);
+            }
+        }
+    }
+
+    /**
+     * Builds a random connected graph. Node i is named "N" + i, has an edge to
+     * node i+1 (so every node can reach every other), and degree-1 more edges
+     * to random nodes. Edge weights are between 10 and 200 seconds.
+     *
+     * @param nodeCount number of nodes in the graph
+     * @param degree    number of edges leaving each node
+     * @param seed      seed for the random edges and weights
+     * @return the generated graph
+     */
+    public static DijkstraGraph<String, Double> randomGraph(int nodeCount, int degree, long seed) {
+        return randomGraph(nodeCount, degree, seed, NodeQueue.Strategy.BINARY_HEAP);
+    }
+
+    /**
+     * Builds the same random connected graph as randomGraph(nodeCount, degree,
+     * seed), searched with the provided priority queue strategy.
+     *
+     * @param nodeCount     number of nodes in the graph
+     * @param degree        number of edges leaving each node
+     * @param seed          seed for the random edges and weights
+     * @param queueStrategy the priority queue the graph searches with
+     * @return the generated graph
+     */
+    public static DijkstraGraph<String, Double> randomGraph(int nodeCount, int degree, long seed,
+            NodeQueue.Strategy queueStrategy) {
+        Random random = new Random(seed);
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>(queueStrategy);
+        for (int i = 0; i < nodeCount; i++)
+            graph.insertNode("N" + i);
+        for (int i = 0; i < nodeCount; i++) {
+            graph.insertEdge("N" + i, "N" + ((i + 1) % nodeCount), 10 + random.nextDouble() * 190);
+            for (int j = 1; j < degree; j++)
+                graph.insertEdge("N" + i, "N" + random.nextInt(nodeCount), 10 + random.nextDouble() * 190);
+        }
+        return graph;
+    }
+
+    /**
+     * Builds a grid shaped graph, which resembles a street map more closely
+     * than randomGraph does. Node (x, y) is named "N" + (y * width + x) and
+     * is joined in both directions to the nodes beside, above and below it,
+     * with the same random weight between 10 and 200 seconds each way.
+     *
+     * @param width  number of nodes in each row
+     * @param height number of rows
+     * @param seed   seed for the random weights
+     * @return the generated graph
+     */
+    public static DijkstraGraph<String, Double> gridGraph(int width, int height, long seed) {
+        Random random = new Random(seed);
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < width * height; i++)
+            graph.insertNode("N" + i);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int node = y * width + x;
+                if (x + 1 < width) {
+                    double weight = 10 + random.nextDouble() * 190;
+                    graph.insertEdge("N" + node, "N" + (node + 1), weight);
+                    graph.insertEdge("N" + (node + 1), "N" + node, weight);
+                }
+                if (y + 1 < height) {
+                    double weight = 10 + random.nextDouble() * 190;
+                    graph.insertEdge("N" + node, "N" + (node + width), weight);
+                    graph.insertEdge("N" + (node + width), "N" + node, weight);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the heap currently in use after asking for a full collection.
+     *
+     * @return used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Times random shortest path cost queries against a graph.
+     *
+     * @param graph     the graph to query
+     * @param nodeCount number of nodes named "N0".."N{nodeCount-1}"
+     * @param queries   number of queries to run
+     * @return average microseconds per query
+     */
+    private static double timeQueries(GraphADT<String, Double> graph, int nodeCount, int queries) {
+        Random random = new Random(7);
+        double checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+            checksum += graph.shortestPathCost("N" + random.nextInt(nodeCount), "N" + random.nextInt(nodeCount));
+        long elapsed = System.nanoTime() - startTime;
+        if (checksum == 42) // keeps the queries from being optimized away
+            System.out.println();
+        return elapsed / 1000.0 / queries;
+    }
+
+    /**
+     * Compares the heap footprint and query latency of a DijkstraGraph with
+     * its frozen CSRGraph snapshot.
+     */
+    private static void benchmarkCSR() {
+        System.out.println("== CSR snapshot vs DijkstraGraph ==");
+        for (int nodeCount : new int[] { 10_000, 100_000 }) {
+            long before = usedHeap();
+            DijkstraGraph<String, Double> graph = randomGraph(nodeCount, 10, 1);
+            long afterGraph = usedHeap();
+            CSRGraph<String> frozen = graph.freeze();
+            long afterFrozen = usedHeap();
+
+            // warm up both engines before timing them
+            timeQueries(graph, nodeCount, 20);
+            timeQueries(frozen, nodeCount, 20);
+            double graphMicros = timeQueries(graph, nodeCount, 100);
+            double frozenMicros = timeQueries(frozen, nodeCount, 100);
+
+            System.out.printf("%,d nodes, %,d edges%n", nodeCount, graph.getEdgeCount());
+            System.out.printf("  heap   DijkstraGraph %,d KB, CSRGraph %,d KB%n",
+                    (afterGraph - before) / 1024, (afterFrozen - afterGraph) / 1024);
+            System.out.printf("  query  DijkstraGraph %,.1f us, CSRGraph %,.1f us%n", graphMicros, frozenMicros);
+        }
+    }
+
+    /**
+     * Loads campus.dot into the provided graph. Backend.loadGraphData would
+     * load it into a new graph instead, so the file is read directly.
+     *
+     * @param graph the empty graph to load the campus into
+     * @return a backend that answers queries from the graph
+     */
+    private static Backend loadCampus(GraphADT<String, Double> graph) {
+        try {
+            new DotReader((start, finish, time) -> {
+                graph.insertNode(start);
+                graph.insertNode(finish);
+                if (!graph.containsEdge(start, finish))
+                    graph.insertEdge(start, finish, time);
+            }).read(new File("campus.dot").toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading campus.dot", e);
+        }
+        return new Backend(graph);
+    }
+
+    /**
+     * Compares the priority queue strategies of DijkstraGraph on every pair of
+     * campus locations, and on random queries over a graph with 1.2M edges.
+     */
+    private static void benchmarkQueues() {
+        System.out.println("== priority queue strategies ==");
+        for (NodeQueue.Strategy strategy : NodeQueue.Strategy.values()) {
+            DijkstraGraph<String, Double> campus = new DijkstraGraph<>(strategy);
+            List<String> locations = loadCampus(campus).getListOfAllLocations();
+            long startTime = 0;
+            double checksum = 0;
+            // the first round warms up, the remaining rounds are timed
+            for (int round = 0; round < 4; round++) {
+                if (round == 1)
+                    startTime = System.nanoTime();
+                for (String start : locations)
+                    for (String end : locations)
+                        checksum += campus.shortestPathCost(start, end);
+            }
+            double campusMicros = (System.nanoTime() - startTime) / 1000.0 / (3.0 * locations.size() * locations.size());
+
+            int nodeCount = 100_000;
+            DijkstraGraph<String, Double> graph = randomGraph(nodeCount, 12, 1, strategy);
+            timeQueries(graph, nodeCount, 20);
+            double largeMicros = timeQueries(graph, nodeCount, 100);
+            if (checksum == 42) // keeps the queries from being optimized away
+                System.out.println();
+            System.out.printf("%-16s campus.dot %,8.1f us/query   %,d edges %,10.1f us/query%n",
+                    strategy, campusMicros, graph.getEdgeCount(), largeMicros);
+        }
+    }
+
+    /**
+     * Writes a graph to a temporary dot file in the format read by
+     * Backend.loadGraphData.
+     *
+     * @param graph the graph to write
+     * @return the temporary file, which is deleted when the JVM exits
+     * @throws IOException if the file cannot be written
+     */
+    public static File writeDotFile(CSRGraph<String> graph) throws IOException {
+        File file = File.createTempFile("benchmark", ".dot");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("digraph benchmark {");
+            for (int node = 0; node < graph.getNodeCount(); node++)
+                for (int i = graph.offsets[node]; i < graph.offsets[node + 1]; i++)
+                    out.println("\t\"" + graph.getNodeData(node) + "\" -> \""
+                            + graph.getNodeData(graph.targets[i]) + "\" [seconds=" + graph.weights[i] + "];");
+            out.println("}");
+        }
+        return file;
+    }
+
+    /**
+     * Compares getMostDistantLocation, which runs a single search, with the
+     * previous approach of one shortestPathCost search per location.
+     */
+    private static void benchmarkMostDistant() {
+        System.out.println("== getMostDistantLocation ==");
+        int nodeCount = 10_000;
+        Backend backend = new Backend(new DijkstraGraph<>());
+        DijkstraGraph<String, Double> graph = randomGraph(nodeCount, 4, 1);
+        try {
+            backend.loadGraphData(writeDotFile(graph.freeze()).getPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing benchmark graph", e);
+        }
+
+        // one search per location, as getMostDistantLocation used to do
+        long startTime = System.nanoTime();
+        String naive = null;
+        double maxCost = 0.0;
+        for (String location : backend.getListOfAllLocations()) {
+            double cost = graph.shortestPathCost("N0", location);
+            if (cost > maxCost) {
+                maxCost = cost;
+                naive = location;
+            }
+        }
+        double naiveMillis = (System.nanoTime() - startTime) / 1e6;
+
+        for (int i = 0; i < 20; i++)
+            backend.getMostDistantLocation("N" + i);
+        startTime = System.nanoTime();
+        String single = backend.getMostDistantLocation("N0");
+        double singleMillis = (System.nanoTime() - startTime) / 1e6;
+
+        System.out.printf("%,d nodes: one search per location %,.1f ms (%s), single search %,.2f ms (%s)%n",
+                nodeCount, naiveMillis, naive, singleMillis, single);
+    }
+
+    /**
+     * Runs the same queries with each of DijkstraGraph's search algorithms,
+     * reporting the average number of settled nodes and time per query.
+     *
+     * @param graph     the graph to query
+     * @param starts    the start node of each query
+     * @param ends      the end node of each query
+     * @param algorithm the search algorithm to use
+     * @return a formatted summary of the settled nodes and time per query
+     */
+    private static String timeAlgorithm(DijkstraGraph<String, Double> graph, List<String> starts,
+            List<String> ends, DijkstraGraph.SearchAlgorithm algorithm) {
+        graph.setSearchAlgorithm(algorithm);
+        long settled = 0;
+        double checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < starts.size(); i++) {
+            checksum += graph.shortestPathCost(starts.get(i), ends.get(i));
+            settled += graph.getLastSettledCount();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        if (checksum == 42) // keeps the queries from being optimized away
+            System.out.println();
+        return String.format("%-14s %,10.1f settled %,10.1f us", algorithm,
+                (double) settled / starts.size(), elapsed / 1000.0 / starts.size());
+    }
+
+    /**
+     * Runs every search algorithm on the same queries, with landmarks chosen
+     * by each LandmarkTable.Selection for the ALT searches.
+     *
+     * @param name   the name of the graph, printed with each result
+     * @param graph  the graph to query
+     * @param starts the start node of each query
+     * @param ends   the end node of each query
+     */
+    private static void compareSearchAlgorithms(String name, DijkstraGraph<String, Double> graph,
+            List<String> starts, List<String> ends) {
+        int warmup = starts.size() > 1000 ? 1000 : 20;
+        for (DijkstraGraph.SearchAlgorithm algorithm : DijkstraGraph.SearchAlgorithm.values())
+            timeAlgorithm(graph, starts.subList(0, warmup), ends.subList(0, warmup), algorithm);
+        for (DijkstraGraph.SearchAlgorithm algorithm : DijkstraGraph.SearchAlgorithm.values()) {
+            if (algorithm != DijkstraGraph.SearchAlgorithm.ALT) {
+                System.out.printf("%-12s %-8s %s%n", name, "", timeAlgorithm(graph, starts, ends, algorithm));
+                continue;
+            }
+            for (LandmarkTable.Selection selection : LandmarkTable.Selection.values()) {
+                long startTime = System.nanoTime();
+                graph.precomputeLandmarks(8, selection);
+                double preprocessMillis = (System.nanoTime() - startTime) / 1e6;
+                System.out.printf("%-12s %-8s %s   (8 landmarks in %,.1f ms)%n", name, selection,
+                        timeAlgorithm(graph, starts, ends, algorithm), preprocessMillis);
+            }
+        }
+    }
+
+    /**
+     * Compares the settled node counts of each search algorithm on every pair
+     * of campus locations and on random pairs in a 100k node graph.
+     */
+    private static void benchmarkSearchAlgorithms() {
+        System.out.println("== search algorithms ==");
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        List<String> locations = loadCampus(campus).getListOfAllLocations();
+        List<String> starts = new ArrayList<>();
+        List<String> ends = new ArrayList<>();
+        for (String start : locations) {
+            for (String end : locations) {
+                starts.add(start);
+                ends.add(end);
+            }
+        }
+        compareSearchAlgorithms("campus.dot", campus, starts, ends);
+
+        int nodeCount = 100_000;
+        DijkstraGraph<String, Double> graph = randomGraph(nodeCount, 4, 1);
+        Random random = new Random(7);
+        starts.clear();
+        ends.clear();
+        for (int i = 0; i < 200; i++) {
+            starts.add("N" + random.nextInt(nodeCount));
+            ends.add("N" + random.nextInt(nodeCount));
+        }
+        compareSearchAlgorithms("100k nodes", graph, starts, ends);
+    }
+
+    /**
+     * Reports the preprocessing time, shortcut count and query latency of a
+     * ContractionHierarchy, and checks its costs against DijkstraGraph.
+     *
+     * @param name   the name of the graph, printed with the results
+     * @param graph  the graph to build the hierarchy from
+     * @param starts the start node of each query
+     * @param ends   the end node of each query
+     */
+    private static void reportContractionHierarchy(String name, DijkstraGraph<String, Double> graph,
+            List<String> starts, List<String> ends) {
+        long startTime = System.nanoTime();
+        ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph);
+        double preprocessMillis = (System.nanoTime() - startTime) / 1e6;
+
+        int mismatches = 0;
+        List<Integer> connected = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            double expected = graph.shortestPathCost(starts.get(i), ends.get(i));
+            double actual = hierarchy.shortestPathCost(starts.get(i), ends.get(i));
+            // equal cost paths can differ in the last bits of their summed cost
+            if (Double.isNaN(expected) != Double.isNaN(actual) || Math.abs(expected - actual) > 1e-6)
+                mismatches++;
+            if (!Double.isNaN(expected))
+                connected.add(i);
+        }
+        startTime = System.nanoTime();
+        for (int i : connected)
+            hierarchy.shortestPathData(starts.get(i), ends.get(i));
+        double pathMicros = (System.nanoTime() - startTime) / 1000.0 / connected.size();
+
+        System.out.printf("%-12s %,d nodes %,d edges: preprocessing %,.0f ms, %,d shortcuts, "
+                + "%,.1f us per path (%d cost mismatches)%n", name, graph.getNodeCount(),
+                graph.getEdgeCount(), preprocessMillis, hierarchy.getShortcutCount(), pathMicros, mismatches);
+    }
+
+    /**
+     * Builds contraction hierarchies for campus.dot and for grid graphs.
+     */
+    private static void benchmarkContractionHierarchy() {
+        System.out.println("== contraction hierarchy ==");
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        List<String> locations = loadCampus(campus).getListOfAllLocations();
+        List<String> starts = new ArrayList<>();
+        List<String> ends = new ArrayList<>();
+        for (String start : locations) {
+            for (String end : locations) {
+                starts.add(start);
+                ends.add(end);
+            }
+        }
+        reportContractionHierarchy("campus.dot", campus, starts, ends);
+
+        for (int width : new int[] { 100, 300 }) {
+            int nodeCount = width * width;
+            DijkstraGraph<String, Double> graph = gridGraph(width, width, 1);
+            Random random = new Random(7);
+            starts.clear();
+            ends.clear();
+            for (int i = 0; i < 1000; i++) {
+                starts.add("N" + random.nextInt(nodeCount));
+                ends.add("N" + random.nextInt(nodeCount));
+            }
+            reportContractionHierarchy("grid", graph, starts, ends);
+        }
+    }
+
+    /**
+     * Times every campus query through a Backend with and without an all
+     * pairs table, and reports the table's build time and memory for random
+     * graphs of increasing size.
+     */
+    private static void benchmarkAllPairs() {
+        System.out.println("== all pairs table ==");
+        for (int threshold : new int[] { 0, Backend.DEFAULT_ALL_PAIRS_THRESHOLD }) {
+            Backend backend = new Backend(new DijkstraGraph<>());
+            backend.setAllPairsThreshold(threshold);
+            try {
+                backend.loadGraphData("campus.dot");
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading campus.dot", e);
+            }
+            List<String> locations = backend.getListOfAllLocations();
+            long pathNanos = 0;
+            long distantNanos = 0;
+            int paths = 0;
+            for (int round = 0; round < 5; round++) {
+                pathNanos = 0;
+                distantNanos = 0;
+                paths = 0;
+                for (String start : locations) {
+                    long startTime = System.nanoTime();
+                    backend.getMostDistantLocation(start);
+                    distantNanos += System.nanoTime() - startTime;
+                    for (String end : locations) {
+                        startTime = System.nanoTime();
+                        try {
+                            backend.findShortestPath(start, end);
+                            paths++;
+                        } catch (NoSuchElementException e) {
+                            // unreachable pairs are timed too
+                        }
+                        pathNanos += System.nanoTime() - startTime;
+                    }
+                }
+            }
+            AllPairsTable<String> table = backend.getAllPairsTable();
+            String mode = table == null ? "searching the graph"
+                    : String.format("all pairs table (%,d ms build, %,d KB)", table.getBuildMillis(),
+                            table.getMemoryBytes() / 1024);
+            System.out.printf("campus.dot %s: findShortestPath %.2f us, getMostDistantLocation %.2f us (%,d paths)%n",
+                    mode, pathNanos / 1e3 / (locations.size() * locations.size()),
+                    distantNanos / 1e3 / locations.size(), paths);
+        }
+
+        for (int nodeCount : new int[] { 500, 1000, 2000, 4000 }) {
+            CSRGraph<String> graph = randomGraph(nodeCount, 4, 1).freeze();
+            new AllPairsTable<>(graph); // warm up
+            AllPairsTable<String> table = new AllPairsTable<>(graph);
+            System.out.printf("random %,6d nodes: build %,6d ms on %d threads, %,8d KB%n", nodeCount,
+                    table.getBuildMillis(), Runtime.getRuntime().availableProcessors(),
+                    table.getMemoryBytes() / 1024);
+        }
+    }
+
+    /**
+     * Compares showing a campus path with its walking times the way the
+     * Frontend used to (a search for the path, then another search for the
+     * times with an edge lookup per leg) against a single shortestPathRoute.
+     */
+    private static void benchmarkRoute() {
+        System.out.println("== route result ==");
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        List<String> locations = loadCampus(campus).getListOfAllLocations();
+        double separateMicros = 0;
+        double routeMicros = 0;
+        for (int round = 0; round < 5; round++) {
+            double checksum = 0;
+            long startTime = System.nanoTime();
+            for (String start : locations) {
+                for (String end : locations) {
+                    try {
+                        List<String> path = campus.shortestPathData(start, end);
+                        path = campus.shortestPathData(start, end);
+                        for (int i = 0; i < path.size() - 1; i++)
+                            checksum += campus.getEdge(path.get(i), path.get(i + 1));
+                    } catch (NoSuchElementException e) {
+                        // unreachable pairs are timed too
+                    }
+                }
+            }
+            separateMicros = (System.nanoTime() - startTime) / 1e3 / (locations.size() * locations.size());
+
+            startTime = System.nanoTime();
+            for (String start : locations) {
+                for (String end : locations) {
+                    try {
+                        checksum -= campus.shortestPathRoute(start, end).getTotalCost();
+                    } catch (NoSuchElementException e) {
+                        // unreachable pairs are timed too
+                    }
+                }
+            }
+            routeMicros = (System.nanoTime() - startTime) / 1e3 / (locations.size() * locations.size());
+            if (Math.abs(checksum) > 1e-3)
+                System.out.println("route totals differ from summed edges by " + checksum);
+        }
+        System.out.printf("campus.dot: path then times %.2f us, shortestPathRoute %.2f us%n", separateMicros,
+                routeMicros);
+    }
+
+    /**
+     * Times edge insertion, lookup and removal, and node removal, on graphs
+     * where a few hub nodes each have an edge to and from thousands of others.
+     */
+    private static void benchmarkEdgeLookup() {
+        System.out.println("== edge lookup on hubs ==");
+        for (int leafCount : new int[] { 1_000, 5_000, 20_000 }) {
+            int hubCount = 10;
+            DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+            for (int i = 0; i < hubCount; i++)
+                graph.insertNode("H" + i);
+            for (int i = 0; i < leafCount; i++)
+                graph.insertNode("N" + i);
+
+            long startTime = System.nanoTime();
+            for (int h = 0; h < hubCount; h++) {
+                for (int i = 0; i < leafCount; i++) {
+                    graph.insertEdge("H" + h, "N" + i, 1.0);
+                    graph.insertEdge("N" + i, "H" + h, 1.0);
+                }
+            }
+            double insertMillis = (System.nanoTime() - startTime) / 1e6;
+
+            startTime = System.nanoTime();
+            double checksum = 0;
+            for (int h = 0; h < hubCount; h++) {
+                for (int i = 0; i < leafCount; i++) {
+                    if (graph.containsEdge("H" + h, "N" + i))
+                        checksum += graph.getEdge("H" + h, "N" + i);
+                }
+            }
+            double lookupMillis = (System.nanoTime() - startTime) / 1e6;
+
+            startTime = System.nanoTime();
+            for (int h = 0; h < hubCount; h++) {
+                for (int i = 0; i < leafCount; i += 2)
+                    graph.removeEdge("H" + h, "N" + i);
+            }
+            double removeEdgeMillis = (System.nanoTime() - startTime) / 1e6;
+
+            startTime = System.nanoTime();
+            for (int h = 0; h < hubCount; h++)
+                graph.removeNode("H" + h);
+            double removeNodeMillis = (System.nanoTime() - startTime) / 1e6;
+
+            int edges = 2 * hubCount * leafCount;
+            System.out.printf("%,d hubs x %,6d leaves: insert %,d edges %,9.1f ms, contains+get %,9.1f ms, "
+                    + "remove half of hub edges %,9.1f ms, remove hubs %,9.1f ms (%.0f)%n", hubCount, leafCount,
+                    edges, insertMillis, lookupMillis, removeEdgeMillis, removeNodeMillis, checksum);
+        }
+    }
+
+    /**
+     * Runs a node lookup workload against one map: inserting every node name,
+     * then looking each up (as BaseGraph does for every edge and query),
+     * checking for names that are missing, and removing every name.
+     *
+     * @param map    the empty map to run the workload against
+     * @param names  the names to insert
+     * @param lookup names equal to those in names, in random order
+     * @param misses names that are not in names
+     * @return a formatted summary of the time taken by each step
+     */
+    private static String timeMap(MapADT<String, Integer> map, String[] names, String[] lookup, String[] misses) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < names.length; i++)
+            map.put(names[i], i);
+        double putMillis = (System.nanoTime() - startTime) / 1e6;
+
+        startTime = System.nanoTime();
+        long checksum = 0;
+        for (int round = 0; round < 10; round++)
+            for (String name : lookup)
+                checksum += map.get(name);
+        double getMillis = (System.nanoTime() - startTime) / 1e6;
+
+        startTime = System.nanoTime();
+        for (String name : misses)
+            if (map.containsKey(name))
+                checksum++;
+        double missMillis = (System.nanoTime() - startTime) / 1e6;
+
+        startTime = System.nanoTime();
+        for (String name : lookup)
+            checksum -= map.remove(name);
+        double removeMillis = (System.nanoTime() - startTime) / 1e6;
+        return String.format("put %,7.1f ms, 10x get %,7.1f ms, missing %,6.1f ms, remove %,7.1f ms%s", putMillis,
+                getMillis, missMillis, removeMillis, checksum == 0 ? "" : " (checksum " + checksum + ")");
+    }
+
+    /**
+     * Compares OpenAddressingMap, with and without pre-sizing, against
+     * PlaceholderMap on node name lookups.
+     */
+    private static void benchmarkMaps() {
+        System.out.println("== MapADT implementations ==");
+        for (int count : new int[] { 100_000, 1_000_000 }) {
+            Random random = new Random(1);
+            String[] names = new String[count];
+            String[] lookup = new String[count];
+            String[] misses = new String[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = "N" + i;
+                misses[i] = "M" + i;
+            }
+            // equal but separate strings, shuffled, as when parsing a file
+            for (int i = 0; i < count; i++)
+                lookup[i] = new String(names[i]);
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                String swap = lookup[i];
+                lookup[i] = lookup[j];
+                lookup[j] = swap;
+            }
+            for (int round = 0; round < 3; round++) {
+                String placeholder = timeMap(new PlaceholderMap<>(), names, lookup, misses);
+                String open = timeMap(new OpenAddressingMap<>(), names, lookup, misses);
+                String presized = timeMap(new OpenAddressingMap<>(count), names, lookup, misses);
+                String dense = timeMap(new OpenAddressingMap<>(count, 0.75), names, lookup, misses);
+                if (round == 2) {
+                    System.out.printf("%,d keys%n", count);
+                    System.out.println("  PlaceholderMap                 " + placeholder);
+                    System.out.println("  OpenAddressingMap              " + open);
+                    System.out.println("  OpenAddressingMap presized     " + presized);
+                    System.out.println("  OpenAddressingMap presized .75 " + dense);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses a dot file the way Backend.loadGraphData did before DotReader,
+     * with a Scanner, String.split and a regular expression on every line.
+     *
+     * @param file    the dot file to parse
+     * @param handler receives each edge
+     * @throws IOException if the file cannot be read
+     */
+    private static void legacyParse(File file, DotReader.EdgeHandler handler) throws IOException {
+        try (Scanner scan = new Scanner(file)) {
+            while (scan.hasNextLine()) {
+                String line = scan.nextLine().trim();
+                if (line.startsWith("\"")) {
+                    String[] parts = line.split("\"");
+                    if (parts.length >= 4) {
+                        String[] edgeDetails = parts[4].trim().split("\\[");
+                        if (edgeDetails.length >= 2) {
+                            String[] secondsPart = edgeDetails[1].split("=");
+                            if (secondsPart.length >= 2)
+                                handler.edge(parts[1], parts[3],
+                                        Double.parseDouble(secondsPart[1].replaceAll("[^\\d.]", "")));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a synthetic dot file of at least the given size, with random
+     * edges between nodeCount campus-style location names.
+     *
+     * @param megabytes the smallest size of the file in megabytes
+     * @param nodeCount the number of distinct location names
+     * @return the written file, which is deleted when the JVM exits
+     * @throws IOException if the file cannot be written
+     */
+    private static File writeSyntheticDot(long megabytes, int nodeCount) throws IOException {
+        File file = File.createTempFile("synthetic", ".dot");
+        file.deleteOnExit();
+        Random random = new Random(1);
+        long bytes = 0;
+        try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 20)) {
+            out.write("digraph synthetic {\n");
+            while (bytes < megabytes << 20) {
+                String line = "\t\"Location Hall " + random.nextInt(nodeCount) + "\" -> \"Location Hall "
+                        + random.nextInt(nodeCount) + "\" [seconds=" + (10 + random.nextInt(2000) / 10.0) + "];\n";
+                out.write(line);
+                bytes += line.length();
+            }
+            out.write("}\n");
+        }
+        return file;
+    }
+
+    /**
+     * Compares DotReader against the old Scanner and regex parser on
+     * campus.dot and a synthetic file, times loading a Backend, and measures
+     * DotReader's throughput on a synthetic file of -Ddot.mb megabytes
+     * (1024 by default).
+     */
+    private static void benchmarkDotReader() {
+        System.out.println("== dot file loading ==");
+        try {
+            // both parsers must produce the same edges
+            File campus = new File("campus.dot");
+            List<String> legacyEdges = new ArrayList<>();
+            List<String> readerEdges = new ArrayList<>();
+            legacyParse(campus, (pred, succ, seconds) -> legacyEdges.add(pred + "|" + succ + "|" + seconds));
+            new DotReader((pred, succ, seconds) -> readerEdges.add(pred + "|" + succ + "|" + seconds))
+                    .read(campus.toPath());
+            System.out.printf("campus.dot: %d edges, parsers agree: %b%n", readerEdges.size(),
+                    legacyEdges.equals(readerEdges));
+
+            File medium = writeSyntheticDot(64, 100_000);
+            long[] legacyCount = new long[1];
+            long[] legacyBest = { Long.MAX_VALUE };
+            long[] readerBest = { Long.MAX_VALUE };
+            double[] checksum = new double[2];
+            for (int round = 0; round < 3; round++) {
+                long startTime = System.nanoTime();
+                legacyCount[0] = 0;
+                legacyParse(medium, (pred, succ, seconds) -> {
+                    legacyCount[0]++;
+                    checksum[0] += seconds;
+                });
+                legacyBest[0] = Math.min(legacyBest[0], System.nanoTime() - startTime);
+                checksum[0] = 0;
+                startTime = System.nanoTime();
+                new DotReader((pred, succ, seconds) -> checksum[1] += seconds).read(medium.toPath());
+                readerBest[0] = Math.min(readerBest[0], System.nanoTime() - startTime);
+                checksum[1] = 0;
+            }
+            System.out.printf("64 MB, %,d edges, parse only: Scanner+regex %,d ms, DotReader %,d ms%n",
+                    legacyCount[0], legacyBest[0] / 1_000_000, readerBest[0] / 1_000_000);
+
+            long startTime = System.nanoTime();
+            Backend backend = new Backend(new DijkstraGraph<>());
+            backend.loadGraphData(medium.getPath());
+            System.out.printf("64 MB into Backend(DijkstraGraph): %,d ms, %,d locations%n",
+                    (System.nanoTime() - startTime) / 1_000_000, backend.getListOfAllLocations().size());
+            backend = null;
+            medium.delete();
+
+            long megabytes = Long.getLong("dot.mb", 1024);
+            File large = writeSyntheticDot(megabytes, 1_000_000);
+            startTime = System.nanoTime();
+            long edges = new DotReader((pred, succ, seconds) -> checksum[0] += seconds).read(large.toPath());
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf("%,d MB, %,d edges: DotReader %.1f s, %,.0f edges per minute, %.0f MB/s%n",
+                    megabytes, edges, seconds, edges / seconds * 60, large.length() / seconds / (1 << 20));
+            large.delete();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing or reading benchmark dot files", e);
+        }
+    }
+
+    /**
+     * Starts a Backend the way App does and runs one query, printing the time
+     * from the start of loading until that query has been answered.
+     *
+     * @param mode     "dot" to load the dot file only, or "snapshot" to load
+     *                 through the snapshot path
+     * @param dot      the dot file to load
+     * @param snapshot the snapshot file to read or write
+     */
+    private static void startupChild(String mode, String dot, String snapshot) {
+        long startTime = System.nanoTime();
+        Backend backend = new Backend(new DijkstraGraph<>());
+        boolean usedSnapshot = false;
+        try {
+            if (mode.equals("dot"))
+                backend.loadGraphData(dot);
+            else
+                usedSnapshot = backend.loadGraphData(dot, snapshot);
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading " + dot, e);
+        }
+        List<String> locations = backend.getListOfAllLocations();
+        List<String> path;
+        try {
+            path = backend.findShortestPath(locations.get(0), locations.get(locations.size() / 2));
+        } catch (NoSuchElementException e) {
+            path = new ArrayList<>();
+        }
+        System.out.println((System.nanoTime() - startTime) / 1_000_000 + " " + usedSnapshot + " " + path.size());
+    }
+
+    /**
+     * Runs startupChild in a new JVM, so that each start is measured without
+     * classes or compiled code left over from earlier runs.
+     *
+     * @return the child's output: milliseconds, whether the snapshot was
+     *         used, and the first path's length
+     */
+    private static String[] runStartup(String mode, File dot, File snapshot) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "Benchmarks",
+                "startup", mode, dot.getPath(), snapshot.getPath()).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes()).trim();
+        process.waitFor();
+        return output.split(" ");
+    }
+
+    /**
+     * Measures time to first query when starting from a dot file, and from a
+     * binary snapshot written by an earlier start, for campus.dot and a
+     * synthetic 64 MB dot file.
+     */
+    private static void benchmarkSnapshot() {
+        System.out.println("== startup from dot file vs snapshot ==");
+        try {
+            File synthetic = writeSyntheticDot(64, 100_000);
+            for (File dot : new File[] { new File("campus.dot"), synthetic }) {
+                File snapshot = File.createTempFile("benchmark", ".snapshot");
+                snapshot.delete();
+                snapshot.deleteOnExit();
+                String[] fromDot = runStartup("dot", dot, snapshot);
+                String[] writing = runStartup("snapshot", dot, snapshot);
+                String[] fromSnapshot = runStartup("snapshot", dot, snapshot);
+                System.out.printf("%-16s %,7d KB dot, %,7d KB snapshot: first query after %6s ms from dot, "
+                        + "%6s ms while writing snapshot, %6s ms from snapshot (used: %s, same path: %b)%n",
+                        dot == synthetic ? "synthetic 64 MB" : dot.getName(), dot.length() / 1024,
+                        snapshot.length() / 1024, fromDot[0], writing[0], fromSnapshot[0], fromSnapshot[1],
+                        fromDot[2].equals(fromSnapshot[2]));
+                snapshot.delete();
+            }
+            synthetic.delete();
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException("Error running startup benchmark", e);
+        }
+    }
+
+    /**
+     * Times loading a synthetic dot file of -Ddot.mb megabytes (256 by
+     * default) into a Backend edge by edge, and into a CSRGraph with
+     * ParallelDotReader on pools of 1, 2, 4 ... threads up to the number of
+     * available processors.
+     */
+    private static void benchmarkParallelDot() {
+        System.out.println("== parallel dot loading ==");
+        try {
+            long megabytes = Long.getLong("dot.mb", 256);
+            File dot = writeSyntheticDot(megabytes, 1_000_000);
+            System.out.printf("%,d MB synthetic file, %d processors%n", megabytes,
+                    Runtime.getRuntime().availableProcessors());
+
+            long startTime = System.nanoTime();
+            Backend backend = new Backend(new DijkstraGraph<>());
+            backend.loadGraphData(dot.getPath());
+            System.out.printf("Backend.loadGraphData:   %,7d ms, %,d locations%n",
+                    (System.nanoTime() - startTime) / 1_000_000, backend.getListOfAllLocations().size());
+            backend = null;
+
+            int processors = Runtime.getRuntime().availableProcessors();
+            List<Integer> threadCounts = new ArrayList<>();
+            for (int threads = 1; threads < processors; threads *= 2)
+                threadCounts.add(threads);
+            threadCounts.add(processors);
+            for (int threads : threadCounts) {
+                java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
+                long best = Long.MAX_VALUE;
+                CSRGraph<String> graph = null;
+                for (int round = 0; round < 3; round++) {
+                    graph = null;
+                    startTime = System.nanoTime();
+                    graph = new ParallelDotReader(pool).read(dot.toPath());
+                    best = Math.min(best, System.nanoTime() - startTime);
+                }
+                pool.shutdown();
+                System.out.printf("ParallelDotReader, %2d threads: %,7d ms, %,d nodes, %,d edges%n", threads,
+                        best / 1_000_000, graph.getNodeCount(), graph.getEdgeCount());
+            }
+            dot.delete();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing or reading benchmark dot files", e);
+        }
+    }
+
+    /**
+     * Measures shortest path query throughput on a 10,000 node ConcurrentGraph
+     * with 1, 2, 4 ... reader threads up to the number of available
+     * processors, while one writer thread keeps changing edge weights.
+     */
+    private static void benchmarkConcurrentGraph() {
+        System.out.println("== concurrent queries during edge updates ==");
+        // the same edges as randomGraph(nodeCount, 4, 16)
+        int nodeCount = 10_000;
+        Random random = new Random(16);
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        for (int i = 0; i < nodeCount; i++)
+            graph.insertNode("N" + i);
+        for (int i = 0; i < nodeCount; i++) {
+            graph.insertEdge("N" + i, "N" + ((i + 1) % nodeCount), 10 + random.nextDouble() * 190);
+            for (int j = 1; j < 4; j++)
+                graph.insertEdge("N" + i, "N" + random.nextInt(nodeCount), 10 + random.nextDouble() * 190);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2)
+            threadCounts.add(threads);
+        threadCounts.add(processors);
+        for (int threads : threadCounts) {
+            java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+            java.util.concurrent.atomic.LongAdder queries = new java.util.concurrent.atomic.LongAdder();
+            long[] writes = new long[1];
+            List<Thread> workers = new ArrayList<>();
+            Thread writer = new Thread(() -> {
+                Random writeRandom = new Random(1);
+                while (running.get()) {
+                    // move an edge of a random node to a new weight
+                    int node = writeRandom.nextInt(nodeCount);
+                    graph.insertEdge("N" + node, "N" + ((node + 1) % nodeCount), 10 + writeRandom.nextDouble() * 190);
+                    writes[0]++;
+                }
+            });
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers.add(new Thread(() -> {
+                    Random queryRandom = new Random(seed);
+                    while (running.get()) {
+                        graph.shortestPathCost("N" + queryRandom.nextInt(nodeCount), "N" + queryRandom.nextInt(nodeCount));
+                        queries.increment();
+                    }
+                }));
+            }
+            writer.start();
+            workers.forEach(Thread::start);
+            try {
+                Thread.sleep(3000);
+                running.set(false);
+                writer.join();
+                for (Thread worker : workers)
+                    worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            System.out.printf("%2d reader threads: %,8.0f queries/s, %,10.0f writes/s%n", threads,
+                    queries.sum() / 3.0, writes[0] / 3.0);
+        }
+    }
+
+    /**
+     * Compares the throughput of Backend.findShortestPaths on a batch of
+     * 100,000 queries from 200 start locations against calling findRoute in
+     * a loop, on a 10,000 node random graph without an all pairs table.
+     */
+    private static void benchmarkBatchRouting() {
+        System.out.println("== batch routing ==");
+        int nodeCount = 10_000;
+        Backend backend = new Backend(randomGraph(nodeCount, 4, 17));
+        backend.setAllPairsThreshold(0);
+        Random random = new Random(17);
+        List<RouteQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            queries.add(new RouteQuery("N" + random.nextInt(200), "N" + random.nextInt(nodeCount)));
+
+        // the naive loop is timed on a sample, since it searches once per query
+        int sample = 2_000;
+        for (int i = 0; i < 200; i++)
+            backend.findRoute(queries.get(i).getStartLocation(), queries.get(i).getEndLocation());
+        long startTime = System.nanoTime();
+        for (RouteQuery query : queries.subList(0, sample))
+            backend.findRoute(query.getStartLocation(), query.getEndLocation());
+        double loopSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        backend.findShortestPaths(queries.subList(0, 1000));
+        startTime = System.nanoTime();
+        List<RouteResult<String>> routes = backend.findShortestPaths(queries);
+        double batchSeconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("findRoute loop:    %,10.0f queries/s (%,d query sample)%n", sample / loopSeconds, sample);
+        System.out.printf("findShortestPaths: %,10.0f queries/s (%,d queries, %d start locations, %d processors)%n",
+                queries.size() / batchSeconds, routes.size(), 200, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Measures how long the frontend's application thread stalls on a
+     * "Find Most Distant Location" click over a 200,000 node random graph:
+     * before, when the click ran the search itself, and after, when the
+     * search runs through a LatestRequest and only showing the result runs
+     * on the application thread. The main thread stands in for the JavaFX
+     * application thread, running published results from a queue.
+     */
+    private static void benchmarkFrontendStall() {
+        System.out.println("== frontend stall ==");
+        int nodeCount = 200_000;
+        int clicks = 20;
+        Backend backend = new Backend(randomGraph(nodeCount, 4, 19));
+        backend.setAllPairsThreshold(0);
+        Random random = new Random(19);
+        String[] locations = new String[clicks];
+        for (int i = 0; i < clicks; i++)
+            locations[i] = "N" + random.nextInt(nodeCount);
+        backend.getMostDistantLocation(locations[0]);
+
+        // before: the click's handler searches on the application thread
+        long longestBefore = 0;
+        long totalBefore = 0;
+        for (String location : locations) {
+            long startTime = System.nanoTime();
+            backend.getMostDistantLocation(location);
+            long stall = System.nanoTime() - startTime;
+            longestBefore = Math.max(longestBefore, stall);
+            totalBefore += stall;
+        }
+
+        // after: the handler only submits the search, and the application
+        // thread later runs the code that shows its result
+        java.util.concurrent.BlockingQueue<Runnable> uiQueue = new java.util.concurrent.LinkedBlockingQueue<>();
+        java.util.concurrent.ExecutorService executor = LatestRequest.newExecutor("benchmark-routing");
+        LatestRequest<String> request = new LatestRequest<>(executor, uiQueue::add);
+        long longestAfter = 0;
+        long totalAfter = 0;
+        try {
+            for (String location : locations) {
+                long startTime = System.nanoTime();
+                request.submit(() -> backend.getMostDistantLocation(location), result -> { }, error -> { });
+                long stall = System.nanoTime() - startTime;
+                // the application thread is free while the search runs
+                Runnable show = uiQueue.take();
+                startTime = System.nanoTime();
+                show.run();
+                stall = Math.max(stall, System.nanoTime() - startTime);
+                longestAfter = Math.max(longestAfter, stall);
+                totalAfter += stall;
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        executor.shutdown();
+        System.out.printf("%,d nodes, %d clicks: synchronous handler stalls %,.1f ms on average, %,.1f ms at most%n",
+                nodeCount, clicks, totalBefore / 1e6 / clicks, longestBefore / 1e6);
+        System.out.printf("%,d nodes, %d clicks: background request stalls %,.3f ms on average, %,.3f ms at most%n",
+                nodeCount, clicks, totalAfter / 1e6 / clicks, longestAfter / 1e6);
+    }
+
+    /**
+     * Times LocationIndex on 1,000,000 generated location names, typing 1,000
+     * random names one character at a time and looking up the top 10
+     * matches after each keystroke, against scanning the list of names for
+     * each keystroke as the frontend would have to without an index.
+     */
+    private static void benchmarkAutocomplete() {
+        System.out.println("== autocomplete ==");
+        String[] words = { "Hall", "Union", "South", "North", "Science", "Library", "Center", "Memorial", "Lake",
+                "Garage", "Residence", "Engineering", "Computer", "Chemistry", "Art", "Music", "Field", "House",
+                "Street", "Park" };
+        Random random = new Random(20);
+        int nameCount = 1_000_000;
+        List<String> names = new ArrayList<>(nameCount);
+        for (int i = 0; i < nameCount; i++)
+            names.add(words[random.nextInt(words.length)] + ", " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)] + " " + i);
+
+        long startTime = System.nanoTime();
+        LocationIndex index = new LocationIndex(names);
+        double buildMillis = (System.nanoTime() - startTime) / 1e6;
+
+        int typed = 1_000;
+        List<Long> latencies = new ArrayList<>();
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT and is not reported
+            latencies.clear();
+            for (int i = 0; i < typed; i++) {
+                String name = names.get(random.nextInt(nameCount)).toLowerCase();
+                for (int length = 1; length <= name.length(); length++) {
+                    String query = name.substring(0, length);
+                    long keyStart = System.nanoTime();
+                    index.search(query, 10);
+                    latencies.add(System.nanoTime() - keyStart);
+                }
+            }
+        }
+        latencies.sort(null);
+        long total = 0;
+        for (long latency : latencies)
+            total += latency;
+
+        // a scan of every name per keystroke, timed on a few keystrokes
+        startTime = System.nanoTime();
+        int scans = 20;
+        for (int i = 0; i < scans; i++) {
+            String prefix = LocationIndex.normalize(names.get(random.nextInt(nameCount)).substring(0, 8));
+            List<String> matches = new ArrayList<>();
+            for (String name : names)
+                if (matches.size() < 10 && LocationIndex.normalize(name).startsWith(prefix))
+                    matches.add(name);
+        }
+        double scanMillis = (System.nanoTime() - startTime) / 1e6 / scans;
+
+        System.out.printf("%,d names indexed in %,.0f ms%n", nameCount, buildMillis);
+        System.out.printf("%,d keystrokes: mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us per top 10 lookup%n",
+                latencies.size(), total / 1e3 / latencies.size(), latencies.get(latencies.size() / 2) / 1e3,
+                latencies.get(latencies.size() * 99 / 100) / 1e3, latencies.get(latencies.size() - 1) / 1e3);
+        System.out.printf("scanning the list of names: %,.1f ms per keystroke%n", scanMillis);
+    }
+
+    /**
+     * Sweeps graph size with GraphGenerator: for each topology, writes maps
+     * of 10^3 edges and up by factors of 10 to -Dgenerate.edges (10^6 by
+     * default), then times writing the file, loading it into a CSRGraph
+     * with ParallelDotReader, and random shortest path queries on it.
+     */
+    private static void benchmarkGeneratedSizes() {
+        System.out.println("== generated graph sizes ==");
+        long largest = Long.getLong("generate.edges", 1_000_000);
+        try {
+            for (GraphGenerator.Topology topology : GraphGenerator.Topology.values()) {
+                for (long edges = 1_000; edges <= largest; edges *= 10) {
+                    GraphGenerator generator = new GraphGenerator(topology, edges, 22);
+                    File dot = File.createTempFile("generated", ".dot");
+                    dot.deleteOnExit();
+                    long startTime = System.nanoTime();
+                    long written = generator.write(dot.toPath());
+                    double writeSeconds = (System.nanoTime() - startTime) / 1e9;
+
+                    startTime = System.nanoTime();
+                    CSRGraph<String> graph = new ParallelDotReader().read(dot.toPath());
+                    double loadSeconds = (System.nanoTime() - startTime) / 1e9;
+                    double queryMicros = timeQueries(graph, graph.getNodeCount(), 200);
+                    System.out.printf("%-10s %,13d edges %,11d nodes: write %6.2f s (%,4.0f MB/s), load %6.2f s, "
+                            + "query %,10.1f us%n", topology, written, generator.getNodeCount(), writeSeconds,
+                            dot.length() / 1e6 / writeSeconds, loadSeconds, queryMicros);
+                    dot.delete();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing or reading generated dot files", e);
+        }
+    }
+
+    /**
+     * Measures the cost of RoutingMetrics on findRoute over a 10,000 node
+     * random graph and on campus.dot, both searched without an all pairs
+     * table: with the graph not instrumented at all, with metrics disabled,
+     * and with them enabled. Configurations take turns over several rounds
+     * and the best round of each is reported, so drift affects all alike.
+     */
+    private static void benchmarkMetricsOverhead() {
+        System.out.println("== routing metrics overhead ==");
+        DijkstraGraph<String, Double> random = randomGraph(10_000, 4, 23);
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        for (DijkstraGraph<String, Double> graph : List.of(random, campus)) {
+            Backend backend = graph == campus ? loadCampus(graph) : new Backend(graph);
+            backend.setAllPairsThreshold(0);
+            List<String> locations = graph == campus ? backend.getListOfAllLocations() : null;
+            int nodeCount = graph.getNodeCount();
+            int queries = graph == campus ? 20_000 : 2_000;
+            Random pairs = new Random(23);
+            String[] starts = new String[queries];
+            String[] ends = new String[queries];
+            for (int i = 0; i < queries; i++) {
+                starts[i] = locations != null ? locations.get(pairs.nextInt(nodeCount)) : "N" + pairs.nextInt(nodeCount);
+                ends[i] = locations != null ? locations.get(pairs.nextInt(nodeCount)) : "N" + pairs.nextInt(nodeCount);
+            }
+
+            String[] configurations = { "not instrumented", "disabled", "enabled" };
+            double[] best = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+            for (int round = 0; round < 11; round++) {
+                for (int config = 0; config < configurations.length; config++) {
+                    graph.setMetrics(config == 0 ? null : backend.getMetrics());
+                    backend.getMetrics().setEnabled(config == 2);
+                    long startTime = System.nanoTime();
+                    for (int i = 0; i < queries; i++) {
+                        try {
+                            backend.findRoute(starts[i], ends[i]);
+                        } catch (NoSuchElementException e) {
+                            // no path between this pair
+                        }
+                    }
+                    // the first round warms up the JIT and is not counted
+                    if (round > 0)
+                        best[config] = Math.min(best[config], (System.nanoTime() - startTime) / 1e3 / queries);
+                }
+            }
+            String name = graph == campus ? "campus.dot" : "random 10,000";
+            for (int config = 0; config < configurations.length; config++)
+                System.out.printf("%-14s %-17s %,8.2f us/query (%+.1f%%)%n", name, configurations[config],
+                        best[config], (best[config] / best[0] - 1) * 100);
+            System.out.println(backend.getMetrics());
+
+            // the whole-query times above vary by a few percent between
+            // rounds, more than metrics add, so the recording calls one
+            // query makes are also timed on their own
+            RoutingMetrics metrics = new RoutingMetrics();
+            metrics.setEnabled(true);
+            int calls = 2_000_000;
+            long startTime = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                long queryStart = metrics.startQuery();
+                metrics.recordSearch(i & 1023, i & 4095, i & 2047, 0);
+                metrics.recordQuery(RoutingMetrics.Query.ROUTE, queryStart, i & 15);
+            }
+            double recordMicros = (System.nanoTime() - startTime) / 1e3 / calls;
+            System.out.printf("%-14s recording one query %.3f us, %.3f%% of a not instrumented query%n", name,
+                    recordMicros, recordMicros / best[0] * 100);
+        }
+    }
+
+    /**
+     * Measures the cost of tracing shortestPathData with RouteQueryEvents on a
+     * 10,000 node random graph and on campus.dot: with no recording, with a
+     * recording that leaves the event disabled, and with one that enables
+     * it. Configurations take turns over several rounds and the best round
+     * of each is reported. One explained campus query is printed as well.
+     */
+    private static void benchmarkTraceOverhead() {
+        System.out.println("== route query tracing overhead ==");
+        DijkstraGraph<String, Double> random = randomGraph(10_000, 4, 23);
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        for (DijkstraGraph<String, Double> graph : List.of(random, campus)) {
+            Backend backend = graph == campus ? loadCampus(graph) : new Backend(graph);
+            List<String> locations = graph == campus ? backend.getListOfAllLocations() : null;
+            int nodeCount = graph.getNodeCount();
+            int queries = graph == campus ? 20_000 : 2_000;
+            Random pairs = new Random(23);
+            String[] starts = new String[queries];
+            String[] ends = new String[queries];
+            for (int i = 0; i < queries; i++) {
+                starts[i] = locations != null ? locations.get(pairs.nextInt(nodeCount)) : "N" + pairs.nextInt(nodeCount);
+                ends[i] = locations != null ? locations.get(pairs.nextInt(nodeCount)) : "N" + pairs.nextInt(nodeCount);
+            }
+
+            String[] configurations = { "no recording", "event disabled", "event enabled" };
+            double[] best = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+            for (int round = 0; round < 11; round++) {
+                for (int config = 0; config < configurations.length; config++) {
+                    jdk.jfr.Recording recording = config == 0 ? null : new jdk.jfr.Recording();
+                    if (config == 2)
+                        recording.enable(RouteQueryEvent.NAME);
+                    if (recording != null)
+                        recording.start();
+                    long startTime = System.nanoTime();
+                    for (int i = 0; i < queries; i++) {
+                        try {
+                            graph.shortestPathData(starts[i], ends[i]);
+                        } catch (NoSuchElementException e) {
+                            // no path between this pair
+                        }
+                    }
+                    // the first round warms up the JIT and is not counted
+                    if (round > 0)
+                        best[config] = Math.min(best[config], (System.nanoTime() - startTime) / 1e3 / queries);
+                    if (recording != null)
+                        recording.close();
+                }
+            }
+            String name = graph == campus ? "campus.dot" : "random 10,000";
+            for (int config = 0; config < configurations.length; config++)
+                System.out.printf("%-14s %-15s %,8.2f us/query (%+.1f%%)%n", name, configurations[config],
+                        best[config], (best[config] / best[0] - 1) * 100);
+            if (graph == campus) {
+                System.out.println(graph.explain(starts[0], ends[0]));
+                System.out.println(backend.explain(starts[0], ends[0]));
+            }
+        }
+    }
+
+    /**
+     * Measures isochrone queries, which find every location within a time
+     * budget. On campus.dot, five minute isochrones from every location are
+     * compared with one shortestPathCost per location pair, and with a full
+     * shortestPathTree filtered by cost. On a 250,000 node grid, growing
+     * budgets show the bounded search's time following the region reached
+     * rather than the size of the graph.
+     */
+    private static void benchmarkIsochrone() {
+        System.out.println("== isochrone queries ==");
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        List<String> locations = loadCampus(campus).getListOfAllLocations();
+        CSRGraph<String> frozenCampus = campus.freeze();
+        double budget = 300;
+        for (int round = 0; round < 3; round++) {
+            // each location against every other, as callers had to before
+            long startTime = System.nanoTime();
+            long reached = 0;
+            for (String start : locations)
+                for (String end : locations)
+                    if (campus.shortestPathCost(start, end) <= budget)
+                        reached++;
+            double perCost = (System.nanoTime() - startTime) / 1e3 / locations.size();
+
+            startTime = System.nanoTime();
+            long treeReached = 0;
+            for (String start : locations) {
+                ShortestPathTree<String> tree = campus.shortestPathTree(start);
+                for (String node : tree.getReachedNodes())
+                    if (tree.getCost(node) <= budget)
+                        treeReached++;
+            }
+            double fullTree = (System.nanoTime() - startTime) / 1e3 / locations.size();
+
+            startTime = System.nanoTime();
+            long isochroneReached = 0;
+            for (String start : locations)
+                isochroneReached += campus.isochrone(start, budget).size();
+            double isochrone = (System.nanoTime() - startTime) / 1e3 / locations.size();
+
+            startTime = System.nanoTime();
+            long reverseReached = 0;
+            for (String start : locations)
+                reverseReached += frozenCampus.reverseIsochrone(start, budget).size();
+            double frozenReverse = (System.nanoTime() - startTime) / 1e3 / locations.size();
+
+            System.out.printf("campus.dot 300 s, round %d: shortestPathCost per pair %,.1f us, filtered tree %,.1f us, "
+                    + "isochrone %,.1f us, frozen reverse %,.1f us per location (%.1f reached; %d %d %d)%n", round,
+                    perCost, fullTree, isochrone, frozenReverse, (double) isochroneReached / locations.size(),
+                    reached, treeReached, reverseReached);
+        }
+
+        DijkstraGraph<String, Double> grid = gridGraph(500, 500, 29);
+        Random random = new Random(29);
+        String[] starts = new String[50];
+        for (int i = 0; i < starts.length; i++)
+            starts[i] = "N" + random.nextInt(grid.getNodeCount());
+        for (int round = 0; round < 2; round++) {
+            long startTime = System.nanoTime();
+            for (String start : starts)
+                grid.shortestPathTree(start);
+            double fullTree = (System.nanoTime() - startTime) / 1e6 / starts.length;
+            System.out.printf("grid 250,000 round %d: full shortestPathTree %,.2f ms%n", round, fullTree);
+            for (double gridBudget : new double[] { 300, 1_000, 3_000, 10_000 }) {
+                startTime = System.nanoTime();
+                long reached = 0;
+                for (String start : starts)
+                    reached += grid.isochrone(start, gridBudget).size();
+                double millis = (System.nanoTime() - startTime) / 1e6 / starts.length;
+                System.out.printf("grid 250,000 round %d: isochrone %,6.0f s %,9.3f ms, %,8.0f reached, "
+                        + "%.2f us per reached node%n", round, gridBudget, millis, (double) reached / starts.length,
+                        millis * 1e3 * starts.length / reached);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Runs Dijkstra's algorithm from a root node, settling every node within a
+ * largest path cost of it into a ShortestPathTree. This is the isochrone
+ * search of DijkstraGraph, CSRGraph and ConcurrentGraph, which each supply
+ * their nodes' data and edges by node id. Unlike a graph's full search,
+ * which gives every node in the graph a slot in its arrays, this numbers
+ * nodes as they are first reached and grows its arrays and queue as needed,
+ * so a small budget on a large graph only touches the nodes near the root.
+ */
+public class BoundedSearch {
+
+    /**
+     * Supplies the edges of a graph's nodes to a BoundedSearch, in the
+     * direction being searched.
+     */
+    public interface Edges {
+
+        /**
+         * Calls search.relax once for each edge of the node with the
+         * provided id: each edge leaving it for a forward search, or each
+         * edge entering it for a reverse search.
+         *
+         * @param id     the id of the node being settled
+         * @param search the search to relax the node's edges in
+         */
+        void relaxEdges(int id, BoundedSearch search);
+    }
+
+    private final double maxCost;
+    private final NodeQueue queue;
+    // each reached node's number, by id, and id, by number
+    private final OpenAddressingMap<Integer, Integer> localIds = new OpenAddressingMap<>();
+    private int[] ids = new int[16];
+    private double[] cost = new double[16];
+    private int[] pred = new int[16];
+    private double[] predWeight = new double[16];
+    // position of each settled node within the tree, or -1 until settled
+    private int[] treePosition = new int[16];
+    private int reachedCount = 1;
+    // the number of the node whose edges are being relaxed
+    private int current;
+    private int relaxed = 0;
+    private int pushes = 1;
+
+    private BoundedSearch(int root, double maxCost, NodeQueue.Strategy strategy) {
+        this.maxCost = maxCost;
+        queue = strategy.create(16);
+        localIds.put(root, 0);
+        ids[0] = root;
+        pred[0] = -1;
+        treePosition[0] = -1;
+        queue.push(0, 0);
+    }
+
+    /**
+     * Settles every node within maxCost of the root into a ShortestPathTree.
+     *
+     * @param <NodeType> the data type stored at each graph node
+     * @param root       the id of the node to search from
+     * @param maxCost    the largest path cost to include
+     * @param strategy   the kind of queue to search with
+     * @param dataOf     returns the data stored at the node with an id
+     * @param edges      supplies the edges of each settled node
+     * @param metrics    the metrics to add the search's work to, or null
+     * @return the tree of nodes within maxCost of the root
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public static <NodeType> ShortestPathTree<NodeType> search(int root, double maxCost, NodeQueue.Strategy strategy,
+            IntFunction<NodeType> dataOf, Edges edges, RoutingMetrics metrics) {
+        if (!(maxCost >= 0))
+            throw new IllegalArgumentException("maxCost must not be negative: " + maxCost);
+        return new BoundedSearch(root, maxCost, strategy).run(dataOf, edges, metrics);
+    }
+
+    // settles nodes until the queue, which never holds a node past the
+    // budget, is empty
+    private <NodeType> ShortestPathTree<NodeType> run(IntFunction<NodeType> dataOf, Edges edges,
+            RoutingMetrics metrics) {
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(16);
+        int stalePops = 0;
+        while (!queue.isEmpty()) {
+            current = queue.poll();
+            if (treePosition[current] != -1) {
+                stalePops++;
+                continue;
+            }
+            int parent = pred[current] == -1 ? -1 : treePosition[pred[current]];
+            treePosition[current] = tree.add(dataOf.apply(ids[current]), cost[current], parent, predWeight[current]);
+            edges.relaxEdges(ids[current], this);
+        }
+        if (metrics != null)
+            metrics.recordSearch(tree.size(), relaxed, pushes, stalePops);
+        return tree;
+    }
+
+    /**
+     * Relaxes one edge of the node being settled, queueing its neighbor when
+     * the edge gives it a cheaper path that is still within the budget.
+     *
+     * @param neighborId the id of the node at the edge's other end
+     * @param weight     the weight of the edge
+     */
+    public void relax(int neighborId, double weight) {
+        double updatedCost = cost[current] + weight;
+        relaxed++;
+        // nodes past the budget are never queued
+        if (updatedCost > maxCost)
+            return;
+        Integer neighbor = localIds.putIfAbsent(neighborId, reachedCount);
+        if (neighbor == null) {
+            neighbor = reachedCount++;
+            if (neighbor == ids.length) {
+                ids = Arrays.copyOf(ids, neighbor * 2);
+                cost = Arrays.copyOf(cost, neighbor * 2);
+                pred = Arrays.copyOf(pred, neighbor * 2);
+                predWeight = Arrays.copyOf(predWeight, neighbor * 2);
+                treePosition = Arrays.copyOf(treePosition, neighbor * 2);
+            }
+            ids[neighbor] = neighborId;
+            cost[neighbor] = Double.POSITIVE_INFINITY;
+            treePosition[neighbor] = -1;
+        }
+        if (updatedCost < cost[neighbor]) {
+            cost[neighbor] = updatedCost;
+            pred[neighbor] = current;
+            predWeight[neighbor] = weight;
+            queue.push(neighbor, updatedCost);
+            pushes++;
+        }
+    }
+}
@@ -0,0 +1,648 @@
+import java.util.*;
+
+/**
+ * This class is an immutable snapshot of a directed graph stored in compressed
+ * sparse row (CSR) form. Nodes are numbered 0..getNodeCount()-1, and the edges
+ * leaving node i are stored at positions offsets[i] up to (but not including)
+ * offsets[i+1] of the targets and weights arrays. Snapshots are created with
+ * BaseGraph.freeze() and answer shortest path queries by running Dijkstra's
+ * algorithm directly on these arrays, using an IndexedHeap as its queue.
+ * Methods that would modify the graph throw UnsupportedOperationException.
+ */
+public class CSRGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    // node data by node id, and node id by node data
+    protected final NodeType[] nodeData;
+    protected final MapADT<NodeType, Integer> nodeIds;
+
+    // edges leaving node i are stored in positions offsets[i]..offsets[i+1]-1
+    protected final int[] offsets;
+    protected final int[] targets;
+    protected final double[] weights;
+
+    // where query searches add up their work, or null when not measured; the
+    // graph itself stays read-only
+    protected volatile RoutingMetrics metrics = null;
+
+    // the edges entering each node, in the same layout as the edges leaving
+    // it, or null until the first reverse isochrone needs them
+    private volatile Transpose transpose = null;
+
+    // edges entering node i are at offsets[i]..offsets[i+1]-1, each from
+    // sources[j] with weight weights[j]
+    private static class Transpose {
+        final int[] offsets;
+        final int[] sources;
+        final double[] weights;
+
+        Transpose(int[] offsets, int[] sources, double[] weights) {
+            this.offsets = offsets;
+            this.sources = sources;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * Constructor for a snapshot from its already built arrays. The arrays are
+     * used as is and must not be modified afterwards.
+     *
+     * @param nodeData the data for each node id
+     * @param offsets  the start of each node's row, with one extra final entry
+     * @param targets  the successor id of each edge
+     * @param weights  the weight of each edge
+     */
+    protected CSRGraph(NodeType[] nodeData, int[] offsets, int[] targets, double[] weights) {
+        this(nodeData, new OpenAddressingMap<>(nodeData.length), offsets, targets, weights);
+        for (int i = 0; i < nodeData.length; i++)
+            nodeIds.put(nodeData[i], i);
+    }
+
+    /**
+     * Constructor for a snapshot from its already built arrays and a map that
+     * already holds the id of every node. The arrays and map are used as is
+     * and must not be modified afterwards.
+     *
+     * @param nodeData the data for each node id
+     * @param nodeIds  the id of each node's data
+     * @param offsets  the start of each node's row, with one extra final entry
+     * @param targets  the successor id of each edge
+     * @param weights  the weight of each edge
+     */
+    protected CSRGraph(NodeType[] nodeData, MapADT<NodeType, Integer> nodeIds, int[] offsets, int[] targets,
+            double[] weights) {
+        this.nodeData = nodeData;
+        this.nodeIds = nodeIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Constructor for a graph that shares the arrays of an existing snapshot.
+     * This lets subclasses add query structures on top of a frozen graph.
+     *
+     * @param snapshot the snapshot whose nodes and edges this graph holds
+     */
+    protected CSRGraph(CSRGraph<NodeType> snapshot) {
+        this.nodeData = snapshot.nodeData;
+        this.nodeIds = snapshot.nodeIds;
+        this.offsets = snapshot.offsets;
+        this.targets = snapshot.targets;
+        this.weights = snapshot.weights;
+    }
+
+    /**
+     * Sets the metrics that the searches behind shortestPathData,
+     * shortestPathCost, shortestPathRoute, shortestPathIds and
+     * shortestPathTree add their work to. Searches run to build tables such
+     * as an AllPairsTable are not counted.
+     *
+     * @param metrics the metrics to record into, or null to record nothing
+     */
+    public void setMetrics(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the id of the node containing the provided data.
+     *
+     * @param data the node contents to look up
+     * @return the id of that node
+     * @throws NoSuchElementException if no node contains this data
+     */
+    public int getNodeId(NodeType data) {
+        return nodeIds.get(data);
+    }
+
+    /**
+     * Returns the data stored in the node with the provided id.
+     *
+     * @param id the id of the node
+     * @return the data stored in that node
+     */
+    public NodeType getNodeData(int id) {
+        return nodeData[id];
+    }
+
+    @Override
+    public boolean insertNode(NodeType data) {
+        throw new UnsupportedOperationException("CSRGraph is a read-only snapshot");
+    }
+
+    @Override
+    public boolean removeNode(NodeType data) {
+        throw new UnsupportedOperationException("CSRGraph is a read-only snapshot");
+    }
+
+    @Override
+    public boolean containsNode(NodeType data) {
+        return nodeIds.containsKey(data);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeData.length;
+    }
+
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        throw new UnsupportedOperationException("CSRGraph is a read-only snapshot");
+    }
+
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        throw new UnsupportedOperationException("CSRGraph is a read-only snapshot");
+    }
+
+    @Override
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        if (!nodeIds.containsKey(pred) || !nodeIds.containsKey(succ))
+            return false;
+        return findEdge(nodeIds.get(pred), nodeIds.get(succ)) >= 0;
+    }
+
+    @Override
+    public Double getEdge(NodeType pred, NodeType succ) {
+        if (nodeIds.containsKey(pred) && nodeIds.containsKey(succ)) {
+            int position = findEdge(nodeIds.get(pred), nodeIds.get(succ));
+            if (position >= 0)
+                return weights[position];
+        }
+        throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+                succ.toString());
+    }
+
+    /**
+     * Finds the position of the edge between two node ids.
+     *
+     * @param pred the id of the edge's source node
+     * @param succ the id of the edge's target node
+     * @return the position of that edge within targets and weights, or -1 if
+     *         there is no such edge
+     */
+    protected int findEdge(int pred, int succ) {
+        for (int i = offsets[pred]; i < offsets[pred + 1]; i++)
+            if (targets[i] == succ)
+                return i;
+        return -1;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns this graph, since a CSRGraph is already a read-only snapshot.
+     *
+     * @return this graph
+     */
+    @Override
+    public CSRGraph<NodeType> freeze() {
+        return this;
+    }
+
+    /**
+     * Returns 0, since a CSRGraph is never changed after it is built.
+     *
+     * @return 0
+     */
+    @Override
+    public long getModificationCount() {
+        return 0;
+    }
+
+    /**
+     * Returns a new, empty DijkstraGraph, since a CSRGraph cannot be changed.
+     *
+     * @return a new graph with no nodes or edges
+     */
+    @Override
+    public GraphADT<NodeType, Double> newEmptyGraph() {
+        return new DijkstraGraph<>();
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the start id, recording the cost and
+     * predecessor id of every node it reaches. The search stops once the end
+     * id is settled, or settles every reachable node when end is -1. Nodes
+     * that are not reached keep an infinite cost.
+     *
+     * @param start        the id of the starting node
+     * @param end          the id of the destination node, or -1 for none
+     * @param cost         array to receive the cost of reaching each node
+     * @param pred         array to receive the predecessor id of each node,
+     *                     which is -1 for the starting node
+     * @param settledOrder array to receive the ids of settled nodes in the
+     *                     order they are settled, or null when not needed
+     * @return the number of nodes settled by the search
+     */
+    protected int search(int start, int end, double[] cost, int[] pred, int[] settledOrder) {
+        return search(start, end, cost, pred, settledOrder, new SearchOptions(null));
+    }
+
+    /**
+     * Runs the same search as search(start, end, cost, pred, settledOrder),
+     * with the optional parts set in options: it may also stop once every
+     * target is settled, add up its work in the options' metrics, record the
+     * weight of the edge from each node's predecessor, and track the most
+     * entries its heap held at once. The decrease-key heap never holds a
+     * stale entry, so none are counted.
+     *
+     * @param start        the id of the starting node
+     * @param end          the id of the destination node, or -1 for none
+     * @param cost         array to receive the cost of reaching each node
+     * @param pred         array to receive the predecessor id of each node,
+     *                     which is -1 for the starting node
+     * @param settledOrder array to receive the ids of settled nodes in the
+     *                     order they are settled, or null when not needed
+     * @param options      the targets, metrics and extra outputs of the search
+     * @return the number of nodes settled by the search
+     */
+    protected int search(int start, int end, double[] cost, int[] pred, int[] settledOrder, SearchOptions options) {
+        double[] predWeight = options.predWeight;
+        boolean trackHeapHighWater = options.trackHeapHighWater;
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        NodeQueue queue = NodeQueue.Strategy.BINARY_HEAP.create(nodeData.length);
+        int settledCount = 0;
+        int relaxed = 0;
+        int pushes = 1;
+        int highWater = 1;
+        cost[start] = 0;
+        pred[start] = -1;
+        queue.push(start, 0);
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (settledOrder != null)
+                settledOrder[settledCount] = current;
+            settledCount++;
+            if (current == end || options.settled(current))
+                break;
+
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int neighbor = targets[i];
+                double updatedCost = cost[current] + weights[i];
+                relaxed++;
+                if (updatedCost < cost[neighbor]) {
+                    cost[neighbor] = updatedCost;
+                    pred[neighbor] = current;
+                    if (predWeight != null)
+                        predWeight[neighbor] = weights[i];
+                    queue.push(neighbor, updatedCost);
+                    pushes++;
+                    if (trackHeapHighWater && queue.size() > highWater)
+                        highWater = queue.size();
+                }
+            }
+        }
+        if (options.metrics != null)
+            options.metrics.recordSearch(settledCount, relaxed, pushes, 0);
+        if (trackHeapHighWater)
+            options.heapHighWater = highWater;
+        return settledCount;
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path from
+     * the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        if (RouteQueryEvent.isTracing())
+            return tracedPathData(start, end);
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        double[] cost = new double[nodeData.length];
+        int[] pred = new int[nodeData.length];
+        int endId = nodeIds.get(end);
+        search(nodeIds.get(start), endId, cost, pred, null, new SearchOptions(metrics));
+        if (cost[endId] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("Path does not exist");
+
+        LinkedList<NodeType> path = new LinkedList<>();
+        for (int node = endId; node != -1; node = pred[node])
+            path.addFirst(nodeData[node]);
+        return path;
+    }
+
+    /**
+     * Returns the ids of the nodes along the shortest path between two node
+     * ids, without looking up any node data.
+     *
+     * @param startId the id of the starting node for the path
+     * @param endId   the id of the destination node for the path
+     * @return the ids of the nodes along this shortest path, in path order
+     * @throws NoSuchElementException when no path from start to end is found
+     * @throws IndexOutOfBoundsException when either id is not a node's id
+     */
+    public int[] shortestPathIds(int startId, int endId) {
+        Objects.checkIndex(startId, nodeData.length);
+        Objects.checkIndex(endId, nodeData.length);
+        double[] cost = new double[nodeData.length];
+        int[] pred = new int[nodeData.length];
+        search(startId, endId, cost, pred, null, new SearchOptions(metrics));
+        if (cost[endId] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("Path does not exist");
+        int length = 0;
+        for (int id = endId; id != -1; id = pred[id])
+            length++;
+        int[] path = new int[length];
+        for (int id = endId; id != -1; id = pred[id])
+            path[--length] = id;
+        return path;
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node containing the start
+     * data to the node containing the end data.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes, or Double.NaN
+     *         when there is no such path
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start) || !nodeIds.containsKey(end))
+            return Double.NaN;
+        if (RouteQueryEvent.isTracing())
+            return tracedPathCost(start, end);
+        double[] cost = new double[nodeData.length];
+        int endId = nodeIds.get(end);
+        search(nodeIds.get(start), endId, cost, new int[nodeData.length], null, new SearchOptions(metrics));
+        return cost[endId] == Double.POSITIVE_INFINITY ? Double.NaN : cost[endId];
+    }
+
+    /**
+     * Answers shortestPathData with an explained query, committing a
+     * RouteQueryEvent for it.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    protected List<NodeType> tracedPathData(NodeType start, NodeType end) {
+        RouteExplanation<NodeType> explanation = RouteQueryEvent.trace(() -> explain(start, end));
+        if (!explanation.isFound())
+            throw new NoSuchElementException("Path does not exist");
+        return new LinkedList<>(explanation.getPath());
+    }
+
+    /**
+     * Answers shortestPathCost with an explained query, committing a
+     * RouteQueryEvent for it.
+     *
+     * @param start the data item in the starting node, which must be a node
+     * @param end   the data item in the destination node, which must be a node
+     * @return the cost of the shortest path between these nodes, or Double.NaN
+     *         when there is no such path
+     */
+    protected double tracedPathCost(NodeType start, NodeType end) {
+        RouteExplanation<NodeType> explanation = RouteQueryEvent.trace(() -> explain(start, end));
+        return explanation.isFound() ? explanation.getCost() : Double.NaN;
+    }
+
+    /**
+     * Finds the shortest path between two nodes like shortestPathData, and
+     * describes how it was found: the number of nodes the search settled, the
+     * most entries its heap held at once, and the time spent searching apart
+     * from the time spent reading the path back.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the explanation of this query, which is not found when there
+     *         is no path from start to end
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteExplanation<NodeType> explain(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        double[] cost = new double[nodeData.length];
+        int[] pred = new int[nodeData.length];
+        SearchOptions options = new SearchOptions(metrics);
+        options.trackHeapHighWater = true;
+        int endId = nodeIds.get(end);
+        long searchStart = System.nanoTime();
+        int settledCount = search(nodeIds.get(start), endId, cost, pred, null, options);
+
+        long pathStart = System.nanoTime();
+        LinkedList<NodeType> path = new LinkedList<>();
+        if (cost[endId] != Double.POSITIVE_INFINITY)
+            for (int node = endId; node != -1; node = pred[node])
+                path.addFirst(nodeData[node]);
+        long pathNanos = System.nanoTime() - pathStart;
+        return new RouteExplanation<>(start, end, "CSRGraph Dijkstra", settledCount, options.heapHighWater,
+                pathStart - searchStart, pathNanos, false, path, cost[endId]);
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data, with the weight of each edge along it
+     * and its total cost, all from a single search.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the route along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        double[] cost = new double[nodeData.length];
+        int[] pred = new int[nodeData.length];
+        int endId = nodeIds.get(end);
+        search(nodeIds.get(start), endId, cost, pred, null, new SearchOptions(metrics));
+        if (cost[endId] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("Path does not exist");
+
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int node = endId; node != -1; node = pred[node])
+            path.addFirst(node);
+        return toRoute(path);
+    }
+
+    /**
+     * Builds the RouteResult for a path of node ids, reading each leg's weight
+     * from the edge between consecutive nodes.
+     *
+     * @param path the ids of the nodes along a path, each joined to the next
+     *             by an edge
+     * @return the route along this path
+     */
+    protected RouteResult<NodeType> toRoute(List<Integer> path) {
+        List<NodeType> data = new ArrayList<>(path.size());
+        List<Double> legWeights = new ArrayList<>(Math.max(path.size() - 1, 0));
+        double totalCost = 0;
+        int previous = -1;
+        for (int node : path) {
+            if (previous != -1) {
+                double weight = weights[findEdge(previous, node)];
+                legWeights.add(weight);
+                totalCost += weight;
+            }
+            data.add(nodeData[node]);
+            previous = node;
+        }
+        return new RouteResult<>(data, legWeights, totalCost);
+    }
+
+    /**
+     * Returns the shortest path tree rooted at the node containing the start
+     * data, computed by a single run of Dijkstra's algorithm.
+     *
+     * @param start the data item in the root node of the tree
+     * @return the shortest path tree for all nodes reachable from start
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        return shortestPathTree(nodeIds.get(start), new SearchOptions(metrics));
+    }
+
+    /**
+     * Returns the part of the shortest path tree rooted at the node
+     * containing the start data that the search settles before it has
+     * settled every target. Targets that cannot be reached are left out.
+     *
+     * @param start   the data item in the root node of the tree
+     * @param targets the data items to find shortest paths to
+     * @return a shortest path tree holding at least every reachable target
+     * @throws NoSuchElementException when start or any target does not
+     *                                correspond to a graph node
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, Collection<NodeType> targets) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        SearchOptions options = new SearchOptions(metrics);
+        options.markTargets(targets, nodeData.length,
+                target -> nodeIds.containsKey(target) ? nodeIds.get(target) : -1);
+        return shortestPathTree(nodeIds.get(start), options);
+    }
+
+    // runs one search from start and returns the nodes it settles as a tree
+    private ShortestPathTree<NodeType> shortestPathTree(int start, SearchOptions options) {
+        double[] cost = new double[nodeData.length];
+        int[] pred = new int[nodeData.length];
+        double[] predWeight = new double[nodeData.length];
+        int[] settledOrder = new int[nodeData.length];
+        options.predWeight = predWeight;
+        int settledCount = search(start, -1, cost, pred, settledOrder, options);
+
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(settledCount);
+        int[] treePosition = new int[nodeData.length];
+        for (int i = 0; i < settledCount; i++) {
+            int id = settledOrder[i];
+            int parent = pred[id] == -1 ? -1 : treePosition[pred[id]];
+            treePosition[id] = tree.add(nodeData[id], cost[id], parent, predWeight[id]);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the shortest path tree of every node that can be reached from
+     * the node containing the start data with a path costing at most maxCost.
+     * The search never queues a node beyond maxCost, and its time and memory
+     * grow with the region reached rather than with the whole graph.
+     *
+     * @param start   the data item in the root node of the tree
+     * @param maxCost the largest path cost to include
+     * @return the shortest path tree for all nodes within maxCost of start
+     * @throws NoSuchElementException   when start does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> isochrone(NodeType start, double maxCost) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        return boundedSearch(nodeIds.get(start), maxCost, offsets, targets, weights);
+    }
+
+    /**
+     * Returns the tree of every node that can reach the node containing the
+     * end data with a path costing at most maxCost. Each node's cost is that
+     * of its shortest path to end, and its predecessor in the tree is the
+     * next node along that path. The first call builds the reverse of every
+     * edge in one pass, which later calls share.
+     *
+     * @param end     the data item in the root node of the tree
+     * @param maxCost the largest path cost to include
+     * @return the tree of all nodes within maxCost of reaching end
+     * @throws NoSuchElementException   when end does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> reverseIsochrone(NodeType end, double maxCost) {
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        Transpose reverse = transpose;
+        if (reverse == null) {
+            // two threads may both build it, which only wastes one of them
+            reverse = transpose();
+            transpose = reverse;
+        }
+        return boundedSearch(nodeIds.get(end), maxCost, reverse.offsets, reverse.sources, reverse.weights);
+    }
+
+    // counts the edges entering each node, then places every edge in its
+    // target's row
+    private Transpose transpose() {
+        int[] reverseOffsets = new int[nodeData.length + 1];
+        for (int target : targets)
+            reverseOffsets[target + 1]++;
+        for (int i = 0; i < nodeData.length; i++)
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        int[] next = Arrays.copyOf(reverseOffsets, nodeData.length);
+        int[] sources = new int[targets.length];
+        double[] reverseWeights = new double[targets.length];
+        for (int node = 0; node < nodeData.length; node++) {
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int position = next[targets[i]]++;
+                sources[position] = node;
+                reverseWeights[position] = weights[i];
+            }
+        }
+        return new Transpose(reverseOffsets, sources, reverseWeights);
+    }
+
+    /**
+     * Runs a BoundedSearch from the root id over the provided rows of edges,
+     * settling every node within maxCost of it into a ShortestPathTree.
+     *
+     * @param root         the id of the node to search from
+     * @param maxCost      the largest path cost to include
+     * @param rowOffsets   the start of each node's row, with one extra entry
+     * @param rowNeighbors the neighbor id of each edge
+     * @param rowWeights   the weight of each edge
+     * @return the tree of nodes within maxCost of the root
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    protected ShortestPathTree<NodeType> boundedSearch(int root, double maxCost, int[] rowOffsets,
+            int[] rowNeighbors, double[] rowWeights) {
+        return BoundedSearch.search(root, maxCost, NodeQueue.Strategy.BINARY_HEAP, id -> nodeData[id],
+                (id, search) -> {
+                    for (int i = rowOffsets[id]; i < rowOffsets[id + 1]; i++)
+                        search.relax(rowNeighbors[i], rowWeights[i]);
+                }, metrics);
+    }
+}
@@ -0,0 +1,626 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * This class is a graph that many threads can query while others change it.
+ * The graph's nodes and edges are held in an immutable Version, which readers
+ * take from a volatile field once per query and search without any locks, so
+ * a query always sees one consistent graph, however long it runs. Writers
+ * take turns through synchronized methods, and each write builds and
+ * publishes a new Version that shares everything it does not change with the
+ * previous one. Each node's leaving edges form an immutable row, and rows are
+ * kept in fixed-size pages, so changing an edge copies only that node's row,
+ * the page holding it, and the short list of pages.
+ * Node ids are given out in insertion order and are never reused for other
+ * data: a removed node's row becomes null, and inserting its data again
+ * brings back the same id.
+ */
+public class ConcurrentGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    protected static final int PAGE_BITS = 10;
+    protected static final int PAGE_SIZE = 1 << PAGE_BITS;
+    protected static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // a node's data and the targets and weights of the edges leaving it
+    protected static final class Row {
+        final Object data;
+        final int[] targets;
+        final double[] weights;
+
+        Row(Object data, int[] targets, double[] weights) {
+            this.data = data;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        int find(int target) {
+            for (int i = 0; i < targets.length; i++)
+                if (targets[i] == target)
+                    return i;
+            return -1;
+        }
+    }
+
+    /**
+     * One immutable state of the graph. Rows are stored by node id in pages
+     * of PAGE_SIZE rows, and the row of an id that has no node is null.
+     */
+    protected static final class Version {
+        final Row[][] pages;
+        final int idLimit; // one more than the largest id with a row
+        final int nodeCount;
+        final int edgeCount;
+        final long number; // counts the writes before this version
+        // the rows of the edges entering each node, by id, built by the
+        // first reverse search of this version
+        volatile Row[] reverseRows = null;
+
+        Version(Row[][] pages, int idLimit, int nodeCount, int edgeCount, long number) {
+            this.pages = pages;
+            this.idLimit = idLimit;
+            this.nodeCount = nodeCount;
+            this.edgeCount = edgeCount;
+            this.number = number;
+        }
+
+        Row row(int id) {
+            return id < idLimit ? pages[id >>> PAGE_BITS][id & PAGE_MASK] : null;
+        }
+
+        // returns a copy of this version's page list with the row of id
+        // replaced, copying only the page that holds it
+        Row[][] withRow(int id, Row row) {
+            int page = id >>> PAGE_BITS;
+            Row[][] newPages = Arrays.copyOf(pages, Math.max(pages.length, page + 1));
+            newPages[page] = page < pages.length ? pages[page].clone() : new Row[PAGE_SIZE];
+            newPages[page][id & PAGE_MASK] = row;
+            return newPages;
+        }
+    }
+
+    private static final int[] NO_TARGETS = new int[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    // the id of every data item ever inserted, which is never removed so that
+    // readers of older versions still find the nodes they hold
+    protected final ConcurrentHashMap<NodeType, Integer> ids = new ConcurrentHashMap<>();
+    protected volatile Version current = new Version(new Row[0][], 0, 0, 0, 0);
+
+    // where query searches add up their work, or null when not measured
+    protected volatile RoutingMetrics metrics = null;
+
+    /**
+     * Returns the number of writes made to this graph so far.
+     *
+     * @return the current version's number
+     */
+    public long getVersionNumber() {
+        return current.number;
+    }
+
+    /**
+     * Sets the metrics that the searches behind shortestPathData,
+     * shortestPathCost, shortestPathRoute and shortestPathTree add their
+     * work to. The metrics are shared by every version of the graph.
+     *
+     * @param metrics the metrics to record into, or null to record nothing
+     */
+    @Override
+    public void setMetrics(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // returns the id of data's node in version, or -1 when it has none
+    protected int idIn(Version version, Object data) {
+        Integer id = ids.get(data);
+        return id == null || version.row(id) == null ? -1 : id;
+    }
+
+    @Override
+    public synchronized boolean insertNode(NodeType data) {
+        Version version = current;
+        Integer id = ids.get(data); // throws NPE when data's null
+        if (id != null && version.row(id) != null)
+            return false;
+        if (id == null)
+            id = version.idLimit;
+        Row[][] pages = version.withRow(id, new Row(data, NO_TARGETS, NO_WEIGHTS));
+        // publish the row before the id, so a reader that finds the id in a
+        // version without it treats the node as missing
+        current = new Version(pages, Math.max(version.idLimit, id + 1), version.nodeCount + 1, version.edgeCount,
+                version.number + 1);
+        ids.putIfAbsent(data, id);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeNode(NodeType data) {
+        Version version = current;
+        int id = idIn(version, data);
+        if (id == -1)
+            return false;
+        // removing a node scans every row for the edges entering it, and
+        // copies each page it changes once
+        Row[][] pages = version.pages.clone();
+        boolean[] copied = new boolean[pages.length];
+        int removedEdges = version.row(id).targets.length;
+        setRow(pages, copied, id, null);
+        for (int other = 0; other < version.idLimit; other++) {
+            Row row = other == id ? null : version.row(other);
+            int position = row == null ? -1 : row.find(id);
+            if (position >= 0) {
+                setRow(pages, copied, other, without(row, position));
+                removedEdges++;
+            }
+        }
+        current = new Version(pages, version.idLimit, version.nodeCount - 1, version.edgeCount - removedEdges,
+                version.number + 1);
+        return true;
+    }
+
+    @Override
+    public boolean containsNode(NodeType data) {
+        return idIn(current, data) != -1;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return current.nodeCount;
+    }
+
+    @Override
+    public synchronized boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        Version version = current;
+        int predId = idIn(version, pred);
+        int succId = idIn(version, succ);
+        if (predId == -1 || succId == -1)
+            return false;
+        Row row = version.row(predId);
+        int position = row.find(succId);
+        Row newRow;
+        int edgeCount = version.edgeCount;
+        if (position >= 0) {
+            // when an edge already exists within the graph, update its weight
+            double[] weights = row.weights.clone();
+            weights[position] = weight;
+            newRow = new Row(row.data, row.targets, weights);
+        } else {
+            int[] targets = Arrays.copyOf(row.targets, row.targets.length + 1);
+            double[] weights = Arrays.copyOf(row.weights, row.weights.length + 1);
+            targets[row.targets.length] = succId;
+            weights[row.weights.length] = weight;
+            newRow = new Row(row.data, targets, weights);
+            edgeCount++;
+        }
+        current = new Version(version.withRow(predId, newRow), version.idLimit, version.nodeCount, edgeCount,
+                version.number + 1);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeEdge(NodeType pred, NodeType succ) {
+        Version version = current;
+        int predId = idIn(version, pred);
+        int succId = idIn(version, succ);
+        if (predId == -1 || succId == -1)
+            return false;
+        Row row = version.row(predId);
+        int position = row.find(succId);
+        if (position < 0)
+            return false;
+        current = new Version(version.withRow(predId, without(row, position)), version.idLimit,
+                version.nodeCount, version.edgeCount - 1, version.number + 1);
+        return true;
+    }
+
+    // replaces the row of id within pages, first copying its page unless
+    // copied shows an earlier change in the same write already did
+    private static void setRow(Row[][] pages, boolean[] copied, int id, Row row) {
+        int page = id >>> PAGE_BITS;
+        if (!copied[page]) {
+            pages[page] = pages[page].clone();
+            copied[page] = true;
+        }
+        pages[page][id & PAGE_MASK] = row;
+    }
+
+    // returns a copy of row without the edge at position
+    private static Row without(Row row, int position) {
+        int[] targets = new int[row.targets.length - 1];
+        double[] weights = new double[row.weights.length - 1];
+        System.arraycopy(row.targets, 0, targets, 0, position);
+        System.arraycopy(row.targets, position + 1, targets, position, targets.length - position);
+        System.arraycopy(row.weights, 0, weights, 0, position);
+        System.arraycopy(row.weights, position + 1, weights, position, weights.length - position);
+        return new Row(row.data, targets, weights);
+    }
+
+    @Override
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        Version version = current;
+        int predId = idIn(version, pred);
+        int succId = idIn(version, succ);
+        return predId != -1 && succId != -1 && version.row(predId).find(succId) >= 0;
+    }
+
+    @Override
+    public Double getEdge(NodeType pred, NodeType succ) {
+        Version version = current;
+        int predId = idIn(version, pred);
+        int succId = idIn(version, succ);
+        if (predId != -1 && succId != -1) {
+            Row row = version.row(predId);
+            int position = row.find(succId);
+            if (position >= 0)
+                return row.weights[position];
+        }
+        throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+                succ.toString());
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return current.edgeCount;
+    }
+
+    /**
+     * Builds a CSRGraph of the current version. Ids are renumbered densely
+     * in id order, skipping the ids of removed nodes, so the snapshot's ids
+     * can differ from this graph's.
+     *
+     * @return a CSRGraph holding the current version's nodes and edges
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public CSRGraph<NodeType> freeze() {
+        Version version = current;
+        int[] denseId = new int[version.idLimit];
+        NodeType[] data = (NodeType[]) new Object[version.nodeCount];
+        int[] offsets = new int[version.nodeCount + 1];
+        int count = 0;
+        for (int id = 0; id < version.idLimit; id++) {
+            Row row = version.row(id);
+            if (row == null)
+                continue;
+            denseId[id] = count;
+            data[count] = (NodeType) row.data;
+            offsets[count + 1] = offsets[count] + row.targets.length;
+            count++;
+        }
+        int[] targets = new int[offsets[count]];
+        double[] weights = new double[offsets[count]];
+        for (int id = 0; id < version.idLimit; id++) {
+            Row row = version.row(id);
+            if (row == null)
+                continue;
+            int position = offsets[denseId[id]];
+            for (int i = 0; i < row.targets.length; i++)
+                targets[position + i] = denseId[row.targets[i]];
+            System.arraycopy(row.weights, 0, weights, position, row.weights.length);
+        }
+        return new CSRGraph<>(data, offsets, targets, weights);
+    }
+
+    /**
+     * Returns the number of writes made to this graph so far, which is the
+     * same as getVersionNumber.
+     *
+     * @return the current version's number
+     */
+    @Override
+    public long getModificationCount() {
+        return current.number;
+    }
+
+    /**
+     * Returns a new, empty ConcurrentGraph.
+     *
+     * @return a new graph with no nodes or edges
+     */
+    @Override
+    public ConcurrentGraph<NodeType> newEmptyGraph() {
+        return new ConcurrentGraph<>();
+    }
+
+    /**
+     * Runs Dijkstra's algorithm within one version, from the start id,
+     * recording the cost and predecessor id of every node it reaches. The
+     * search stops once the end id or every target marked in options is
+     * settled, or settles every reachable node when end is -1 and no
+     * targets are marked.
+     *
+     * @param version      the version to search
+     * @param start        the id of the starting node
+     * @param end          the id of the destination node, or -1 for none
+     * @param cost         array to receive the cost of reaching each node
+     * @param pred         array to receive the predecessor id of each node,
+     *                     which is -1 for the starting node
+     * @param settledOrder array to receive the ids of settled nodes in the
+     *                     order they are settled, or null when not needed
+     * @param options      the targets, metrics and extra outputs of the
+     *                     search; the heap high-water mark is not tracked
+     * @return the number of nodes settled by the search
+     */
+    protected static int search(Version version, int start, int end, double[] cost, int[] pred, int[] settledOrder,
+            SearchOptions options) {
+        double[] predWeight = options.predWeight;
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        NodeQueue queue = NodeQueue.Strategy.BINARY_HEAP.create(version.idLimit);
+        int settledCount = 0;
+        int relaxed = 0;
+        int pushes = 1;
+        cost[start] = 0;
+        pred[start] = -1;
+        queue.push(start, 0);
+
+        while (!queue.isEmpty()) {
+            int currentId = queue.poll();
+            if (settledOrder != null)
+                settledOrder[settledCount] = currentId;
+            settledCount++;
+            if (currentId == end || options.settled(currentId))
+                break;
+
+            Row row = version.row(currentId);
+            for (int i = 0; i < row.targets.length; i++) {
+                int neighbor = row.targets[i];
+                double updatedCost = cost[currentId] + row.weights[i];
+                relaxed++;
+                if (updatedCost < cost[neighbor]) {
+                    cost[neighbor] = updatedCost;
+                    pred[neighbor] = currentId;
+                    if (predWeight != null)
+                        predWeight[neighbor] = row.weights[i];
+                    queue.push(neighbor, updatedCost);
+                    pushes++;
+                }
+            }
+        }
+        // the decrease-key heap never holds a stale entry
+        if (options.metrics != null)
+            options.metrics.recordSearch(settledCount, relaxed, pushes, 0);
+        return settledCount;
+    }
+
+    // searches one version between two nodes, returning the path's ids, or
+    // throwing NSE like shortestPathData
+    private List<Integer> pathIds(Version version, NodeType start, NodeType end) {
+        int startId = idIn(version, start);
+        int endId = idIn(version, end);
+        if (startId == -1)
+            throw new NoSuchElementException("Start does not exist");
+        if (endId == -1)
+            throw new NoSuchElementException("End does not exist");
+        double[] cost = new double[version.idLimit];
+        int[] pred = new int[version.idLimit];
+        search(version, startId, endId, cost, pred, null, new SearchOptions(metrics));
+        if (cost[endId] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("Path does not exist");
+
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int node = endId; node != -1; node = pred[node])
+            path.addFirst(node);
+        return path;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        Version version = current;
+        List<NodeType> path = new LinkedList<>();
+        for (int id : pathIds(version, start, end))
+            path.add((NodeType) version.row(id).data);
+        return path;
+    }
+
+    /**
+     * Finds the shortest path between two nodes within the current version,
+     * and describes how it was found. The search's priority queue is not
+     * watched, so its high-water mark is -1.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the explanation of this query, which is not found when there
+     *         is no path from start to end
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public RouteExplanation<NodeType> explain(NodeType start, NodeType end) {
+        Version version = current;
+        int startId = idIn(version, start);
+        int endId = idIn(version, end);
+        if (startId == -1)
+            throw new NoSuchElementException("Start does not exist");
+        if (endId == -1)
+            throw new NoSuchElementException("End does not exist");
+        double[] cost = new double[version.idLimit];
+        int[] pred = new int[version.idLimit];
+        long searchStart = System.nanoTime();
+        int settledNodes = search(version, startId, endId, cost, pred, null, new SearchOptions(metrics));
+        long pathStart = System.nanoTime();
+        LinkedList<NodeType> path = new LinkedList<>();
+        if (cost[endId] != Double.POSITIVE_INFINITY)
+            for (int node = endId; node != -1; node = pred[node])
+                path.addFirst((NodeType) version.row(node).data);
+        long pathNanos = System.nanoTime() - pathStart;
+        return new RouteExplanation<>(start, end, "ConcurrentGraph", settledNodes, -1, pathStart - searchStart,
+                pathNanos, false, path, cost[endId]);
+    }
+
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        Version version = current;
+        int startId = idIn(version, start);
+        int endId = idIn(version, end);
+        if (startId == -1 || endId == -1)
+            return Double.NaN;
+        double[] cost = new double[version.idLimit];
+        search(version, startId, endId, cost, new int[version.idLimit], null, new SearchOptions(metrics));
+        return cost[endId] == Double.POSITIVE_INFINITY ? Double.NaN : cost[endId];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        Version version = current;
+        List<Integer> path = pathIds(version, start, end);
+        List<NodeType> data = new ArrayList<>(path.size());
+        List<Double> legWeights = new ArrayList<>(path.size() - 1);
+        double totalCost = 0;
+        int previous = -1;
+        for (int node : path) {
+            if (previous != -1) {
+                Row row = version.row(previous);
+                double weight = row.weights[row.find(node)];
+                legWeights.add(weight);
+                totalCost += weight;
+            }
+            data.add((NodeType) version.row(node).data);
+            previous = node;
+        }
+        return new RouteResult<>(data, legWeights, totalCost);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        Version version = current;
+        int startId = idIn(version, start);
+        if (startId == -1)
+            throw new NoSuchElementException("Start does not exist");
+        return shortestPathTree(version, startId, new SearchOptions(metrics));
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, Collection<NodeType> targets) {
+        Version version = current;
+        int startId = idIn(version, start);
+        if (startId == -1)
+            throw new NoSuchElementException("Start does not exist");
+        SearchOptions options = new SearchOptions(metrics);
+        options.markTargets(targets, version.idLimit, target -> idIn(version, target));
+        return shortestPathTree(version, startId, options);
+    }
+
+    // searches one version from start and returns the nodes it settles as a
+    // tree
+    @SuppressWarnings("unchecked")
+    private ShortestPathTree<NodeType> shortestPathTree(Version version, int start, SearchOptions options) {
+        double[] cost = new double[version.idLimit];
+        int[] pred = new int[version.idLimit];
+        double[] predWeight = new double[version.idLimit];
+        int[] settledOrder = new int[version.idLimit];
+        options.predWeight = predWeight;
+        int settledCount = search(version, start, -1, cost, pred, settledOrder, options);
+
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(settledCount);
+        int[] treePosition = new int[version.idLimit];
+        for (int i = 0; i < settledCount; i++) {
+            int id = settledOrder[i];
+            int parent = pred[id] == -1 ? -1 : treePosition[pred[id]];
+            treePosition[id] = tree.add((NodeType) version.row(id).data, cost[id], parent, predWeight[id]);
+        }
+        return tree;
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> isochrone(NodeType start, double maxCost) {
+        Version version = current;
+        int startId = idIn(version, start);
+        if (startId == -1)
+            throw new NoSuchElementException("Start does not exist");
+        return boundedSearch(version, null, startId, maxCost);
+    }
+
+    /**
+     * Returns the tree of every node that can reach the node containing the
+     * end data with a path costing at most maxCost. The first call on each
+     * version builds the rows of edges entering every node in one pass, which
+     * later calls on that version share; a write publishes a new version,
+     * whose first call builds them again.
+     *
+     * @param end     the data item in the root node of the tree
+     * @param maxCost the largest path cost to include
+     * @return the tree of all nodes within maxCost of reaching end
+     * @throws NoSuchElementException   when end does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    @Override
+    public ShortestPathTree<NodeType> reverseIsochrone(NodeType end, double maxCost) {
+        Version version = current;
+        int endId = idIn(version, end);
+        if (endId == -1)
+            throw new NoSuchElementException("End does not exist");
+        Row[] reverse = version.reverseRows;
+        if (reverse == null) {
+            // two threads may both build them, which only wastes one of them
+            reverse = reverseRows(version);
+            version.reverseRows = reverse;
+        }
+        return boundedSearch(version, reverse, endId, maxCost);
+    }
+
+    // counts the edges entering each node, then places every edge in its
+    // target's reverse row
+    private static Row[] reverseRows(Version version) {
+        int[] entering = new int[version.idLimit];
+        for (int id = 0; id < version.idLimit; id++) {
+            Row row = version.row(id);
+            if (row != null)
+                for (int target : row.targets)
+                    entering[target]++;
+        }
+        Row[] reverse = new Row[version.idLimit];
+        for (int id = 0; id < version.idLimit; id++) {
+            Row row = version.row(id);
+            if (row != null)
+                reverse[id] = new Row(row.data, new int[entering[id]], new double[entering[id]]);
+        }
+        int[] next = new int[version.idLimit];
+        for (int id = 0; id < version.idLimit; id++) {
+            Row row = version.row(id);
+            if (row == null)
+                continue;
+            for (int i = 0; i < row.targets.length; i++) {
+                int target = row.targets[i];
+                int position = next[target]++;
+                reverse[target].targets[position] = id;
+                reverse[target].weights[position] = row.weights[i];
+            }
+        }
+        return reverse;
+    }
+
+    /**
+     * Runs a BoundedSearch within one version from the root id, settling
+     * every node within maxCost of it into a ShortestPathTree.
+     *
+     * @param version     the version to search
+     * @param reverseRows the version's reverse rows, to search along edges
+     *                    in reverse, or null to search forward
+     * @param root        the id of the node to search from
+     * @param maxCost     the largest path cost to include
+     * @return the tree of nodes within maxCost of the root
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    @SuppressWarnings("unchecked")
+    protected ShortestPathTree<NodeType> boundedSearch(Version version, Row[] reverseRows, int root,
+            double maxCost) {
+        IntFunction<Row> rowOf = reverseRows == null ? version::row : id -> reverseRows[id];
+        return BoundedSearch.search(root, maxCost, NodeQueue.Strategy.BINARY_HEAP,
+                id -> (NodeType) rowOf.apply(id).data, (id, search) -> {
+                    Row row = rowOf.apply(id);
+                    for (int i = 0; i < row.targets.length; i++)
+                        search.relax(row.targets[i], row.weights[i]);
+                }, metrics);
+    }
+
+}
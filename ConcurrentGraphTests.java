@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of ConcurrentGraph against a DijkstraGraph holding the same edges,
+ * and of its queries while another thread keeps changing it.
+ */
+public class ConcurrentGraphTests {
+
+    @Test
+    public void testConcurrentGraph() {
+        // Creating the same random graph as a ConcurrentGraph and a DijkstraGraph
+        Random random = new Random(16);
+        ConcurrentGraph<Integer> concurrent = new ConcurrentGraph<>();
+        DijkstraGraph<Integer, Double> expected = new DijkstraGraph<>();
+        for (int i = 0; i < 1500; i++) {
+            concurrent.insertNode(i);
+            expected.insertNode(i);
+        }
+        for (int i = 0; i < 6000; i++) {
+            int pred = random.nextInt(1500);
+            int succ = random.nextInt(1500);
+            double weight = 1 + random.nextInt(100);
+            assertEquals(expected.insertEdge(pred, succ, weight), concurrent.insertEdge(pred, succ, weight));
+        }
+        // Tests that removing and inserting again keeps both graphs the same
+        for (int i = 0; i < 1500; i += 7) {
+            assertEquals(expected.removeEdge(i, (i * 31) % 1500), concurrent.removeEdge(i, (i * 31) % 1500));
+        }
+        for (int i = 0; i < 1500; i += 97) {
+            expected.removeNode(i);
+            concurrent.removeNode(i);
+        }
+        assertEquals(true, concurrent.insertNode(97));
+        expected.insertNode(97);
+        assertEquals(false, concurrent.containsEdge(97, 98));
+        assertEquals(expected.getNodeCount(), concurrent.getNodeCount());
+        for (int i = 0; i < 200; i++) {
+            int start = 1 + random.nextInt(1499);
+            int end = 1 + random.nextInt(1499);
+            assertEquals(expected.shortestPathCost(start, end), concurrent.shortestPathCost(start, end));
+            if (!Double.isNaN(expected.shortestPathCost(start, end)))
+                assertEquals(expected.shortestPathCost(start, end),
+                        concurrent.shortestPathRoute(start, end).getTotalCost());
+        }
+        assertEquals(expected.shortestPathTree(1).getReachedNodes().size(),
+                concurrent.shortestPathTree(1).getReachedNodes().size());
+        assertThrows(NoSuchElementException.class, () -> concurrent.shortestPathData(0, 1));
+    }
+
+    @Test
+    public void testConcurrentGraphStress() throws InterruptedException {
+        // Creating a path 0 -> 1 -> ... -> 99 of unit edges, and a shortcut
+        // from 0 to 99 that a writer keeps removing and inserting with
+        // alternating weights while readers query it
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        for (int i = 0; i < 100; i++) {
+            graph.insertNode(i);
+            if (i > 0)
+                graph.insertEdge(i - 1, i, 1.0);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    // Tests that every query sees one version: a cost that
+                    // some version had, with legs that add up to it
+                    RouteResult<Integer> route = graph.shortestPathRoute(0, 99);
+                    double total = 0;
+                    for (double leg : route.getLegWeights())
+                        total += leg;
+                    double cost = route.getTotalCost();
+                    if (total != cost || (cost != 99.0 && cost != 10.0 && cost != 20.0))
+                        failure.set("inconsistent route " + route.getPath() + " " + route.getLegWeights());
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int i = 1; i <= 20000; i++) {
+            if (i % 3 == 0)
+                graph.removeEdge(0, 99);
+            else
+                graph.insertEdge(0, 99, i % 3 == 1 ? 10.0 : 20.0);
+        }
+        running.set(false);
+        for (Thread reader : readers)
+            reader.join();
+        assertEquals(null, failure.get());
+        assertEquals(100, graph.getEdgeCount());
+        assertEquals(20000 + 100 + 99, graph.getVersionNumber());
+    }
+
+}
@@ -0,0 +1,542 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class answers shortest path queries on a frozen graph using a
+ * Contraction Hierarchy. During preprocessing, nodes are contracted one at a
+ * time in order of their edge difference (the shortcuts contracting a node
+ * would add, minus the edges it would remove). Contracting a node adds a
+ * shortcut edge between each pair of its remaining neighbors whose shortest
+ * path runs through it, unless a witness search finds another path that is no
+ * longer. A query then runs two small searches that only move toward nodes
+ * contracted later: forward from the start and backward from the end. The
+ * shortcuts on the best path where they meet are unpacked into the original
+ * nodes, so shortestPathData returns the same kind of path as DijkstraGraph.
+ */
+public class ContractionHierarchy<NodeType> extends CSRGraph<NodeType> {
+
+    // witness searches give up after settling this many nodes, and the
+    // shortcut they were checking is then added to be safe
+    protected static final int WITNESS_SETTLE_LIMIT = 500;
+
+    // the position of each node id in the contraction order
+    protected int[] rank;
+
+    // edges from each node to nodes contracted after it, in CSR form
+    protected int[] upOffsets;
+    protected int[] upTargets;
+    protected double[] upWeights;
+
+    // edges into each node from nodes contracted after it, stored reversed so
+    // that a backward search from the end node can follow them upward
+    protected int[] downOffsets;
+    protected int[] downSources;
+    protected double[] downWeights;
+
+    // the node each shortcut (pred << 32 | succ) was added to bypass
+    protected Map<Long, Integer> shortcutMiddle = new HashMap<>();
+
+    // per thread search arrays, reused by queries so that a query's cost
+    // depends on the nodes it settles rather than the size of the graph
+    protected ThreadLocal<QueryState> queryState = ThreadLocal.withInitial(QueryState::new);
+
+    /**
+     * Constructor that freezes a graph and contracts all of its nodes.
+     *
+     * @param graph the graph to answer shortest path queries for
+     */
+    public ContractionHierarchy(BaseGraph<NodeType, ?> graph) {
+        super(graph.freeze());
+        contract();
+    }
+
+    /**
+     * Returns the number of shortcut edges added during preprocessing.
+     *
+     * @return the number of shortcuts
+     */
+    public int getShortcutCount() {
+        return shortcutMiddle.size();
+    }
+
+    /**
+     * Contracts every node and builds the upward and downward edge arrays used
+     * by queries.
+     */
+    protected void contract() {
+        int nodeCount = nodeData.length;
+        // the edges between nodes that have not been contracted yet, keyed by
+        // the neighbor's id and holding the lowest weight between the two
+        List<Map<Integer, Double>> out = new ArrayList<>(nodeCount);
+        List<Map<Integer, Double>> in = new ArrayList<>(nodeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            out.add(new HashMap<>());
+            in.add(new HashMap<>());
+        }
+        for (int v = 0; v < nodeCount; v++)
+            for (int i = offsets[v]; i < offsets[v + 1]; i++)
+                if (targets[i] != v && weights[i] < out.get(v).getOrDefault(targets[i], Double.POSITIVE_INFINITY)) {
+                    out.get(v).put(targets[i], weights[i]);
+                    in.get(targets[i]).put(v, weights[i]);
+                }
+
+        // edges kept for queries as each node is contracted
+        List<List<Integer>> upEdgeTargets = new ArrayList<>(nodeCount);
+        List<List<Double>> upEdgeWeights = new ArrayList<>(nodeCount);
+        List<List<Integer>> downEdgeSources = new ArrayList<>(nodeCount);
+        List<List<Double>> downEdgeWeights = new ArrayList<>(nodeCount);
+
+        WitnessSearch witness = new WitnessSearch(nodeCount);
+        int[] contractedNeighbors = new int[nodeCount];
+        rank = new int[nodeCount];
+        Arrays.fill(rank, -1);
+
+        // queue every node by its edge difference
+        IndexedHeap order = new IndexedHeap(2, nodeCount);
+        for (int v = 0; v < nodeCount; v++)
+            order.push(v, priority(v, out, in, witness, contractedNeighbors));
+
+        for (int nextRank = 0; nextRank < nodeCount; nextRank++) {
+            // recompute the best node's priority, and put it back when it has
+            // become worse than the next node's
+            int v = order.poll();
+            double updated = priority(v, out, in, witness, contractedNeighbors);
+            while (!order.isEmpty() && updated > order.peekPriority()) {
+                order.push(v, updated);
+                v = order.poll();
+                updated = priority(v, out, in, witness, contractedNeighbors);
+            }
+            rank[v] = nextRank;
+
+            // every remaining neighbor is contracted later, so keep these edges
+            upEdgeTargets.add(new ArrayList<>(out.get(v).keySet()));
+            upEdgeWeights.add(new ArrayList<>(out.get(v).values()));
+            downEdgeSources.add(new ArrayList<>(in.get(v).keySet()));
+            downEdgeWeights.add(new ArrayList<>(in.get(v).values()));
+
+            // add the shortcuts that contracting v requires
+            for (Map.Entry<Integer, Double> inEdge : in.get(v).entrySet()) {
+                int u = inEdge.getKey();
+                witness.run(u, v, inEdge.getValue() + maxWeight(out.get(v)), out);
+                for (Map.Entry<Integer, Double> outEdge : out.get(v).entrySet()) {
+                    int w = outEdge.getKey();
+                    double viaV = inEdge.getValue() + outEdge.getValue();
+                    if (u == w || witness.cost(w) <= viaV)
+                        continue;
+                    if (viaV < out.get(u).getOrDefault(w, Double.POSITIVE_INFINITY)) {
+                        out.get(u).put(w, viaV);
+                        in.get(w).put(u, viaV);
+                        shortcutMiddle.put(edgeKey(u, w), v);
+                    }
+                }
+            }
+
+            // remove v from the remaining graph
+            for (int w : out.get(v).keySet()) {
+                in.get(w).remove(v);
+                contractedNeighbors[w]++;
+            }
+            for (int u : in.get(v).keySet()) {
+                out.get(u).remove(v);
+                contractedNeighbors[u]++;
+            }
+        }
+
+        // copy the kept edges into CSR arrays indexed by node id
+        int[] nodeByRank = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++)
+            nodeByRank[rank[v]] = v;
+        upOffsets = new int[nodeCount + 1];
+        downOffsets = new int[nodeCount + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            upOffsets[v + 1] = upOffsets[v] + upEdgeTargets.get(rank[v]).size();
+            downOffsets[v + 1] = downOffsets[v] + downEdgeSources.get(rank[v]).size();
+        }
+        upTargets = new int[upOffsets[nodeCount]];
+        upWeights = new double[upOffsets[nodeCount]];
+        downSources = new int[downOffsets[nodeCount]];
+        downWeights = new double[downOffsets[nodeCount]];
+        for (int r = 0; r < nodeCount; r++) {
+            int v = nodeByRank[r];
+            for (int i = 0; i < upEdgeTargets.get(r).size(); i++) {
+                upTargets[upOffsets[v] + i] = upEdgeTargets.get(r).get(i);
+                upWeights[upOffsets[v] + i] = upEdgeWeights.get(r).get(i);
+            }
+            for (int i = 0; i < downEdgeSources.get(r).size(); i++) {
+                downSources[downOffsets[v] + i] = downEdgeSources.get(r).get(i);
+                downWeights[downOffsets[v] + i] = downEdgeWeights.get(r).get(i);
+            }
+        }
+    }
+
+    /**
+     * Computes the contraction priority of a node: the number of shortcuts
+     * contracting it would add, minus the number of edges it would remove,
+     * plus the number of its neighbors that were already contracted (which
+     * spreads contraction evenly across the graph).
+     */
+    private double priority(int v, List<Map<Integer, Double>> out, List<Map<Integer, Double>> in,
+            WitnessSearch witness, int[] contractedNeighbors) {
+        int shortcuts = 0;
+        for (Map.Entry<Integer, Double> inEdge : in.get(v).entrySet()) {
+            int u = inEdge.getKey();
+            witness.run(u, v, inEdge.getValue() + maxWeight(out.get(v)), out);
+            for (Map.Entry<Integer, Double> outEdge : out.get(v).entrySet())
+                if (outEdge.getKey() != u && witness.cost(outEdge.getKey()) > inEdge.getValue() + outEdge.getValue())
+                    shortcuts++;
+        }
+        return shortcuts - in.get(v).size() - out.get(v).size() + contractedNeighbors[v];
+    }
+
+    // the largest weight among a node's edges, or 0 when it has none
+    private static double maxWeight(Map<Integer, Double> edges) {
+        double max = 0;
+        for (double weight : edges.values())
+            max = Math.max(max, weight);
+        return max;
+    }
+
+    // packs an edge's two node ids into a single key
+    private static long edgeKey(int pred, int succ) {
+        return ((long) pred << 32) | (succ & 0xffffffffL);
+    }
+
+    /**
+     * A WitnessSearch is a Dijkstra search among the nodes that have not been
+     * contracted yet, which skips the node being contracted. Its arrays are
+     * reused between runs, and only the entries a run touched are reset.
+     */
+    private static class WitnessSearch {
+        private double[] cost;
+        private int[] touched;
+        private int touchedCount = 0;
+        private IndexedHeap queue;
+
+        WitnessSearch(int nodeCount) {
+            cost = new double[nodeCount];
+            touched = new int[nodeCount];
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+            queue = new IndexedHeap(2, nodeCount);
+        }
+
+        // searches from start without passing through skipped, until maxCost
+        void run(int start, int skipped, double maxCost, List<Map<Integer, Double>> out) {
+            for (int i = 0; i < touchedCount; i++)
+                cost[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+            queue.clear();
+            cost[start] = 0;
+            touched[touchedCount++] = start;
+            queue.push(start, 0);
+            int settled = 0;
+            while (!queue.isEmpty() && queue.peekPriority() <= maxCost && settled++ < WITNESS_SETTLE_LIMIT) {
+                int current = queue.poll();
+                for (Map.Entry<Integer, Double> edge : out.get(current).entrySet()) {
+                    int neighbor = edge.getKey();
+                    double updatedCost = cost[current] + edge.getValue();
+                    if (neighbor != skipped && updatedCost < cost[neighbor]) {
+                        if (cost[neighbor] == Double.POSITIVE_INFINITY)
+                            touched[touchedCount++] = neighbor;
+                        cost[neighbor] = updatedCost;
+                        queue.push(neighbor, updatedCost);
+                    }
+                }
+            }
+        }
+
+        // the cost this run found for a node, or infinity if it did not
+        double cost(int node) {
+            return cost[node];
+        }
+    }
+
+    /**
+     * A QueryState holds the arrays used by one thread's queries. Entries that
+     * a query sets are recorded in touched, and only those are reset before
+     * the next query.
+     */
+    protected class QueryState {
+        double[] forwardCost = new double[nodeData.length];
+        double[] backwardCost = new double[nodeData.length];
+        int[] forwardPred = new int[nodeData.length];
+        int[] backwardNext = new int[nodeData.length];
+        int[] touched = new int[nodeData.length];
+        int touchedCount = 0;
+        boolean[] isTouched = new boolean[nodeData.length];
+        IndexedHeap forwardQueue = new IndexedHeap(2, nodeData.length);
+        IndexedHeap backwardQueue = new IndexedHeap(2, nodeData.length);
+
+        QueryState() {
+            Arrays.fill(forwardCost, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardCost, Double.POSITIVE_INFINITY);
+        }
+
+        // records that a node's entries will need resetting
+        void touch(int node) {
+            if (!isTouched[node]) {
+                isTouched[node] = true;
+                touched[touchedCount++] = node;
+            }
+        }
+
+        // resets the entries set by the previous query
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int node = touched[i];
+                forwardCost[node] = Double.POSITIVE_INFINITY;
+                backwardCost[node] = Double.POSITIVE_INFINITY;
+                isTouched[node] = false;
+            }
+            touchedCount = 0;
+            forwardQueue.clear();
+            backwardQueue.clear();
+        }
+    }
+
+    /**
+     * Runs the upward forward and backward searches between two node ids and
+     * unpacks the shortcuts on the best path found.
+     *
+     * @param start the id of the starting node
+     * @param end   the id of the destination node
+     * @return the ids of the nodes along the shortest path, or null when there
+     *         is no path from start to end
+     */
+    protected List<Integer> query(int start, int end) {
+        QueryState state = queryState.get();
+        state.reset();
+        double[] forwardCost = state.forwardCost;
+        double[] backwardCost = state.backwardCost;
+        int[] forwardPred = state.forwardPred;
+        int[] backwardNext = state.backwardNext;
+        NodeQueue forwardQueue = state.forwardQueue;
+        NodeQueue backwardQueue = state.backwardQueue;
+        state.touch(start);
+        state.touch(end);
+        forwardCost[start] = 0;
+        forwardPred[start] = -1;
+        forwardQueue.push(start, 0);
+        backwardCost[end] = 0;
+        backwardNext[end] = -1;
+        backwardQueue.push(end, 0);
+
+        // both searches only climb the hierarchy, so neither can stop at the
+        // first meeting node: each runs until its queue holds nothing cheaper
+        // than the best path found so far
+        double bestCost = start == end ? 0 : Double.POSITIVE_INFINITY;
+        int meeting = start == end ? start : -1;
+        while ((!forwardQueue.isEmpty() && forwardQueue.peekPriority() < bestCost)
+                || (!backwardQueue.isEmpty() && backwardQueue.peekPriority() < bestCost)) {
+            boolean forward = backwardQueue.isEmpty() || backwardQueue.peekPriority() >= bestCost
+                    || (!forwardQueue.isEmpty() && forwardQueue.peekPriority() <= backwardQueue.peekPriority());
+            int current = forward ? forwardQueue.poll() : backwardQueue.poll();
+            if (forwardCost[current] + backwardCost[current] < bestCost) {
+                bestCost = forwardCost[current] + backwardCost[current];
+                meeting = current;
+            }
+            if (forward) {
+                for (int i = upOffsets[current]; i < upOffsets[current + 1]; i++) {
+                    int neighbor = upTargets[i];
+                    double updatedCost = forwardCost[current] + upWeights[i];
+                    if (updatedCost < forwardCost[neighbor]) {
+                        state.touch(neighbor);
+                        forwardCost[neighbor] = updatedCost;
+                        forwardPred[neighbor] = current;
+                        forwardQueue.push(neighbor, updatedCost);
+                    }
+                }
+            } else {
+                for (int i = downOffsets[current]; i < downOffsets[current + 1]; i++) {
+                    int neighbor = downSources[i];
+                    double updatedCost = backwardCost[current] + downWeights[i];
+                    if (updatedCost < backwardCost[neighbor]) {
+                        state.touch(neighbor);
+                        backwardCost[neighbor] = updatedCost;
+                        backwardNext[neighbor] = current;
+                        backwardQueue.push(neighbor, updatedCost);
+                    }
+                }
+            }
+        }
+        if (meeting == -1)
+            return null;
+
+        // unpack the forward half from the meeting node back to start, then
+        // the backward half from the meeting node on to end
+        LinkedList<Integer> path = new LinkedList<>();
+        path.add(meeting);
+        for (int node = meeting; forwardPred[node] != -1; node = forwardPred[node]) {
+            List<Integer> edge = unpack(forwardPred[node], node);
+            for (int i = edge.size() - 2; i >= 0; i--)
+                path.addFirst(edge.get(i));
+        }
+        for (int node = meeting; backwardNext[node] != -1; node = backwardNext[node]) {
+            List<Integer> edge = unpack(node, backwardNext[node]);
+            path.addAll(edge.subList(1, edge.size()));
+        }
+        return path;
+    }
+
+    /**
+     * Replaces an edge, which may be a shortcut, with the original nodes it
+     * stands for.
+     *
+     * @param pred the id of the edge's source node
+     * @param succ the id of the edge's target node
+     * @return the ids of the nodes along that edge, starting with pred and
+     *         ending with succ
+     */
+    protected List<Integer> unpack(int pred, int succ) {
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(pred);
+        // a stack of edges still to unpack, with the next edge on top
+        LinkedList<int[]> edges = new LinkedList<>();
+        edges.push(new int[] { pred, succ });
+        while (!edges.isEmpty()) {
+            int[] edge = edges.pop();
+            Integer middle = shortcutMiddle.get(edgeKey(edge[0], edge[1]));
+            if (middle == null) {
+                nodes.add(edge[1]);
+            } else {
+                edges.push(new int[] { middle, edge[1] });
+                edges.push(new int[] { edge[0], middle });
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path from
+     * the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    @Override
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        if (RouteQueryEvent.isTracing())
+            return tracedPathData(start, end);
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        List<Integer> path = query(nodeIds.get(start), nodeIds.get(end));
+        if (path == null)
+            throw new NoSuchElementException("Path does not exist");
+        List<NodeType> data = new LinkedList<>();
+        for (int node : path)
+            data.add(nodeData[node]);
+        return data;
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node containing the start
+     * data to the node containing the end data. The cost is summed over the
+     * unpacked path in order, so it matches the cost DijkstraGraph returns.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes, or Double.NaN
+     *         when there is no such path
+     */
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start) || !nodeIds.containsKey(end))
+            return Double.NaN;
+        if (RouteQueryEvent.isTracing())
+            return tracedPathCost(start, end);
+        List<Integer> path = query(nodeIds.get(start), nodeIds.get(end));
+        if (path == null)
+            return Double.NaN;
+        return pathCost(path);
+    }
+
+    /**
+     * Sums the weights of the original edges along an unpacked path, in order.
+     *
+     * @param path the ids of the nodes along an unpacked path
+     * @return the cost of that path
+     */
+    protected double pathCost(List<Integer> path) {
+        double cost = 0;
+        int previous = -1;
+        for (int node : path) {
+            if (previous != -1)
+                cost += weights[findEdge(previous, node)];
+            previous = node;
+        }
+        return cost;
+    }
+
+    /**
+     * Finds the shortest path between two nodes with the hierarchy, and
+     * describes how it was found. The upward searches do not count the
+     * nodes they settle or watch their queues' sizes, so the settled node
+     * count and heap high-water mark are -1; the search time includes
+     * unpacking the shortcuts, and the path time covers reading the nodes' data and
+     * summing the path's cost.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the explanation of this query, which is not found when there
+     *         is no path from start to end
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    @Override
+    public RouteExplanation<NodeType> explain(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        long searchStart = System.nanoTime();
+        List<Integer> ids = query(nodeIds.get(start), nodeIds.get(end));
+
+        long pathStart = System.nanoTime();
+        List<NodeType> path = new LinkedList<>();
+        double cost = Double.POSITIVE_INFINITY;
+        if (ids != null) {
+            for (int node : ids)
+                path.add(nodeData[node]);
+            cost = pathCost(ids);
+        }
+        long pathNanos = System.nanoTime() - pathStart;
+        return new RouteExplanation<>(start, end, "ContractionHierarchy", -1, -1, pathStart - searchStart, pathNanos,
+                false, path, cost);
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data, unpacked into original edges, with
+     * the weight of each of those edges and the path's total cost.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the route along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    @Override
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        if (!nodeIds.containsKey(start))
+            throw new NoSuchElementException("Start does not exist");
+        if (!nodeIds.containsKey(end))
+            throw new NoSuchElementException("End does not exist");
+        List<Integer> path = query(nodeIds.get(start), nodeIds.get(end));
+        if (path == null)
+            throw new NoSuchElementException("Path does not exist");
+        return toRoute(path);
+    }
+
+}
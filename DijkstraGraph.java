@@ -54,11 +54,139 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    /**
+     * The algorithms that shortestPathData and shortestPathCost can use to
+     * search for a path between two nodes.
+     */
+    public enum SearchAlgorithm {
+        // a single search outward from the start node
+        DIJKSTRA,
+        // a search outward from the start node along edgesLeaving, together
+        // with a search backward from the end node along edgesEntering
+        BIDIRECTIONAL,
+        // an A* search toward the end node, guided by the lower bounds of a
+        // LandmarkTable (see precomputeLandmarks)
+        ALT
+    }
+
+    // the kind of priority queue that each search creates
+    protected NodeQueue.Strategy queueStrategy;
+
+    // the algorithm used for point to point searches
+    protected SearchAlgorithm searchAlgorithm = SearchAlgorithm.DIJKSTRA;
+
+    // the number of nodes settled by the most recent search
+    protected int lastSettledCount = 0;
+
+    // the landmarks used by ALT searches, and how to choose them again once
+    // the graph has changed; they are only chosen while holding this graph's
+    // lock, and queries read the table without it
+    protected volatile LandmarkTable landmarks = null;
+    protected int landmarkCount = 8;
+    protected LandmarkTable.Selection landmarkSelection = LandmarkTable.Selection.FARTHEST;
+
+    // where query searches add up their work, or null when not measured
+    protected RoutingMetrics metrics = null;
+
     /**
      * Constructor that sets the map that the graph uses.
      */
     public DijkstraGraph() {
-        super(new PlaceholderMap<>());
+        this(NodeQueue.Strategy.BINARY_HEAP);
+    }
+
+    /**
+     * Constructor that sets the map that the graph uses, along with the kind
+     * of priority queue that its shortest path searches use.
+     *
+     * @param queueStrategy the priority queue implementation to search with
+     */
+    public DijkstraGraph(NodeQueue.Strategy queueStrategy) {
+        super(new OpenAddressingMap<>());
+        this.queueStrategy = queueStrategy;
+    }
+
+    /**
+     * Sets the algorithm that shortestPathData and shortestPathCost use. All
+     * algorithms find paths with the same cost, but may settle a different
+     * number of nodes while doing so.
+     *
+     * @param searchAlgorithm the algorithm to use for point to point searches
+     */
+    public void setSearchAlgorithm(SearchAlgorithm searchAlgorithm) {
+        this.searchAlgorithm = searchAlgorithm;
+    }
+
+    /**
+     * Chooses landmarks and computes the costs between them and every node,
+     * for use by ALT searches. When the graph changes after this, the next
+     * ALT search chooses landmarks again with the same settings.
+     *
+     * @param count     the number of landmarks to choose
+     * @param selection how to choose the landmarks
+     * @return the table of costs between the landmarks and every node
+     */
+    public synchronized LandmarkTable precomputeLandmarks(int count, LandmarkTable.Selection selection) {
+        this.landmarkCount = count;
+        this.landmarkSelection = selection;
+        LandmarkTable table = new LandmarkTable(this, count, selection, 400);
+        this.landmarks = table;
+        return table;
+    }
+
+    /**
+     * Returns landmarks chosen for the graph as it is now. When there are
+     * none, or the graph has changed since they were chosen, they are chosen
+     * again with the last settings given to precomputeLandmarks. Only one
+     * thread at a time chooses them, and searches that need them meanwhile
+     * wait and then share that thread's table.
+     *
+     * @return the table of costs between the landmarks and every node
+     */
+    protected LandmarkTable currentLandmarks() {
+        LandmarkTable table = landmarks;
+        if (table != null && table.isCurrent(this)) {
+            return table;
+        }
+        synchronized (this) {
+            table = landmarks;
+            if (table == null || !table.isCurrent(this)) {
+                table = precomputeLandmarks(landmarkCount, landmarkSelection);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Sets the metrics that the searches behind shortestPathData,
+     * shortestPathCost, shortestPathRoute, shortestPathIds and
+     * shortestPathTree add their work to. Bidirectional and ALT searches,
+     * and the searches that precompute landmarks, are not counted.
+     *
+     * @param metrics the metrics to record into, or null to record nothing
+     */
+    public void setMetrics(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a new, empty DijkstraGraph whose searches use the same kind of
+     * priority queue as this one's.
+     *
+     * @return a new graph with no nodes or edges
+     */
+    public DijkstraGraph<NodeType, EdgeType> newEmptyGraph() {
+        return new DijkstraGraph<>(queueStrategy);
+    }
+
+    /**
+     * Returns the number of nodes settled by the most recent search. For
+     * bidirectional searches this counts the nodes settled in both directions.
+     *
+     * @return the number of nodes settled by the most recent search
+     */
+    public int getLastSettledCount() {
+        return lastSettledCount;
     }
 
     /**
@@ -77,13 +205,6 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      *                                correspond to a graph node
      */
     protected SearchNode computeShortestPath(NodeType start, NodeType end) {
-        // implement in step 5.3
-
-        // Creates priority queue
-        PriorityQueue<SearchNode> pq = new PriorityQueue<SearchNode>();
-        // Creates map to keep track of visited nodes and their minimum cost
-        PlaceholderMap<NodeType, SearchNode> visited = new PlaceholderMap<>();
-
         // Checks if the start node exists in the graph
         if (!nodes.containsKey(start)) {
             throw new NoSuchElementException("Start does not exist");
@@ -94,42 +215,394 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
             throw new NoSuchElementException("End does not exist");
         }
 
+        if (searchAlgorithm == SearchAlgorithm.BIDIRECTIONAL) {
+            return computeShortestPathBidirectional(nodes.get(start).index, nodes.get(end).index, null);
+        }
+        if (searchAlgorithm == SearchAlgorithm.ALT) {
+            return computeShortestPathALT(nodes.get(start).index, nodes.get(end).index, null);
+        }
+
+        // Tracks the best known cost and predecessor of each node by its index
+        int nodeCount = nodeList.size();
+        double[] cost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        int endIndex = nodes.get(end).index;
+        lastSettledCount = search(nodes.get(start).index, endIndex, false, cost, pred, null,
+                new SearchOptions(metrics));
+
+        // Throws exception if path is not found
+        if (cost[endIndex] == Double.POSITIVE_INFINITY) {
+            throw new NoSuchElementException("Path does not exist");
+        }
+        return toSearchNode(endIndex, cost, pred);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the node at startIndex, recording the
+     * cost and predecessor index of every node it reaches. The search stops
+     * once the node at endIndex is settled, or settles every reachable node
+     * when endIndex is -1. Nodes that are not reached keep an infinite cost.
+     * A backward search follows edgesEntering instead of edgesLeaving, so it
+     * finds the cost of the shortest path from each node to startIndex, and
+     * pred then holds the next node along that path.
+     *
+     * @param startIndex   the index of the starting node
+     * @param endIndex     the index of the destination node, or -1 for none
+     * @param backward     true to search along edges in reverse
+     * @param cost         array to receive the cost of reaching each node
+     * @param pred         array to receive the predecessor index of each node,
+     *                     which is -1 for the starting node
+     * @param settledOrder array to receive the indexes of settled nodes in the
+     *                     order they are settled, or null when not needed
+     * @return the number of nodes settled by the search
+     */
+    protected int search(int startIndex, int endIndex, boolean backward, double[] cost, int[] pred,
+            int[] settledOrder) {
+        return search(startIndex, endIndex, backward, cost, pred, settledOrder, new SearchOptions(null));
+    }
+
+    /**
+     * Runs the same search as search(startIndex, endIndex, backward, cost,
+     * pred, settledOrder), with the optional parts set in options: it may
+     * also stop once every target is settled, add up its work in the
+     * options' metrics, record the weight of the edge from each node's
+     * predecessor, and track the most entries its priority queue held at
+     * once. The work is counted in local variables, and the queue's size is
+     * only read when asked for, so the search loop is no slower for them.
+     *
+     * @param startIndex   the index of the starting node
+     * @param endIndex     the index of the destination node, or -1 for none
+     * @param backward     true to search along edges in reverse
+     * @param cost         array to receive the cost of reaching each node
+     * @param pred         array to receive the predecessor index of each node,
+     *                     which is -1 for the starting node
+     * @param settledOrder array to receive the indexes of settled nodes in the
+     *                     order they are settled, or null when not needed
+     * @param options      the targets, metrics and extra outputs of the search
+     * @return the number of nodes settled by the search
+     */
+    protected int search(int startIndex, int endIndex, boolean backward, double[] cost, int[] pred,
+            int[] settledOrder, SearchOptions options) {
+        double[] predWeight = options.predWeight;
+        boolean trackHeapHighWater = options.trackHeapHighWater;
+        boolean[] settled = new boolean[cost.length];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        int settledCount = 0;
+        int relaxed = 0;
+        int pushes = 1;
+        int stalePops = 0;
+        int highWater = 1;
+
         // Inserts the start node into the priority queue with cost 0
-        SearchNode startNode = new SearchNode(nodes.get(start), 0, null);
-        pq.add(startNode);
+        NodeQueue queue = queueStrategy.create(cost.length);
+        cost[startIndex] = 0;
+        pred[startIndex] = -1;
+        queue.push(startIndex, 0);
 
         // Explores the graph
-        while (!pq.isEmpty()) {
-            SearchNode current = pq.poll();
-            Node currentNode = current.node;
-            NodeType currentData = currentNode.data;
-
-            // Ends if end node is reached
-            if (currentData.equals(end)) {
-                return current;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+
+            // Skips entries for nodes that were already settled at a lower cost
+            if (settled[current]) {
+                stalePops++;
+                continue;
             }
+            settled[current] = true; // Marks as visited
+            if (settledOrder != null) {
+                settledOrder[settledCount] = current;
+            }
+            settledCount++;
 
-            // Checks if we have not visited the node yet to continue
-            if (!visited.containsKey(currentData)) {
-                visited.put(currentData, current); // Marks as visited
-
-                for (Edge edge : currentNode.edgesLeaving) {
-                    Node neighbor = edge.successor; // Finds successor
-                    NodeType neighborData = neighbor.data; // Finds data of neighbor
-                    double edgeWeight = edge.data.doubleValue(); // Gets cost
-                    double updatedCost = current.cost + edgeWeight; // Updates total cost from start to end
-
-                    // If the neighbor has not been visited or a shorter path to it is found
-                    if (!visited.containsKey(neighborData) || updatedCost < visited.get(neighborData).cost) {
-                        // Creates a new SearchNode for the neighbor with updated cost and path
-                        SearchNode neighborSearchNode = new SearchNode(neighbor, updatedCost, current);
-                        pq.add(neighborSearchNode); // Re-iterates to find new short path
+            // Ends if end node, or the last of the targets, is reached
+            if (current == endIndex || options.settled(current)) {
+                break;
+            }
+
+            Node currentNode = nodeList.get(current);
+            for (Edge edge : backward ? currentNode.edgesEntering : currentNode.edgesLeaving) {
+                // Finds successor, or predecessor when searching backward
+                int neighbor = backward ? edge.predecessor.index : edge.successor.index;
+                double weight = edge.data.doubleValue();
+                double updatedCost = cost[current] + weight; // Updates total cost from start
+                relaxed++;
+
+                // If a shorter path to the neighbor is found, records it and queues the neighbor
+                if (updatedCost < cost[neighbor]) {
+                    cost[neighbor] = updatedCost;
+                    pred[neighbor] = current;
+                    if (predWeight != null) {
+                        predWeight[neighbor] = weight;
+                    }
+                    queue.push(neighbor, updatedCost);
+                    pushes++;
+                    if (trackHeapHighWater && queue.size() > highWater) {
+                        highWater = queue.size();
                     }
                 }
             }
         }
+        if (options.metrics != null) {
+            options.metrics.recordSearch(settledCount, relaxed, pushes, stalePops);
+        }
+        if (trackHeapHighWater) {
+            options.heapHighWater = highWater;
+        }
+        return settledCount;
+    }
+
+    /**
+     * Computes the shortest path between two nodes with an A* search. Nodes
+     * are queued by their cost from start plus the landmarks' lower bound on
+     * their remaining cost to end, so nodes leading away from end are settled
+     * later or not at all. Since these bounds never overestimate and obey the
+     * triangle inequality, each node is still settled at most once and the
+     * path found is a shortest path.
+     *
+     * @param startIndex   the index of the starting node
+     * @param endIndex     the index of the destination node
+     * @param settledNodes array whose first element receives the number of
+     *                     nodes settled, even when no path is found, or null
+     *                     when not needed
+     * @return SearchNode for the final end node within the shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     */
+    protected SearchNode computeShortestPathALT(int startIndex, int endIndex, int[] settledNodes) {
+        LandmarkTable table = currentLandmarks();
+        int nodeCount = nodeList.size();
+        double[] cost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        boolean[] settled = new boolean[nodeCount];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        int settledCount = 0;
+
+        NodeQueue queue = queueStrategy.create(nodeCount);
+        cost[startIndex] = 0;
+        pred[startIndex] = -1;
+        queue.push(startIndex, table.lowerBound(startIndex, endIndex));
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (settled[current]) {
+                continue;
+            }
+            settled[current] = true;
+            settledCount++;
+            if (current == endIndex) {
+                break;
+            }
+
+            for (Edge edge : nodeList.get(current).edgesLeaving) {
+                int neighbor = edge.successor.index;
+                double updatedCost = cost[current] + edge.data.doubleValue();
+                // Settled nodes are never updated, even if rounding in the bounds
+                // would make a later path look slightly cheaper
+                if (!settled[neighbor] && updatedCost < cost[neighbor]) {
+                    cost[neighbor] = updatedCost;
+                    pred[neighbor] = current;
+                    // Nodes that the landmarks show cannot reach end are not queued
+                    double bound = table.lowerBound(neighbor, endIndex);
+                    if (bound != Double.POSITIVE_INFINITY) {
+                        queue.push(neighbor, updatedCost + bound);
+                    }
+                }
+            }
+        }
+        lastSettledCount = settledCount;
+        if (settledNodes != null) {
+            settledNodes[0] = settledCount;
+        }
+
         // Throws exception if path is not found
-        throw new NoSuchElementException("Path does not exist");
+        if (cost[endIndex] == Double.POSITIVE_INFINITY) {
+            throw new NoSuchElementException("Path does not exist");
+        }
+        return toSearchNode(endIndex, cost, pred);
+    }
+
+    /**
+     * Computes the shortest path between two nodes by searching forward from
+     * the start node along edgesLeaving and backward from the end node along
+     * edgesEntering, always advancing the direction whose next node is closer.
+     * Whenever one search labels a node the other has already labelled, the
+     * combined path through that node becomes a candidate. The searches stop
+     * once the two smallest queued costs add up to at least the best
+     * candidate's cost, since no path found later could be cheaper.
+     *
+     * @param startIndex   the index of the starting node
+     * @param endIndex     the index of the destination node
+     * @param settledNodes array whose first element receives the number of
+     *                     nodes settled, even when no path is found, or null
+     *                     when not needed
+     * @return SearchNode for the final end node within the shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     */
+    protected SearchNode computeShortestPathBidirectional(int startIndex, int endIndex, int[] settledNodes) {
+        int nodeCount = nodeList.size();
+        // Forward search state: cost from start and predecessor of each node
+        double[] forwardCost = new double[nodeCount];
+        int[] forwardPred = new int[nodeCount];
+        boolean[] forwardSettled = new boolean[nodeCount];
+        // Backward search state: cost to end, and the next node toward end
+        // along with the weight of the edge leading to it
+        double[] backwardCost = new double[nodeCount];
+        int[] backwardNext = new int[nodeCount];
+        double[] backwardWeight = new double[nodeCount];
+        boolean[] backwardSettled = new boolean[nodeCount];
+        Arrays.fill(forwardCost, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardCost, Double.POSITIVE_INFINITY);
+
+        NodeQueue forwardQueue = queueStrategy.create(nodeCount);
+        NodeQueue backwardQueue = queueStrategy.create(nodeCount);
+        forwardCost[startIndex] = 0;
+        forwardPred[startIndex] = -1;
+        forwardQueue.push(startIndex, 0);
+        backwardCost[endIndex] = 0;
+        backwardQueue.push(endIndex, 0);
+
+        // The cheapest path found so far runs through the meeting node
+        double bestCost = startIndex == endIndex ? 0 : Double.POSITIVE_INFINITY;
+        int meeting = startIndex == endIndex ? startIndex : -1;
+        int settledCount = 0;
+
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+                && forwardQueue.peekPriority() + backwardQueue.peekPriority() < bestCost) {
+            if (forwardQueue.peekPriority() <= backwardQueue.peekPriority()) {
+                // Advances the forward search by one node
+                int current = forwardQueue.poll();
+                if (forwardSettled[current]) {
+                    continue;
+                }
+                forwardSettled[current] = true;
+                settledCount++;
+                for (Edge edge : nodeList.get(current).edgesLeaving) {
+                    int neighbor = edge.successor.index;
+                    double updatedCost = forwardCost[current] + edge.data.doubleValue();
+                    if (updatedCost < forwardCost[neighbor]) {
+                        forwardCost[neighbor] = updatedCost;
+                        forwardPred[neighbor] = current;
+                        forwardQueue.push(neighbor, updatedCost);
+                        // Checks for a cheaper path through a node the backward search reached
+                        if (updatedCost + backwardCost[neighbor] < bestCost) {
+                            bestCost = updatedCost + backwardCost[neighbor];
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            } else {
+                // Advances the backward search by one node
+                int current = backwardQueue.poll();
+                if (backwardSettled[current]) {
+                    continue;
+                }
+                backwardSettled[current] = true;
+                settledCount++;
+                for (Edge edge : nodeList.get(current).edgesEntering) {
+                    int neighbor = edge.predecessor.index;
+                    double updatedCost = backwardCost[current] + edge.data.doubleValue();
+                    if (updatedCost < backwardCost[neighbor]) {
+                        backwardCost[neighbor] = updatedCost;
+                        backwardNext[neighbor] = current;
+                        backwardWeight[neighbor] = edge.data.doubleValue();
+                        backwardQueue.push(neighbor, updatedCost);
+                        // Checks for a cheaper path through a node the forward search reached
+                        if (forwardCost[neighbor] + updatedCost < bestCost) {
+                            bestCost = forwardCost[neighbor] + updatedCost;
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        lastSettledCount = settledCount;
+        if (settledNodes != null) {
+            settledNodes[0] = settledCount;
+        }
+
+        // Throws exception if path is not found
+        if (meeting == -1) {
+            throw new NoSuchElementException("Path does not exist");
+        }
+
+        // Links the backward half onto the forward path to the meeting node,
+        // summing costs in path order so they match a forward only search.
+        // The halves stay apart, since with zero weight edges a node after
+        // the meeting node may also come before it in the forward search
+        SearchNode searchNode = toSearchNode(meeting, forwardCost, forwardPred);
+        for (int current = meeting; current != endIndex; current = backwardNext[current]) {
+            searchNode = new SearchNode(nodeList.get(backwardNext[current]),
+                    searchNode.cost + backwardWeight[current], searchNode);
+        }
+        return searchNode;
+    }
+
+    /**
+     * Returns the ids of the nodes along the shortest path between two node
+     * ids, as given by getNodeId. The search runs on ids and arrays only, so
+     * callers that keep ids rather than node data never hash node data, and
+     * can translate the ids back with getNodeData when they need to.
+     *
+     * @param startId the id of the starting node for the path
+     * @param endId   the id of the destination node for the path
+     * @return the ids of the nodes along this shortest path, in path order
+     * @throws NoSuchElementException when no path from start to end is found
+     * @throws IndexOutOfBoundsException when either id is not a node's id
+     */
+    public int[] shortestPathIds(int startId, int endId) {
+        int nodeCount = nodeList.size();
+        Objects.checkIndex(startId, nodeCount);
+        Objects.checkIndex(endId, nodeCount);
+        double[] cost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        lastSettledCount = search(startId, endId, false, cost, pred, null, new SearchOptions(metrics));
+        if (cost[endId] == Double.POSITIVE_INFINITY) {
+            throw new NoSuchElementException("Path does not exist");
+        }
+        return toPathIds(endId, pred);
+    }
+
+    /**
+     * Lists the ids along the path ending at a node, from the predecessor
+     * array filled in by a search.
+     *
+     * @param endId the id of the final node of the path
+     * @param pred  the predecessor of each node, or -1 for the start node
+     * @return the ids of the nodes along the path, in path order
+     */
+    protected static int[] toPathIds(int endId, int[] pred) {
+        int length = 0;
+        for (int id = endId; id != -1; id = pred[id]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int id = endId; id != -1; id = pred[id]) {
+            path[--length] = id;
+        }
+        return path;
+    }
+
+    /**
+     * Builds the chain of SearchNodes for the path ending at a node from the
+     * cost and predecessor arrays filled in by a search.
+     *
+     * @param endIndex the index of the final node of the path
+     * @param cost     the cost of reaching each node, by node index
+     * @param pred     the predecessor of each node, or -1 for the start node
+     * @return the SearchNode for the final node within the path
+     */
+    protected SearchNode toSearchNode(int endIndex, double[] cost, int[] pred) {
+        // Collects the node indexes along the path from end to start
+        List<Integer> indexes = new ArrayList<>();
+        for (int index = endIndex; index != -1; index = pred[index]) {
+            indexes.add(index);
+        }
+        // Links SearchNodes from start to end
+        SearchNode searchNode = null;
+        for (int i = indexes.size() - 1; i >= 0; i--) {
+            int index = indexes.get(i);
+            searchNode = new SearchNode(nodeList.get(index), cost[index], searchNode);
+        }
+        return searchNode;
     }
 
     /**
@@ -145,6 +618,14 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return list of data item from node along this shortest path
      */
     public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        // Runs an explained query while a recording is tracing queries
+        if (RouteQueryEvent.isTracing()) {
+            RouteExplanation<NodeType> explanation = RouteQueryEvent.trace(() -> explain(start, end));
+            if (!explanation.isFound()) {
+                throw new NoSuchElementException("Path does not exist");
+            }
+            return new LinkedList<>(explanation.getPath());
+        }
         // Computes shortest Path
         SearchNode endNode = computeShortestPath(start, end);
         // Creates Linked List to store path
@@ -170,6 +651,10 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      */
     public double shortestPathCost(NodeType start, NodeType end) {
         try {
+            if (RouteQueryEvent.isTracing()) {
+                RouteExplanation<NodeType> explanation = RouteQueryEvent.trace(() -> explain(start, end));
+                return explanation.isFound() ? explanation.getCost() : Double.NaN;
+            }
             SearchNode endNode = computeShortestPath(start, end);
             return endNode.cost;
         }
@@ -178,6 +663,246 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    /**
+     * Finds the shortest path between two nodes like shortestPathData, and
+     * describes how it was found: the search algorithm and priority queue
+     * used, the number of nodes settled, and the time spent searching apart
+     * from the time spent reading the path back. Only Dijkstra searches
+     * track their priority queue's high-water mark; for bidirectional and
+     * ALT searches it is -1, and their search time includes building the
+     * chain of SearchNodes.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the explanation of this query, which is not found when there
+     *         is no path from start to end
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteExplanation<NodeType> explain(NodeType start, NodeType end) {
+        if (!nodes.containsKey(start)) {
+            throw new NoSuchElementException("Start does not exist");
+        }
+        if (!nodes.containsKey(end)) {
+            throw new NoSuchElementException("End does not exist");
+        }
+        String engine = "DijkstraGraph " + searchAlgorithm + " " + queueStrategy;
+        int startIndex = nodes.get(start).index;
+        int endIndex = nodes.get(end).index;
+        // Counted here rather than read from lastSettledCount, which a
+        // concurrent query may overwrite
+        int[] settledNodes = { 0 };
+        SearchOptions options = new SearchOptions(metrics);
+        long searchStart = System.nanoTime();
+        long pathStart;
+        SearchNode endNode = null;
+        if (searchAlgorithm == SearchAlgorithm.DIJKSTRA) {
+            int nodeCount = nodeList.size();
+            double[] cost = new double[nodeCount];
+            int[] pred = new int[nodeCount];
+            options.trackHeapHighWater = true;
+            settledNodes[0] = search(startIndex, endIndex, false, cost, pred, null, options);
+            pathStart = System.nanoTime();
+            if (cost[endIndex] != Double.POSITIVE_INFINITY) {
+                endNode = toSearchNode(endIndex, cost, pred);
+            }
+        } else {
+            try {
+                endNode = searchAlgorithm == SearchAlgorithm.BIDIRECTIONAL
+                        ? computeShortestPathBidirectional(startIndex, endIndex, settledNodes)
+                        : computeShortestPathALT(startIndex, endIndex, settledNodes);
+            } catch (NoSuchElementException e) {
+                // Leaves endNode null, so the explanation has no path
+            }
+            pathStart = System.nanoTime();
+        }
+
+        // Reads the path back from the end node's chain of predecessors
+        LinkedList<NodeType> path = new LinkedList<>();
+        for (SearchNode node = endNode; node != null; node = node.predecessor) {
+            path.addFirst(node.node.data);
+        }
+        long pathNanos = System.nanoTime() - pathStart;
+        return new RouteExplanation<>(start, end, engine, settledNodes[0], options.heapHighWater,
+                pathStart - searchStart, pathNanos, false, path, endNode == null ? Double.POSITIVE_INFINITY : endNode.cost);
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data, with the weight of each edge along it
+     * and its total cost. These are all read off the SearchNode chain of a
+     * single search: each leg's weight comes from the edge leaving the
+     * previous SearchNode's node, and the total from the final SearchNode.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the route along this shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        SearchNode endNode = computeShortestPath(start, end);
+        LinkedList<NodeType> path = new LinkedList<>();
+        LinkedList<Double> legWeights = new LinkedList<>();
+
+        // Walks the chain back from the end, adding each node and the edge into it
+        for (SearchNode node = endNode; node != null; node = node.predecessor) {
+            path.addFirst(node.node.data);
+            if (node.predecessor != null) {
+                Edge edge = node.predecessor.node.leavingBySuccessor.get(node.node);
+                legWeights.addFirst(edge.data.doubleValue());
+            }
+        }
+        return new RouteResult<>(path, legWeights, endNode.cost);
+    }
+
+    /**
+     * Returns the shortest path tree rooted at the node containing the start
+     * data. This tree holds the cost of the shortest path to every node that
+     * can be reached from start, along with each node's predecessor on that
+     * path, and is computed by a single run of Dijkstra's algorithm.
+     *
+     * @param start the data item in the root node of the tree
+     * @return the shortest path tree for all nodes reachable from start
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        if (!nodes.containsKey(start)) {
+            throw new NoSuchElementException("Start does not exist");
+        }
+        return shortestPathTree(nodes.get(start).index, new SearchOptions(metrics));
+    }
+
+    /**
+     * Returns the part of the shortest path tree rooted at the node
+     * containing the start data that the search settles before it has
+     * settled every target, so one search answers the queries from start to
+     * all of them. Targets that cannot be reached are left out of the tree,
+     * which then holds every node that can be reached from start.
+     *
+     * @param start   the data item in the root node of the tree
+     * @param targets the data items to find shortest paths to
+     * @return a shortest path tree holding at least every reachable target
+     * @throws NoSuchElementException when start or any target does not
+     *                                correspond to a graph node
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, Collection<NodeType> targets) {
+        if (!nodes.containsKey(start)) {
+            throw new NoSuchElementException("Start does not exist");
+        }
+        SearchOptions options = new SearchOptions(metrics);
+        options.markTargets(targets, nodeList.size(),
+                target -> nodes.containsKey(target) ? nodes.get(target).index : -1);
+        return shortestPathTree(nodes.get(start).index, options);
+    }
+
+    /**
+     * Runs one search from startIndex and returns the nodes it settles as a
+     * shortest path tree.
+     *
+     * @param startIndex the index of the root node
+     * @param options    the targets to stop after, if any, and the metrics
+     *                   of the search
+     * @return the shortest path tree over the settled nodes
+     */
+    private ShortestPathTree<NodeType> shortestPathTree(int startIndex, SearchOptions options) {
+        int nodeCount = nodeList.size();
+        double[] cost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        double[] predWeight = new double[nodeCount];
+        int[] settledOrder = new int[nodeCount];
+        options.predWeight = predWeight;
+        int settledCount = search(startIndex, -1, false, cost, pred, settledOrder, options);
+        lastSettledCount = settledCount;
+
+        // Adds nodes in settled order, so each predecessor is added before its successors
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(settledCount);
+        int[] treePosition = new int[nodeCount];
+        for (int i = 0; i < settledCount; i++) {
+            int index = settledOrder[i];
+            int parent = pred[index] == -1 ? -1 : treePosition[pred[index]];
+            treePosition[index] = tree.add(nodeList.get(index).data, cost[index], parent, predWeight[index]);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the shortest path tree of every node that can be reached from
+     * the node containing the start data with a path costing at most maxCost,
+     * such as every location within a five minute walk. The search never
+     * queues a node beyond maxCost, so it stops once its frontier is past
+     * the budget, and its time and memory grow with the region reached
+     * rather than with the whole graph.
+     *
+     * @param start   the data item in the root node of the tree
+     * @param maxCost the largest path cost to include
+     * @return the shortest path tree for all nodes within maxCost of start
+     * @throws NoSuchElementException   when start does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> isochrone(NodeType start, double maxCost) {
+        if (!nodes.containsKey(start)) {
+            throw new NoSuchElementException("Start does not exist");
+        }
+        return boundedSearch(nodes.get(start).index, maxCost, false);
+    }
+
+    /**
+     * Returns the tree of every node that can reach the node containing the
+     * end data with a path costing at most maxCost, found by searching
+     * edgesEntering backward from end. Each node's cost is that of its
+     * shortest path to end, and its predecessor in the tree is the next node
+     * along that path, so getPathTo lists the path in reverse, from end back
+     * to the node.
+     *
+     * @param end     the data item in the root node of the tree
+     * @param maxCost the largest path cost to include
+     * @return the tree of all nodes within maxCost of reaching end
+     * @throws NoSuchElementException   when end does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> reverseIsochrone(NodeType end, double maxCost) {
+        if (!nodes.containsKey(end)) {
+            throw new NoSuchElementException("End does not exist");
+        }
+        return boundedSearch(nodes.get(end).index, maxCost, true);
+    }
+
+    /**
+     * Runs a BoundedSearch from the node at rootIndex, settling every node
+     * within maxCost of it into a ShortestPathTree.
+     *
+     * @param rootIndex the index of the node to search from
+     * @param maxCost   the largest path cost to include
+     * @param backward  true to search along edges in reverse
+     * @return the tree of nodes within maxCost of the root
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    protected ShortestPathTree<NodeType> boundedSearch(int rootIndex, double maxCost, boolean backward) {
+        BoundedSearch.Edges edges;
+        if (backward) {
+            edges = (index, search) -> {
+                for (Edge edge : nodeList.get(index).edgesEntering) {
+                    search.relax(edge.predecessor.index, edge.data.doubleValue());
+                }
+            };
+        } else {
+            edges = (index, search) -> {
+                for (Edge edge : nodeList.get(index).edgesLeaving) {
+                    search.relax(edge.successor.index, edge.data.doubleValue());
+                }
+            };
+        }
+        ShortestPathTree<NodeType> tree = BoundedSearch.search(rootIndex, maxCost, queueStrategy,
+                index -> nodeList.get(index).data, edges, metrics);
+        lastSettledCount = tree.size();
+        return tree;
+    }
+
     // TODO: implement 3+ tests in step 4.1
 
     @Test
@@ -256,4 +981,534 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
             graph.shortestPathCost("A", "B");
         }, "NoSuchElementException was expected when no path exists from A to B for cost computation");
     }
+
+    @Test
+    public void testFrozenShortestPath() {
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertNode("D");
+        graph.insertNode("E");
+        graph.insertEdge("A", "C", 1);
+        graph.insertEdge("A", "D", 4);
+        graph.insertEdge("C", "E", 10);
+        graph.insertEdge("D", "B", 2);
+        graph.insertEdge("D", "E", 10);
+        graph.insertEdge("B", "E", 1);
+        CSRGraph<String> frozen = graph.freeze();
+
+        // Tests that the snapshot holds the same nodes, edges and paths
+        assertEquals(5, frozen.getNodeCount());
+        assertEquals(6, frozen.getEdgeCount());
+        assertEquals(4.0, (double) frozen.getEdge("A", "D"));
+        assertEquals(Arrays.asList("A", "D", "B", "E"), frozen.shortestPathData("A", "E"));
+        assertEquals(7.0, frozen.shortestPathCost("A", "E"));
+
+        // Tests that later changes to the graph do not reach the snapshot
+        graph.insertEdge("A", "E", 2);
+        assertEquals(7.0, frozen.shortestPathCost("A", "E"));
+    }
+
+    @Test
+    public void testFrozenAfterRemoveNode() {
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertEdge("A", "B", 1);
+        graph.insertEdge("B", "C", 1);
+        graph.insertEdge("A", "C", 5);
+        graph.removeNode("A");
+        CSRGraph<String> frozen = graph.freeze();
+
+        // Tests that the remaining nodes were renumbered without gaps
+        assertEquals(2, frozen.getNodeCount());
+        assertEquals(Arrays.asList("B", "C"), frozen.shortestPathData("B", "C"));
+        assertThrows(NoSuchElementException.class, () -> frozen.shortestPathData("C", "B"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.insertNode("D"));
+    }
+
+    @Test
+    public void testQueueStrategies() {
+        for (NodeQueue.Strategy strategy : NodeQueue.Strategy.values()) {
+            // Creating the graph from testShortPathOne with each queue strategy
+            DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(strategy);
+            graph.insertNode("A");
+            graph.insertNode("B");
+            graph.insertNode("C");
+            graph.insertNode("D");
+            graph.insertNode("E");
+            graph.insertEdge("A", "C", 1);
+            graph.insertEdge("A", "D", 4);
+            graph.insertEdge("C", "E", 10);
+            graph.insertEdge("D", "B", 2);
+            graph.insertEdge("D", "E", 10);
+            graph.insertEdge("B", "E", 1);
+
+            // Tests that every strategy finds the same path and cost
+            assertEquals(Arrays.asList("A","D","B","E"), graph.shortestPathData("A", "E"), strategy.toString());
+            assertEquals(7, graph.shortestPathCost("A", "E"), strategy.toString());
+        }
+    }
+
+    @Test
+    public void testShortestPathTree() {
+        // Creating graph
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertNode("D");
+        graph.insertNode("E");
+        graph.insertNode("F");
+        graph.insertEdge("A", "C", 1);
+        graph.insertEdge("A", "D", 4);
+        graph.insertEdge("C", "E", 10);
+        graph.insertEdge("D", "B", 2);
+        graph.insertEdge("D", "E", 10);
+        graph.insertEdge("B", "E", 1);
+        graph.insertEdge("F", "A", 1);
+
+        ShortestPathTree<String> tree = graph.shortestPathTree("A");
+
+        // Tests that every reachable node has its shortest path cost and predecessor
+        assertEquals(5, tree.size());
+        assertEquals(Arrays.asList("A", "C", "D", "B", "E"), tree.getReachedNodes());
+        assertEquals(6, tree.getCost("B"));
+        assertEquals("D", tree.getPredecessor("B"));
+        assertEquals(Arrays.asList("A", "D", "B", "E"), tree.getPathTo("E"));
+        assertEquals("E", tree.getMostDistantNode());
+
+        // Tests that unreachable nodes are not part of the tree
+        assertEquals(false, tree.contains("F"));
+        assertThrows(NoSuchElementException.class, () -> tree.getCost("F"));
+
+        // Tests that a tree for some targets stops once they are all settled,
+        // and reads each route's leg weights from the tree
+        ShortestPathTree<String> partial = graph.shortestPathTree("A", Arrays.asList("C", "D"));
+        assertEquals(Arrays.asList("A", "C", "D"), partial.getReachedNodes());
+        assertEquals(5, graph.shortestPathTree("A", Arrays.asList("C", "F")).size());
+        RouteResult<String> route = graph.shortestPathTree("A", Arrays.asList("E")).getRouteTo("E");
+        assertEquals(Arrays.asList("A", "D", "B", "E"), route.getPath());
+        assertEquals(Arrays.asList(4.0, 2.0, 1.0), route.getLegWeights());
+        assertEquals(7.0, route.getTotalCost());
+        assertEquals(1, graph.shortestPathTree("A", new ArrayList<>()).size());
+    }
+
+    @Test
+    public void testBidirectional() {
+        // Creating the graph from testShortPathOne, searched in both directions
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.setSearchAlgorithm(SearchAlgorithm.BIDIRECTIONAL);
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertNode("D");
+        graph.insertNode("E");
+        graph.insertEdge("A", "C", 1);
+        graph.insertEdge("A", "D", 4);
+        graph.insertEdge("C", "E", 10);
+        graph.insertEdge("D", "B", 2);
+        graph.insertEdge("D", "E", 10);
+        graph.insertEdge("B", "E", 1);
+
+        // Tests the path, its cost, a path to itself and a missing path
+        assertEquals(Arrays.asList("A","D","B","E"), graph.shortestPathData("A", "E"));
+        assertEquals(7, graph.shortestPathCost("A", "E"));
+        assertEquals(Arrays.asList("D"), graph.shortestPathData("D", "D"));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("E", "A"));
+    }
+
+    @Test
+    public void testBidirectionalMatchesDijkstra() {
+        // Creating a random graph and searching every pair of nodes both ways
+        Random random = new Random(400);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 60; i++) {
+            graph.insertNode(i);
+        }
+        for (int i = 0; i < 180; i++) {
+            graph.insertEdge(random.nextInt(60), random.nextInt(60), (double) random.nextInt(100));
+        }
+        for (int start = 0; start < 60; start++) {
+            for (int end = 0; end < 60; end++) {
+                graph.setSearchAlgorithm(SearchAlgorithm.DIJKSTRA);
+                double expected = graph.shortestPathCost(start, end);
+                graph.setSearchAlgorithm(SearchAlgorithm.BIDIRECTIONAL);
+                // Tests that both algorithms agree on every cost
+                assertEquals(expected, graph.shortestPathCost(start, end), start + " to " + end);
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalZeroWeights() {
+        // Creating random graphs where a third of the edges cost nothing, so
+        // paths through zero weight cycles tie with the shortest ones
+        Random random = new Random(401);
+        for (int round = 0; round < 20; round++) {
+            DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+            for (int i = 0; i < 20; i++) {
+                graph.insertNode(i);
+            }
+            for (int i = 0; i < 60; i++) {
+                graph.insertEdge(random.nextInt(20), random.nextInt(20), (double) random.nextInt(3) / 2);
+            }
+            for (int start = 0; start < 20; start++) {
+                for (int end = 0; end < 20; end++) {
+                    graph.setSearchAlgorithm(SearchAlgorithm.DIJKSTRA);
+                    try {
+                        graph.shortestPathData(start, end);
+                    } catch (NoSuchElementException e) {
+                        continue;
+                    }
+                    double expected = graph.shortestPathCost(start, end);
+                    graph.setSearchAlgorithm(SearchAlgorithm.BIDIRECTIONAL);
+                    // Tests that the joined path ends, and that its edges add
+                    // up to the cost found forward
+                    List<Integer> path = graph.shortestPathData(start, end);
+                    double total = 0;
+                    for (int i = 1; i < path.size(); i++) {
+                        total += graph.getEdge(path.get(i - 1), path.get(i));
+                    }
+                    assertEquals(expected, total, start + " to " + end);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContractionHierarchyMatchesDijkstra() {
+        // Creating a random graph and a contraction hierarchy built from it
+        Random random = new Random(400);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 60; i++) {
+            graph.insertNode(i);
+        }
+        for (int i = 0; i < 180; i++) {
+            graph.insertEdge(random.nextInt(60), random.nextInt(60), (double) random.nextInt(100));
+        }
+        ContractionHierarchy<Integer> hierarchy = new ContractionHierarchy<>(graph);
+
+        for (int start = 0; start < 60; start++) {
+            for (int end = 0; end < 60; end++) {
+                // Tests that both agree on every cost, and that unpacked paths have that cost
+                double expected = graph.shortestPathCost(start, end);
+                assertEquals(expected, hierarchy.shortestPathCost(start, end), start + " to " + end);
+                if (!Double.isNaN(expected)) {
+                    List<Integer> path = hierarchy.shortestPathData(start, end);
+                    double pathCost = 0;
+                    for (int i = 1; i < path.size(); i++) {
+                        pathCost += graph.getEdge(path.get(i - 1), path.get(i));
+                    }
+                    assertEquals(expected, pathCost, start + " to " + end);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testALTMatchesDijkstra() {
+        // Creating a random graph and searching every pair of nodes with and without landmarks
+        Random random = new Random(400);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 60; i++) {
+            graph.insertNode(i);
+        }
+        for (int i = 0; i < 180; i++) {
+            graph.insertEdge(random.nextInt(60), random.nextInt(60), (double) random.nextInt(100));
+        }
+        for (LandmarkTable.Selection selection : LandmarkTable.Selection.values()) {
+            graph.precomputeLandmarks(4, selection);
+            for (int start = 0; start < 60; start++) {
+                for (int end = 0; end < 60; end++) {
+                    graph.setSearchAlgorithm(SearchAlgorithm.DIJKSTRA);
+                    double expected = graph.shortestPathCost(start, end);
+                    graph.setSearchAlgorithm(SearchAlgorithm.ALT);
+                    // Tests that both algorithms agree on every cost
+                    assertEquals(expected, graph.shortestPathCost(start, end), start + " to " + end);
+                }
+            }
+        }
+
+        // Tests that a changed graph gets new landmarks before the next search
+        graph.insertEdge(0, 59, 0.5);
+        assertEquals(0.5, graph.shortestPathCost(0, 59));
+    }
+
+    @Test
+    public void testALTConcurrentQueries() throws InterruptedException {
+        // Creating a random graph whose landmarks are out of date, since an
+        // edge was inserted after they were chosen
+        Random random = new Random(402);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 60; i++) {
+            graph.insertNode(i);
+        }
+        for (int i = 0; i < 180; i++) {
+            graph.insertEdge(random.nextInt(60), random.nextInt(60), (double) random.nextInt(100));
+        }
+        graph.precomputeLandmarks(4, LandmarkTable.Selection.FARTHEST);
+        graph.insertEdge(0, 59, 0.5);
+        double[][] expected = new double[60][60];
+        for (int start = 0; start < 60; start++) {
+            for (int end = 0; end < 60; end++) {
+                expected[start][end] = graph.shortestPathCost(start, end);
+            }
+        }
+
+        // Searching from several threads at once, which all find the
+        // landmarks out of date on their first search
+        graph.setSearchAlgorithm(SearchAlgorithm.ALT);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> searchers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread searcher = new Thread(() -> {
+                for (int start = 0; start < 60; start++) {
+                    for (int end = 0; end < 60; end++) {
+                        double cost = graph.shortestPathCost(start, end);
+                        if (Double.compare(cost, expected[start][end]) != 0) {
+                            failures.add(start + " to " + end + " cost " + cost);
+                        }
+                    }
+                }
+            });
+            searchers.add(searcher);
+            searcher.start();
+        }
+        for (Thread searcher : searchers) {
+            searcher.join();
+        }
+
+        // Tests that every search agreed with Dijkstra, using landmarks chosen
+        // for the changed graph
+        assertEquals(List.of(), failures);
+        assertEquals(true, graph.landmarks.isCurrent(graph));
+        assertEquals(0.5, graph.shortestPathCost(0, 59));
+    }
+
+    @Test
+    public void testAllPairsMatchesDijkstra() {
+        // Creating a random graph and an all pairs table for its frozen snapshot
+        Random random = new Random(400);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < 60; i++) {
+            graph.insertNode(i);
+        }
+        for (int i = 0; i < 180; i++) {
+            graph.insertEdge(random.nextInt(60), random.nextInt(60), (double) random.nextInt(100));
+        }
+        AllPairsTable<Integer> table = new AllPairsTable<>(graph.freeze());
+        for (int start = 0; start < 60; start++) {
+            ShortestPathTree<Integer> tree = graph.shortestPathTree(start);
+            for (int end = 0; end < 60; end++) {
+                if (!tree.contains(end)) {
+                    // Tests that unreachable pairs have no path in the table
+                    int from = start, to = end;
+                    assertThrows(NoSuchElementException.class, () -> table.getPath(from, to));
+                    continue;
+                }
+                // Tests that the table's cost and path agree with a search
+                assertEquals(tree.getCost(end), table.getCost(start, end), start + " to " + end);
+                List<Integer> path = table.getPath(start, end);
+                double pathCost = 0;
+                for (int i = 0; i < path.size() - 1; i++) {
+                    pathCost += graph.getEdge(path.get(i), path.get(i + 1));
+                }
+                assertEquals(tree.getCost(end), pathCost, 1e-9);
+            }
+            // Tests that the most distant node is as far as any reached node
+            if (tree.size() > 1 && tree.getCost(tree.getMostDistantNode()) > 0) {
+                assertEquals(tree.getCost(tree.getMostDistantNode()),
+                        tree.getCost(table.getMostDistantNode(start)));
+            }
+        }
+    }
+
+    @Test
+    public void testShortestPathRoute() {
+        // Creating the graph from testShortPathOne, with a frozen copy and its
+        // contraction hierarchy and all pairs table
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertNode("D");
+        graph.insertNode("E");
+        graph.insertEdge("A", "C", 1);
+        graph.insertEdge("A", "D", 4);
+        graph.insertEdge("C", "E", 10);
+        graph.insertEdge("D", "B", 2);
+        graph.insertEdge("D", "E", 10);
+        graph.insertEdge("B", "E", 1);
+        CSRGraph<String> frozen = graph.freeze();
+        List<RouteResult<String>> routes = Arrays.asList(graph.shortestPathRoute("A", "E"),
+                frozen.shortestPathRoute("A", "E"),
+                new ContractionHierarchy<>(graph).shortestPathRoute("A", "E"),
+                new AllPairsTable<>(frozen).getRoute("A", "E"));
+
+        // Tests that every route has the same path, leg weights and total
+        for (RouteResult<String> route : routes) {
+            assertEquals(Arrays.asList("A","D","B","E"), route.getPath());
+            assertEquals(Arrays.asList(4.0, 2.0, 1.0), route.getLegWeights());
+            assertEquals(7.0, route.getTotalCost());
+        }
+
+        // Tests a route to itself and a missing route
+        RouteResult<String> self = graph.shortestPathRoute("D", "D");
+        assertEquals(Arrays.asList("D"), self.getPath());
+        assertEquals(0, self.getLegWeights().size());
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathRoute("E", "A"));
+    }
+
+    @Test
+    public void testHubEdgeIndex() {
+        // Creating a hub with an edge to and from each of 1000 other nodes
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        graph.insertNode(-1);
+        for (int i = 0; i < 1000; i++) {
+            graph.insertNode(i);
+            graph.insertEdge(-1, i, (double) i);
+            graph.insertEdge(i, -1, 1.0);
+        }
+        // Tests lookups, weight updates and removals of the hub's edges
+        assertEquals(500.0, (double) graph.getEdge(-1, 500));
+        graph.insertEdge(-1, 500, 2.5);
+        assertEquals(2.5, (double) graph.getEdge(-1, 500));
+        assertEquals(2000, graph.getEdgeCount());
+        assertEquals(true, graph.removeEdge(-1, 500));
+        assertEquals(false, graph.containsEdge(-1, 500));
+        assertEquals(false, graph.removeEdge(-1, 500));
+        assertEquals(true, graph.containsEdge(500, -1));
+        assertEquals(1.0 + 999.0, graph.shortestPathCost(0, 999));
+
+        // Tests that removing the hub removes its edges from every other node
+        graph.removeNode(-1);
+        assertEquals(false, graph.containsEdge(500, -1));
+        graph.insertNode(-1);
+        assertEquals(false, graph.containsEdge(0, -1));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData(0, 999));
+    }
+
+    @Test
+    public void testNodeIds() {
+        // Creating the graph from testShortPathOne
+        DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertNode("C");
+        graph.insertNode("D");
+        graph.insertNode("E");
+        graph.insertEdge("A", "C", 1);
+        graph.insertEdge("A", "D", 4);
+        graph.insertEdge("C", "E", 10);
+        graph.insertEdge("D", "B", 2);
+        graph.insertEdge("D", "E", 10);
+        graph.insertEdge("B", "E", 1);
+
+        // Tests that ids are dense, in insertion order, and map back to data
+        for (int id = 0; id < 5; id++) {
+            assertEquals(id, graph.getNodeId(graph.getNodeData(id)));
+        }
+        assertEquals(3, graph.getNodeId("D"));
+
+        // Tests a search by ids, which agrees with the search by data
+        int[] path = graph.shortestPathIds(graph.getNodeId("A"), graph.getNodeId("E"));
+        List<String> names = new ArrayList<>();
+        for (int id : path) {
+            names.add(graph.getNodeData(id));
+        }
+        assertEquals(graph.shortestPathData("A", "E"), names);
+        assertEquals(Arrays.asList(0, 3, 1, 4).toString(), Arrays.toString(path));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathIds(4, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.shortestPathIds(0, 5));
+
+        // Tests that removing a node gives its id to the last node
+        graph.removeNode("B");
+        assertEquals(1, graph.getNodeId("E"));
+        assertEquals("E", graph.getNodeData(1));
+    }
+
+    @Test
+    public void testIsochrone() {
+        // Creating the graph from testShortPathOne
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        TestGraphs.insertShortPathOne(graph);
+
+        // Tests that only nodes within the budget are reached, in cost order,
+        // and that a node exactly at the budget is included
+        ShortestPathTree<String> within = graph.isochrone("A", 6);
+        assertEquals(List.of("A", "C", "D", "B"), within.getReachedNodes());
+        assertEquals(6.0, within.getCost("B"));
+        assertEquals(List.of("A", "D", "B"), within.getPathTo("B"));
+        assertEquals(List.of("A", "C", "D", "B", "E"), graph.isochrone("A", 7).getReachedNodes());
+        assertEquals(List.of("A"), graph.isochrone("A", 0).getReachedNodes());
+
+        // Tests the reverse search, whose paths run from the root back out
+        ShortestPathTree<String> reaching = graph.reverseIsochrone("E", 3);
+        assertEquals(List.of("E", "B", "D"), reaching.getReachedNodes());
+        assertEquals(3.0, reaching.getCost("D"));
+        assertEquals(List.of("E", "B", "D"), reaching.getPathTo("D"));
+        assertEquals(List.of("E", "B", "D", "A", "C"), graph.reverseIsochrone("E", 100).getReachedNodes());
+        assertThrows(NoSuchElementException.class, () -> graph.isochrone("F", 10));
+        assertThrows(IllegalArgumentException.class, () -> graph.reverseIsochrone("E", -1));
+
+        // Tests a frozen graph and a concurrent graph against
+        // every shortest path cost of a random graph, for budgets from
+        // nothing to everything
+        DijkstraGraph<Integer, Double> random = new DijkstraGraph<>();
+        ConcurrentGraph<Integer> concurrent = new ConcurrentGraph<>();
+        Random rand = new Random(25);
+        for (int i = 0; i < 200; i++) {
+            random.insertNode(i);
+            concurrent.insertNode(i);
+        }
+        for (int i = 0; i < 800; i++) {
+            int pred = rand.nextInt(200);
+            int succ = rand.nextInt(200);
+            double weight = 1 + rand.nextInt(20);
+            random.insertEdge(pred, succ, weight);
+            concurrent.insertEdge(pred, succ, weight);
+        }
+        CSRGraph<Integer> frozen = random.freeze();
+        for (double budget : new double[] { 0, 5, 20, 40, 1000 }) {
+            for (int root = 0; root < 200; root += 13) {
+                ShortestPathTree<Integer> forward = random.isochrone(root, budget);
+                ShortestPathTree<Integer> backward = frozen.reverseIsochrone(root, budget);
+                assertEquals(forward.getReachedNodes(), frozen.isochrone(root, budget).getReachedNodes());
+                assertEquals(backward.size(), random.reverseIsochrone(root, budget).size());
+                assertEquals(forward.getReachedNodes(), concurrent.isochrone(root, budget).getReachedNodes());
+                assertEquals(backward.size(), concurrent.reverseIsochrone(root, budget).size());
+                int forwardCount = 0;
+                int backwardCount = 0;
+                for (int node = 0; node < 200; node++) {
+                    double from = random.shortestPathCost(root, node);
+                    double to = random.shortestPathCost(node, root);
+                    if (from <= budget) {
+                        forwardCount++;
+                        assertEquals(from, forward.getCost(node));
+                    }
+                    if (to <= budget) {
+                        backwardCount++;
+                        assertEquals(to, backward.getCost(node));
+                    }
+                }
+                assertEquals(forwardCount, forward.size());
+                assertEquals(backwardCount, backward.size());
+            }
+        }
+
+        // Tests that a concurrent graph's reverse search sees the edges of
+        // a write made after an earlier reverse search
+        ConcurrentGraph<String> changing = new ConcurrentGraph<>();
+        changing.insertNode("A");
+        changing.insertNode("B");
+        changing.insertEdge("A", "B", 1.0);
+        assertEquals(List.of("B", "A"), changing.reverseIsochrone("B", 5).getReachedNodes());
+        changing.insertNode("C");
+        changing.insertEdge("C", "B", 2.0);
+        assertEquals(List.of("B", "A", "C"), changing.reverseIsochrone("B", 5).getReachedNodes());
+        assertEquals(2.0, changing.reverseIsochrone("B", 5).getCost("C"));
+    }
 }
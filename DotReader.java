@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads the edges of a dot file like campus.dot in a single pass
+ * over its bytes. The file is read through a FileChannel into one reusable
+ * buffer, and each line of the form
+ *     "Pred Name" -> "Succ Name" [seconds=123.4];
+ * is tokenized byte by byte, without regular expressions or splitting the
+ * line into Strings. Each distinct node name is decoded into a String only
+ * once, and later occurrences of the same name return that same String.
+ * Lines that do not start with a quoted name, or have no seconds attribute,
+ * are skipped like Backend.loadGraphData always has.
+ */
+public class DotReader {
+
+    /**
+     * Receives each edge as it is read.
+     */
+    public interface EdgeHandler {
+        /**
+         * Handles one edge of the file.
+         *
+         * @param pred    the name of the edge's source node
+         * @param succ    the name of the edge's target node
+         * @param seconds the edge's seconds attribute
+         */
+        public void edge(String pred, String succ, double seconds);
+    }
+
+    protected static final int BUFFER_SIZE = 1 << 20;
+    private static final byte[] SECONDS = "seconds".getBytes(StandardCharsets.US_ASCII);
+
+    // powers of ten that doubles hold exactly, for parsing short decimals
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    protected final EdgeHandler handler;
+    protected long edgeCount = 0;
+
+    // the distinct names read so far, numbered in the order they first
+    // appear, and an open addressing table from the names' bytes to those
+    // numbers, so that repeated names are not decoded again
+    protected String[] names = new String[1024];
+    protected int nameCount = 0;
+    private byte[][] nameBytes = new byte[1024][];
+    private int[] nameSlots = new int[1024]; // each slot's name number plus one, or 0 when empty
+    private int[] nameHashes = new int[1024];
+
+    /**
+     * Constructor for a reader that passes each edge to a handler.
+     *
+     * @param handler receives each edge in file order
+     */
+    public DotReader(EdgeHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Reads every edge of a dot file and passes it to this reader's handler.
+     *
+     * @param path the dot file to read
+     * @return the number of edges read from this file
+     * @throws IOException if the file cannot be read
+     */
+    public long read(Path path) throws IOException {
+        return read(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the edges on the lines within a byte range of a dot file and
+     * passes them to this reader's handler. The range should start at the
+     * beginning of a line and end just after a newline or at the end of the
+     * file, so that ranges split at line ends together read every line once.
+     *
+     * @param path  the dot file to read
+     * @param start the offset of the first byte to read
+     * @param end   the offset just past the last byte to read, which may be
+     *              past the end of the file
+     * @return the number of edges read from this range
+     * @throws IOException if the file cannot be read
+     */
+    public long read(Path path, long start, long end) throws IOException {
+        long edgesBefore = edgeCount;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(end - start, 64))];
+            int length = 0; // bytes in buffer, starting with an unfinished line
+            long position = start;
+            while (position < end) {
+                if (length == buffer.length)
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2); // a line longer than the buffer
+                int space = (int) Math.min(buffer.length - length, end - position);
+                int read = channel.read(ByteBuffer.wrap(buffer, length, space), position);
+                if (read < 0)
+                    break;
+                position += read;
+                length += read;
+                int consumed = readLines(buffer, length);
+                // move the unfinished last line to the front of the buffer
+                System.arraycopy(buffer, consumed, buffer, 0, length - consumed);
+                length -= consumed;
+            }
+            // the last line may not end with a newline
+            if (length > 0)
+                readLine(buffer, 0, length);
+        }
+        return edgeCount - edgesBefore;
+    }
+
+    /**
+     * Returns the number of edges passed to the handler so far.
+     *
+     * @return the number of edges read by this reader
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    // reads every complete line in buffer[0..length), returning where the
+    // unfinished last line starts
+    private int readLines(byte[] buffer, int length) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                readLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    // tokenizes the line in buffer[start..end) and passes on its edge, if any
+    private void readLine(byte[] buffer, int start, int end) {
+        int i = skipSpaces(buffer, start, end);
+        if (i == end || buffer[i] != '"')
+            return;
+        int predStart = i + 1;
+        int predEnd = indexOf(buffer, '"', predStart, end);
+        if (predEnd < 0)
+            return;
+        int succStart = indexOf(buffer, '"', predEnd + 1, end);
+        if (succStart < 0)
+            return;
+        succStart++;
+        int succEnd = indexOf(buffer, '"', succStart, end);
+        if (succEnd < 0)
+            return;
+        int attributes = indexOf(buffer, '[', succEnd + 1, end);
+        if (attributes < 0)
+            return;
+
+        // find seconds= among the attributes
+        for (i = attributes + 1; i < end && buffer[i] != ']'; i++) {
+            i = skipSpaces(buffer, i, end);
+            if (startsWith(buffer, i, end, SECONDS)) {
+                int value = skipSpaces(buffer, i + SECONDS.length, end);
+                if (value < end && buffer[value] == '=') {
+                    double seconds = parseNumber(buffer, skipSpaces(buffer, value + 1, end), end);
+                    if (!Double.isNaN(seconds)) {
+                        edge(nameId(buffer, predStart, predEnd), nameId(buffer, succStart, succEnd), seconds);
+                        edgeCount++;
+                    }
+                    return;
+                }
+            }
+            // move on to the separator before the next attribute
+            while (i < end && buffer[i] != ',' && buffer[i] != ']')
+                i++;
+            if (i < end && buffer[i] == ']')
+                return;
+        }
+    }
+
+    // parses a non-negative decimal number, like 123.4 or 156.49999999999997,
+    // returning NaN when there are no digits
+    private static double parseNumber(byte[] buffer, int start, int end) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1; // -1 until the decimal point is seen
+        int i = start;
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0)
+                    fractionDigits++;
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0)
+            return Double.NaN;
+        int scale = Math.max(fractionDigits, 0);
+        // a mantissa and power of ten that are both exact give a correctly
+        // rounded quotient; longer numbers are left to Double.parseDouble
+        if (digits <= 15 && scale < POWERS_OF_TEN.length)
+            return mantissa / POWERS_OF_TEN[scale];
+        return Double.parseDouble(new String(buffer, start, i - start, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Passes one edge to this reader's handler. Subclasses may override this
+     * to collect edges by name number instead, without looking names up.
+     *
+     * @param pred    the number of the edge's source node name
+     * @param succ    the number of the edge's target node name
+     * @param seconds the edge's seconds attribute
+     */
+    protected void edge(int pred, int succ, double seconds) {
+        handler.edge(names[pred], names[succ], seconds);
+    }
+
+    // returns the number of the name in buffer[start..end), decoding the name
+    // only the first time it is seen
+    private int nameId(byte[] buffer, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + buffer[i];
+        hash *= 0x9E3779B9;
+        int mask = nameSlots.length - 1;
+        int slot = hash >>> (Integer.numberOfLeadingZeros(nameSlots.length) + 1);
+        while (nameSlots[slot] != 0) {
+            if (nameHashes[slot] == hash && Arrays.equals(nameBytes[slot], 0, nameBytes[slot].length, buffer, start, end))
+                return nameSlots[slot] - 1;
+            slot = (slot + 1) & mask;
+        }
+        if (nameCount == names.length)
+            names = Arrays.copyOf(names, nameCount * 2);
+        names[nameCount] = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        nameSlots[slot] = ++nameCount;
+        nameBytes[slot] = Arrays.copyOfRange(buffer, start, end);
+        nameHashes[slot] = hash;
+        if (nameCount * 2 > nameSlots.length)
+            growNames();
+        return nameCount - 1;
+    }
+
+    // doubles the name table once it is half full
+    private void growNames() {
+        byte[][] oldBytes = nameBytes;
+        int[] oldSlots = nameSlots;
+        int[] oldHashes = nameHashes;
+        nameBytes = new byte[oldSlots.length * 2][];
+        nameSlots = new int[oldSlots.length * 2];
+        nameHashes = new int[oldSlots.length * 2];
+        int mask = nameSlots.length - 1;
+        int shift = Integer.numberOfLeadingZeros(nameSlots.length) + 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = oldHashes[i] >>> shift;
+                while (nameSlots[slot] != 0)
+                    slot = (slot + 1) & mask;
+                nameSlots[slot] = oldSlots[i];
+                nameBytes[slot] = oldBytes[i];
+                nameHashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private static int skipSpaces(byte[] buffer, int i, int end) {
+        while (i < end && (buffer[i] == ' ' || buffer[i] == '\t' || buffer[i] == '\r'))
+            i++;
+        return i;
+    }
+
+    private static int indexOf(byte[] buffer, char c, int i, int end) {
+        for (; i < end; i++)
+            if (buffer[i] == c)
+                return i;
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] buffer, int i, int end, byte[] prefix) {
+        if (end - i < prefix.length)
+            return false;
+        for (int j = 0; j < prefix.length; j++)
+            if (buffer[i + j] != prefix[j])
+                return false;
+        return true;
+    }
+
+}
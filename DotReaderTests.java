@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of reading dot files with DotReader, and in parallel chunks with
+ * ParallelDotReader.
+ */
+public class DotReaderTests {
+
+    @Test
+    public void testDotReader() throws IOException {
+        // Creating a dot file with a header, CRLF line endings, an attribute
+        // before seconds, a line without seconds, and no final newline
+        Path file = Files.createTempFile("reader", ".dot");
+        Files.writeString(file, "digraph test {\r\n"
+                + "\t\"A\" -> \"B\" [seconds=105.8];\r\n"
+                + "  \"B\" -> \"Long, Name\" [color=red, seconds = 156.49999999999997];\n"
+                + "\"A\" -> \"C\" [weight=3];\n"
+                + "\"Long, Name\" -> \"A\" [seconds=7]");
+        List<String> edges = new ArrayList<>();
+        List<String> succs = new ArrayList<>();
+        List<String> preds = new ArrayList<>();
+        long count = new DotReader((pred, succ, seconds) -> {
+            edges.add(pred + "->" + succ + "=" + seconds);
+            preds.add(pred);
+            succs.add(succ);
+        }).read(file);
+        Files.delete(file);
+
+        // Tests that every edge with seconds is read, with exact weights
+        assertEquals(3, count);
+        assertEquals(Arrays.asList("A->B=105.8", "B->Long, Name=156.49999999999997", "Long, Name->A=7.0"), edges);
+        // Tests that a repeated name is decoded once, into the same String
+        assertEquals(true, preds.get(0) == succs.get(2));
+    }
+
+    @Test
+    public void testParallelDotReader() throws IOException {
+        // Creating a dot file of a few megabytes, so it is split into several
+        // chunks, with repeated edges of different weights and no final newline
+        Path file = Files.createTempFile("parallel", ".dot");
+        Random random = new Random(14);
+        StringBuilder dot = new StringBuilder("digraph test {\n");
+        while (dot.length() < 3 * DotReader.BUFFER_SIZE) {
+            dot.append("\"Hall ").append(random.nextInt(500)).append("\" -> \"Hall ")
+                    .append(random.nextInt(500)).append("\" [seconds=").append(random.nextInt(1000) / 10.0)
+                    .append("];\n");
+        }
+        dot.append("\"Last\" -> \"Hall 0\" [seconds=1]");
+        Files.writeString(file, dot);
+        Backend sequential = new Backend(new DijkstraGraph<>());
+        sequential.loadGraphData(file.toString());
+        Backend parallel = new Backend(new DijkstraGraph<>());
+        parallel.loadGraphDataParallel(file.toString());
+
+        // Tests that every pool size builds the graph the sequential load does,
+        // with names in the same order and the first weight of repeated edges
+        DijkstraGraph<String, Double> expected = new DijkstraGraph<>();
+        new DotReader((pred, succ, seconds) -> {
+            expected.insertNode(pred);
+            expected.insertNode(succ);
+            if (!expected.containsEdge(pred, succ))
+                expected.insertEdge(pred, succ, seconds);
+        }).read(file);
+        for (int threads : new int[] {1, 3}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            CSRGraph<String> graph = new ParallelDotReader(pool).read(file);
+            pool.shutdown();
+            assertEquals(sequential.getListOfAllLocations(), Arrays.asList(graph.nodeData));
+            assertEquals(expected.getEdgeCount(), graph.getEdgeCount());
+            for (int node = 0; node < graph.getNodeCount(); node++) {
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    String pred = graph.getNodeData(node);
+                    String succ = graph.getNodeData(graph.targets[e]);
+                    assertEquals((double) expected.getEdge(pred, succ), graph.weights[e]);
+                }
+            }
+        }
+        assertEquals(sequential.getListOfAllLocations(), parallel.getListOfAllLocations());
+        assertEquals(sequential.findShortestPath("Last", "Hall 7"), parallel.findShortestPath("Last", "Hall 7"));
+        Files.delete(file);
+    }
+
+}
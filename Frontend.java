@@ -1,25 +1,39 @@
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public class Frontend extends Application implements FrontendInterface {
+    // the most location names suggested while typing
+    public static final int SUGGESTION_LIMIT = 10;
+
     private static Backend back;
     private Label pathLabel;
     private List<String> path;
+    private RouteResult<String> route; // the last route found, with its walking times
     private List<Integer> time;
     private String start;
     private String end;
     private boolean showTime = false;
     private double totalTime;
+    // runs backend queries off the JavaFX application thread, one at a time
+    private final ExecutorService routing = LatestRequest.newExecutor("frontend-routing");
+    private final LatestRequest<RouteResult<String>> routeRequest = new LatestRequest<>(routing, Platform::runLater);
+    private final LatestRequest<String> furthestRequest = new LatestRequest<>(routing, Platform::runLater);
+    private Label furthestFromLabel;
+    private long longestStallNanos; // the longest time a handler held the application thread
 
     /**
      * Sets the backend instance for frontend.
@@ -66,6 +80,7 @@ public class Frontend extends Application implements FrontendInterface {
         srcText.setId("srcTextId");
         srcText.setLayoutX(175);
         srcText.setLayoutY(16);
+        addTypeAhead(srcText);
         parent.getChildren().add(srcText);
 
         Label dst = new Label("Path End Selector:");
@@ -78,6 +93,7 @@ public class Frontend extends Application implements FrontendInterface {
         dstText.setId("dstTextId");
         dstText.setLayoutX(175);
         dstText.setLayoutY(48);
+        addTypeAhead(dstText);
         parent.getChildren().add(dstText);
 
         Button find = new Button("Submit/Find Button");
@@ -86,13 +102,27 @@ public class Frontend extends Application implements FrontendInterface {
         find.setLayoutY(80);
 
         find.setOnAction(e -> {
+            long stallStart = System.nanoTime();
             start = srcText.getText();
             end = dstText.getText();
 
             if (!start.isEmpty() && !end.isEmpty()) {
-                path = back.findShortestPath(start, end);
-                updatePathListDisplay(path);
+                // one search finds both the path and its walking times, in the
+                // background; a newer click supersedes a search still running
+                String from = start;
+                String to = end;
+                routeRequest.submit(() -> back.findRoute(from, to), result -> {
+                    long publishStart = System.nanoTime();
+                    route = result;
+                    path = route.getPath();
+                    if (showTime) {
+                        updateTravelTimes();
+                    }
+                    updatePathListDisplay(path);
+                    recordStall(publishStart);
+                }, error -> pathLabel.setText("No path found: " + error.getMessage()));
             }
+            recordStall(stallStart);
         });
         parent.getChildren().add(find);
     }
@@ -137,22 +167,32 @@ public class Frontend extends Application implements FrontendInterface {
 
         showTimesBox.setOnAction(e -> {
             if(showTimesBox.isSelected()) {
-                List<Double> timeDouble = back.getTravelTimesOnPath(start, end);
-                time = new ArrayList<Integer>();
-                for (double d : timeDouble) {
-                    time.add((int) Math.round(d));
-                }
-                double totalTimeSec = 0;
-                for (double t : time) {
-                    totalTimeSec += t;
+                // reuses the walking times of the route already found
+                if (route != null) {
+                    updateTravelTimes();
                 }
-                totalTime = Math.round(totalTimeSec / 60 * 100.0) / 100.0;
                 showTime = true;
             }
         });
         parent.getChildren().add(showTimesBox);
     }
 
+    /**
+     * Rounds the walking times of the current route for display, and totals
+     * them in minutes.
+     */
+    private void updateTravelTimes() {
+        time = new ArrayList<Integer>();
+        for (double d : route.getLegWeights()) {
+            time.add((int) Math.round(d));
+        }
+        double totalTimeSec = 0;
+        for (double t : time) {
+            totalTimeSec += t;
+        }
+        totalTime = Math.round(totalTimeSec / 60 * 100.0) / 100.0;
+    }
+
     public void createFurthestDestinationControls(Pane parent) {
         Label locationSelector = new Label("Location Selector:");
         locationSelector.setLayoutX(500);
@@ -164,6 +204,7 @@ public class Frontend extends Application implements FrontendInterface {
         furthestText.setId("furthestTextId");
         furthestText.setLayoutX(625);
         furthestText.setLayoutY(16);
+        addTypeAhead(furthestText);
         parent.getChildren().add(furthestText);
 
         Button furthestFromButton = new Button("Find Most Distant Location");
@@ -171,16 +212,91 @@ public class Frontend extends Application implements FrontendInterface {
         furthestFromButton.setLayoutX(500);
         furthestFromButton.setLayoutY(48);
         furthestFromButton.setOnAction(e -> {
+            long stallStart = System.nanoTime();
             String location = furthestText.getText();
-            String furthestLocation = back.getMostDistantLocation(location);
+            // searches every location in the background, superseding any
+            // earlier search still running
+            furthestRequest.submit(() -> back.getMostDistantLocation(location),
+                    furthestLocation -> showFurthest(parent, "Most Distance Location:  " + furthestLocation),
+                    error -> showFurthest(parent, "No such location: " + error.getMessage()));
+            recordStall(stallStart);
+        });
+        parent.getChildren().add(furthestFromButton);
+    }
+
+    /**
+     * Suggests matching location names below a text field as the user types,
+     * and fills the field in with a suggestion when one is chosen. The
+     * backend's location index answers each keystroke in well under a
+     * millisecond, so it is searched on the application thread.
+     * @param field the text field to suggest locations for
+     */
+    private void addTypeAhead(TextField field) {
+        ContextMenu suggestions = new ContextMenu();
+        // a click outside the menu hides it and still reaches its target
+        suggestions.setConsumeAutoHidingEvents(false);
+        field.textProperty().addListener((observable, oldText, text) -> {
+            List<String> matches = back.searchLocations(text, SUGGESTION_LIMIT);
+            // nothing to suggest once a whole name has been typed or chosen
+            if (matches.isEmpty() || !field.isFocused() || matches.get(0).equalsIgnoreCase(text)) {
+                suggestions.hide();
+                return;
+            }
+            suggestions.getItems().clear();
+            for (String match : matches) {
+                MenuItem item = new MenuItem(match);
+                item.setOnAction(e -> {
+                    field.setText(match);
+                    field.positionCaret(match.length());
+                });
+                suggestions.getItems().add(item);
+            }
+            if (!suggestions.isShowing())
+                suggestions.show(field, Side.BOTTOM, 0, 0);
+        });
+        field.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused)
+                suggestions.hide();
+        });
+    }
 
-            Label furthestFromLabel = new Label("Most Distance Location:  " + furthestLocation);
+    private void showFurthest(Pane parent, String text) {
+        if (furthestFromLabel == null) {
+            furthestFromLabel = new Label();
             furthestFromLabel.setId("furthestFromLabelId");
             furthestFromLabel.setLayoutX(500);
             furthestFromLabel.setLayoutY(80);
             parent.getChildren().add(furthestFromLabel);
-        });
-        parent.getChildren().add(furthestFromButton);
+        }
+        furthestFromLabel.setText(text);
+    }
+
+    // notes how long the application thread has been busy since startNanos
+    private void recordStall(long startNanos) {
+        longestStallNanos = Math.max(longestStallNanos, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the longest time a control's handler, or the code showing a
+     * background query's result, has kept the JavaFX application thread
+     * from drawing the window and handling input. Backend queries no longer
+     * count towards it, since they run on a background thread.
+     *
+     * @return the longest stall of the application thread in nanoseconds
+     */
+    public long getLongestStallNanos() {
+        return longestStallNanos;
+    }
+
+    /**
+     * Waits for the backend queries already requested to finish, and for
+     * their results to be handed to the application thread.
+     *
+     * @throws Exception if the wait is interrupted
+     */
+    public void awaitBackgroundQueries() throws Exception {
+        // the executor runs queries in order, so this runs after the others
+        routing.submit(() -> { }).get();
     }
 
     public void createAboutAndQuitControls(Pane parent) {
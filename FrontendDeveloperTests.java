@@ -7,9 +7,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testfx.framework.junit5.ApplicationTest;
 import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -44,11 +50,20 @@ public class FrontendDeveloperTests extends ApplicationTest {
         stage.show();
     }
 
+    /**
+     * Waits for the searches the frontend runs in the background to finish
+     * and for their results to be shown.
+     */
+    private void awaitBackgroundQueries() throws Exception {
+        frontend.awaitBackgroundQueries();
+        WaitForAsyncUtils.waitForFxEvents();
+    }
+
     /**
      * Tests if when Submit button is pressed, it displays the path
      */
     @Test
-    public void testShortestPathButton() {
+    public void testShortestPathButton() throws Exception {
         // Tests if button is present and correct
         Button button = lookup("#findId").query();
         assertEquals("Submit/Find Button", button.getText());
@@ -61,6 +76,7 @@ public class FrontendDeveloperTests extends ApplicationTest {
 
         // Tests if path is displayed when button is clicked
         clickOn("#findId");
+        awaitBackgroundQueries();
         Label label = lookup("#pathId").query();
         assertEquals("Results List: \n\tUnion South\n\tAtmospheric, Oceanic and Space Sciences", label.getText());
     }
@@ -82,6 +98,7 @@ public class FrontendDeveloperTests extends ApplicationTest {
         clickOn("#findId");
         clickOn("#showTimesBoxId");
         clickOn("#findId");
+        awaitBackgroundQueries();
         Label label = lookup("#pathId").query();
         assertEquals("Results List: \n\tUnion South\n\tAtmospheric, " +
                 "Oceanic and Space Sciences\n\nResults List (with walking times):\n\tUnion South\n\t" +
@@ -93,7 +110,7 @@ public class FrontendDeveloperTests extends ApplicationTest {
      * Tests if when Furthest Destination Button is pressed, the most distant location is displayed
      */
     @Test
-    public void testFurthestDestinationButton() {
+    public void testFurthestDestinationButton() throws Exception {
         // Tests if button is present and correct
         Button button = lookup("#furthestFromButtonId").query();
         assertEquals("Find Most Distant Location", button.getText());
@@ -104,6 +121,7 @@ public class FrontendDeveloperTests extends ApplicationTest {
 
         // Tests if most distant location is displayed when button is clicked
         clickOn("#furthestFromButtonId");
+        awaitBackgroundQueries();
         Label label = lookup("#furthestFromLabelId").query();
         assertEquals("Most Distance Location:  Smith Residence Hall", label.getText());
     }
@@ -198,6 +216,50 @@ public class FrontendDeveloperTests extends ApplicationTest {
         assertEquals("Smith Residence Hall", furthestLocation);
     }
 
+    /**
+     * Tests if only the latest of several overlapping requests has its result shown, as when the
+     * user submits a new search before the last one finishes
+     */
+    @Test
+    void testLatestRequest() throws Exception {
+        // Creating requests whose results are published straight away, and a
+        // first request that is held running until a second one supersedes it
+        ExecutorService executor = LatestRequest.newExecutor("test");
+        LatestRequest<String> requests = new LatestRequest<>(executor, Runnable::run);
+        List<String> shown = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        requests.submit(() -> {
+            started.countDown();
+            // like a search, keeps running when interrupted
+            while (true) {
+                try {
+                    release.await();
+                    return "first";
+                } catch (InterruptedException e) {
+                    // superseded, but finishes anyway
+                }
+            }
+        }, shown::add, error -> shown.add("error"));
+        started.await();
+        requests.submit(() -> "second", shown::add, error -> shown.add("error"));
+        // a request that never starts, since the one after it supersedes it
+        requests.submit(() -> "third", shown::add, error -> shown.add("error"));
+        requests.submit(() -> {
+            throw new NoSuchElementException("fourth");
+        }, shown::add, error -> shown.add(error.getMessage()));
+        release.countDown();
+        executor.submit(() -> { }).get();
+
+        // Tests that only the latest request's outcome is shown, whether the
+        // earlier ones were running or still waiting when superseded
+        assertEquals(List.of("fourth"), shown);
+        requests.submit(() -> "fifth", shown::add, error -> shown.add("error"));
+        executor.submit(() -> { }).get();
+        assertEquals(List.of("fourth", "fifth"), shown);
+        executor.shutdown();
+    }
+
 
 }
 
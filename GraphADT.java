@@ -1,3 +1,4 @@
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -117,4 +118,118 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    * @return the cost of the shortest path between these nodes
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest path from the node with the provided start value to the node with the
+   * provided end value, together with the weight of each edge along it and its total cost. All
+   * three are read from the result of a single search, so callers that need both a path and its
+   * travel times do not have to search twice or look up each edge.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the route along this shortest path
+   * @throws NoSuchElementException if start or end is not found within this graph, or there is
+   *         no path from start to end
+   */
+  public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end);
+
+  /**
+   * Finds the shortest path between the nodes with the provided start and end values the way
+   * shortestPathData would, and describes how it was found: the search used, the number of nodes it
+   * settled, the most entries its priority queue held at once, and the time spent searching and
+   * reading the path back. Counts that a graph does not track are -1.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the explanation of this query, which is not found when there is no path from start to
+   *     end
+   * @throws NoSuchElementException if either start or end are not found within this graph
+   */
+  public RouteExplanation<NodeType> explain(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest path tree rooted at the node with the provided start value. This tree
+   * holds the cost of the shortest path from start to every node that it can reach, along with
+   * each of those nodes' predecessor on that path, and is found by a single run of Dijkstra's
+   * shortest path algorithm rather than one run per destination.
+   *
+   * @param start the data item in the root node of the tree
+   * @return the shortest path tree for all nodes reachable from start
+   * @throws NoSuchElementException if start is not found within this graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start);
+
+  /**
+   * Returns a shortest path tree rooted at the node with the provided start value that holds at
+   * least every target start can reach. The search behind it stops once every target is settled,
+   * so a batch of queries from one start pays for one search that goes only as far as its
+   * farthest target.
+   *
+   * @param start the data item in the root node of the tree
+   * @param targets the data items to find shortest paths to
+   * @return a shortest path tree holding every target reachable from start
+   * @throws NoSuchElementException if start or any target is not found within this graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start, Collection<NodeType> targets);
+
+  /**
+   * Sets the metrics that this graph's shortest path searches add their work to, such as the
+   * number of nodes each settles. Graphs that do not measure their searches ignore it.
+   *
+   * @param metrics the metrics to record into, or null to record nothing
+   */
+  public void setMetrics(RoutingMetrics metrics);
+
+  /**
+   * Returns the shortest path tree of every node that can be reached from the node with the
+   * provided start value by a path costing at most maxCost, such as every location within a five
+   * minute walk. The search behind it never goes past maxCost, so its work grows with the area
+   * reached rather than with the whole graph.
+   *
+   * @param start the data item in the root node of the tree
+   * @param maxCost the largest path cost to include
+   * @return the shortest path tree for all nodes within maxCost of start
+   * @throws NoSuchElementException if start is not found within this graph
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   */
+  public ShortestPathTree<NodeType> isochrone(NodeType start, double maxCost);
+
+  /**
+   * Returns the tree of every node that can reach the node with the provided end value by a path
+   * costing at most maxCost. Each node's cost is that of its shortest path to end, and its
+   * predecessor in the tree is the next node along that path.
+   *
+   * @param end the data item in the root node of the tree
+   * @param maxCost the largest path cost to include
+   * @return the tree of all nodes within maxCost of reaching end
+   * @throws NoSuchElementException if end is not found within this graph
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   */
+  public ShortestPathTree<NodeType> reverseIsochrone(NodeType end, double maxCost);
+
+  /**
+   * Returns a read-only snapshot of this graph's current nodes and edges in compressed sparse row
+   * form, which tables such as an AllPairsTable are built from. Later changes to this graph are not
+   * reflected in the snapshot, and a graph that is already read-only may return itself.
+   *
+   * @return a CSRGraph holding the current nodes and edges, or null if this graph cannot be frozen
+   */
+  public CSRGraph<NodeType> freeze();
+
+  /**
+   * Returns the number of changes made to this graph so far, which grows with every change that
+   * inserts, removes or updates a node or edge. Comparing it with an earlier value tells whether
+   * anything built from the graph, such as a frozen snapshot, is out of date.
+   *
+   * @return the number of changes made to this graph, which is always 0 for a read-only graph
+   */
+  public long getModificationCount();
+
+  /**
+   * Returns a new graph with no nodes or edges, of the same kind as this one where that kind can be
+   * changed, so data can be loaded into it while this graph keeps answering queries.
+   *
+   * @return a new, empty graph that nodes and edges can be inserted into
+   */
+  public GraphADT<NodeType, EdgeType> newEmptyGraph();
 }
@@ -0,0 +1,345 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * This class writes synthetic maps as dot files in the format read by
+ * Backend.loadGraphData, from campus scale to city scale, so that loading
+ * and routing can be measured on inputs far larger than campus.dot. Nodes
+ * are named "N0", "N1", ... like the graphs built by Benchmarks, and every
+ * edge's walking time is written in seconds with one decimal place. Edges
+ * are streamed to the file as they are generated, so the memory needed is
+ * a few arrays of one entry per node or per edge, never the graph itself.
+ * The same topology, edge count and seed always write the same file.
+ */
+public class GraphGenerator {
+
+    /**
+     * The shapes of map that can be generated.
+     */
+    public enum Topology {
+        // a street grid, joined both ways to the nodes beside, above and
+        // below with the same random walking time each way
+        GRID,
+        // locations scattered at random, each joined both ways to every
+        // location within walking range, with times from the distance
+        GEOMETRIC,
+        // locations added one at a time, each joining existing ones chosen
+        // in proportion to how many edges they already have, so a few hubs
+        // end up with most of the edges
+        SCALE_FREE
+    }
+
+    // the average number of edges leaving each node of a geometric map
+    protected static final int GEOMETRIC_DEGREE = 8;
+    // the number of existing nodes each new node of a scale-free map joins
+    protected static final int SCALE_FREE_LINKS = 4;
+    // the spacing of geometric map locations, in meters per location
+    protected static final double METERS_PER_LOCATION = 80.0;
+    protected static final double WALKING_METERS_PER_SECOND = 1.4;
+
+    protected final Topology topology;
+    protected final long edgeCount;
+    protected final long seed;
+    protected final int nodeCount;
+
+    /**
+     * Constructor for a generator of one map. The map has close to, but not
+     * always exactly, edgeCount edges, since each topology only comes in
+     * some sizes.
+     *
+     * @param topology  the shape of the map
+     * @param edgeCount the number of edges to aim for, at least 8
+     * @param seed      the seed for the map's random choices
+     * @throws IllegalArgumentException if edgeCount is below 8 or needs more
+     *                                  nodes than an int can number
+     */
+    public GraphGenerator(Topology topology, long edgeCount, long seed) {
+        if (edgeCount < 8)
+            throw new IllegalArgumentException("At least 8 edges are needed, not " + edgeCount);
+        this.topology = topology;
+        this.edgeCount = edgeCount;
+        this.seed = seed;
+        long nodes;
+        switch (topology) {
+            case GRID:
+                // a w by w grid has 4w(w - 1) edges
+                long width = (long) Math.ceil((1 + Math.sqrt(1 + edgeCount)) / 2);
+                nodes = width * width;
+                break;
+            case GEOMETRIC:
+                nodes = edgeCount / GEOMETRIC_DEGREE;
+                break;
+            default:
+                // the starting nodes, and at least one node that joins them
+                nodes = Math.max(SCALE_FREE_LINKS + edgeCount / (2 * SCALE_FREE_LINKS), SCALE_FREE_LINKS + 1);
+        }
+        if (nodes > Integer.MAX_VALUE - 1)
+            throw new IllegalArgumentException("Too many edges for one map: " + edgeCount);
+        this.nodeCount = (int) nodes;
+    }
+
+    /**
+     * Returns the number of nodes in the generated map.
+     *
+     * @return the node count
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Writes the map to a dot file, replacing any file already there.
+     *
+     * @param path the file to write
+     * @return the number of edges written
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            return write(out);
+        }
+    }
+
+    /**
+     * Writes the map as a dot file to a stream, which is left open.
+     *
+     * @param out the stream to write to
+     * @return the number of edges written
+     * @throws IOException if the stream cannot be written to
+     */
+    public long write(OutputStream out) throws IOException {
+        EdgeWriter edges = new EdgeWriter(out);
+        edges.writeAscii("digraph " + topology.name().toLowerCase(Locale.ROOT) + " {\n");
+        Random random = new Random(seed);
+        switch (topology) {
+            case GRID:
+                writeGrid(edges, random);
+                break;
+            case GEOMETRIC:
+                writeGeometric(edges, random);
+                break;
+            default:
+                writeScaleFree(edges, random);
+        }
+        edges.writeAscii("}\n");
+        edges.flush();
+        return edges.count;
+    }
+
+    // writes each row's edges right and down, both ways, so the walking time
+    // of an edge and its reverse are drawn once
+    private void writeGrid(EdgeWriter edges, Random random) throws IOException {
+        int width = (int) Math.sqrt(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            int x = node % width;
+            if (x + 1 < width)
+                edges.writeBothWays(node, node + 1, randomTenths(random));
+            if (node + width < nodeCount)
+                edges.writeBothWays(node, node + width, randomTenths(random));
+        }
+    }
+
+    // scatters the locations over a square, buckets them into cells as wide
+    // as the walking range, and joins each location to those within range in
+    // its own and the eight neighboring cells
+    private void writeGeometric(EdgeWriter edges, Random random) throws IOException {
+        double side = Math.sqrt(nodeCount) * METERS_PER_LOCATION;
+        // the range that puts GEOMETRIC_DEGREE other locations within it on average
+        double range = side * Math.sqrt(GEOMETRIC_DEGREE / (Math.PI * nodeCount));
+        int cellsPerSide = Math.max(1, (int) (side / range));
+        double cellWidth = side / cellsPerSide;
+        float[] x = new float[nodeCount];
+        float[] y = new float[nodeCount];
+        int[] cellStart = new int[cellsPerSide * cellsPerSide + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            x[node] = (float) (random.nextDouble() * side);
+            y[node] = (float) (random.nextDouble() * side);
+            cellStart[cell(x[node], y[node], cellWidth, cellsPerSide) + 1]++;
+        }
+        for (int cell = 0; cell < cellsPerSide * cellsPerSide; cell++)
+            cellStart[cell + 1] += cellStart[cell];
+        // the nodes of each cell, filled by a counting sort
+        int[] byCell = new int[nodeCount];
+        int[] fill = cellStart.clone();
+        for (int node = 0; node < nodeCount; node++)
+            byCell[fill[cell(x[node], y[node], cellWidth, cellsPerSide)]++] = node;
+
+        double rangeSquared = range * range;
+        for (int node = 0; node < nodeCount; node++) {
+            int cellX = Math.min((int) (x[node] / cellWidth), cellsPerSide - 1);
+            int cellY = Math.min((int) (y[node] / cellWidth), cellsPerSide - 1);
+            for (int nearY = Math.max(cellY - 1, 0); nearY <= Math.min(cellY + 1, cellsPerSide - 1); nearY++) {
+                for (int nearX = Math.max(cellX - 1, 0); nearX <= Math.min(cellX + 1, cellsPerSide - 1); nearX++) {
+                    int cell = nearY * cellsPerSide + nearX;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int other = byCell[i];
+                        // the squared distance is computed the same way from
+                        // either end, so both directions get the same time
+                        double dx = (double) x[node] - x[other];
+                        double dy = (double) y[node] - y[other];
+                        double squared = dx * dx + dy * dy;
+                        if (other != node && squared <= rangeSquared) {
+                            long tenths = Math.round(Math.sqrt(squared) / WALKING_METERS_PER_SECOND * 10);
+                            edges.write(node, other, (int) Math.max(tenths, 1));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cell(float x, float y, double cellWidth, int cellsPerSide) {
+        int cellX = Math.min((int) (x / cellWidth), cellsPerSide - 1);
+        int cellY = Math.min((int) (y / cellWidth), cellsPerSide - 1);
+        return cellY * cellsPerSide + cellX;
+    }
+
+    // grows the map by preferential attachment: the first new node joins
+    // all of the starting nodes, and each later one joins SCALE_FREE_LINKS
+    // distinct nodes picked by choosing an end of a random earlier link,
+    // which picks each node in proportion to its degree
+    private void writeScaleFree(EdgeWriter edges, Random random) throws IOException {
+        int links = SCALE_FREE_LINKS;
+        // targets[k] is the older end of link k; the newer end of link k is
+        // always node links + k / links, so it need not be stored
+        int[] targets = new int[(nodeCount - links) * links];
+        int[] picked = new int[links];
+        int linkCount = 0;
+        for (int node = links; node < nodeCount; node++) {
+            // only links made before this node are picked from, so it never
+            // picks itself
+            int earlierLinks = linkCount;
+            for (int i = 0; i < links; i++) {
+                int target;
+                if (node == links) {
+                    target = i;
+                } else {
+                    do {
+                        int end = random.nextInt(2 * earlierLinks);
+                        target = end % 2 == 0 ? links + (end / 2) / links : targets[end / 2];
+                    } while (contains(picked, i, target));
+                }
+                picked[i] = target;
+                targets[linkCount++] = target;
+                edges.writeBothWays(node, target, randomTenths(random));
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++)
+            if (values[i] == value)
+                return true;
+        return false;
+    }
+
+    // a walking time between 10 and 200 seconds, in tenths of a second
+    private static int randomTenths(Random random) {
+        return 100 + random.nextInt(1901);
+    }
+
+    // formats edge lines straight into bytes, since building a String for
+    // each of up to 10^8 lines would dominate the time to write them
+    private static class EdgeWriter {
+        private static final byte[] SECONDS = " [seconds=".getBytes();
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int length;
+        long count;
+
+        EdgeWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeBothWays(int a, int b, int tenths) throws IOException {
+            write(a, b, tenths);
+            write(b, a, tenths);
+        }
+
+        // writes: \t"N<pred>" -> "N<succ>" [seconds=<tenths / 10>.<tenths % 10>];\n
+        void write(int pred, int succ, int tenths) throws IOException {
+            if (length + 64 > buffer.length)
+                drain();
+            buffer[length++] = '\t';
+            writeName(pred);
+            buffer[length++] = ' ';
+            buffer[length++] = '-';
+            buffer[length++] = '>';
+            buffer[length++] = ' ';
+            writeName(succ);
+            for (byte b : SECONDS)
+                buffer[length++] = b;
+            writeNumber(tenths / 10);
+            buffer[length++] = '.';
+            buffer[length++] = (byte) ('0' + tenths % 10);
+            buffer[length++] = ']';
+            buffer[length++] = ';';
+            buffer[length++] = '\n';
+            count++;
+        }
+
+        private void writeName(int node) {
+            buffer[length++] = '"';
+            buffer[length++] = 'N';
+            writeNumber(node);
+            buffer[length++] = '"';
+        }
+
+        private void writeNumber(int value) {
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10)
+                digits++;
+            for (int i = length + digits - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        void writeAscii(String text) throws IOException {
+            drain();
+            out.write(text.getBytes());
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes a generated map to a dot file. The arguments are the topology
+     * (grid, geometric or scale-free), the number of edges to aim for, the
+     * seed, and the file to write, for example:
+     *     java GraphGenerator geometric 100000000 1 city.dot
+     *
+     * @param args the topology, edge count, seed and output file
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Usage: java GraphGenerator grid|geometric|scale-free <edges> <seed> <file.dot>");
+            System.exit(1);
+        }
+        Topology topology = Topology.valueOf(args[0].toUpperCase(Locale.ROOT).replace('-', '_'));
+        GraphGenerator generator = new GraphGenerator(topology, Long.parseLong(args[1]), Long.parseLong(args[2]));
+        long startTime = System.nanoTime();
+        try {
+            long written = generator.write(Path.of(args[3]));
+            System.out.printf("Wrote %,d nodes and %,d edges to %s in %.1f s%n", generator.getNodeCount(), written,
+                    args[3], (System.nanoTime() - startTime) / 1e9);
+        } catch (IOException e) {
+            System.out.println("Error writing " + args[3] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the maps GraphGenerator writes for each topology, loaded the
+ * same way as campus.dot.
+ */
+public class GraphGeneratorTests {
+
+    @Test
+    public void testGraphGenerator() throws Exception {
+        for (GraphGenerator.Topology topology : GraphGenerator.Topology.values()) {
+            // Creating a map of each topology with about 2,000 edges, and
+            // loading it the way the app loads campus.dot
+            GraphGenerator generator = new GraphGenerator(topology, 2_000, 22);
+            Path dot = Files.createTempFile("generated", ".dot");
+            long written = generator.write(dot);
+            Backend backend = new Backend(new DijkstraGraph<>());
+            backend.loadGraphData(dot.toString());
+            GraphADT<String, Double> graph = backend.getGraph();
+
+            // Tests that every edge was read, none of them twice, and that
+            // each has a reverse with the same walking time
+            assertTrue(Math.abs(written - 2_000) < 400, topology + " wrote " + written);
+            assertEquals((int) written, graph.getEdgeCount(), topology.toString());
+            CSRGraph<String> frozen = graph.freeze();
+            int largestDegree = 0;
+            for (int node = 0; node < frozen.getNodeCount(); node++) {
+                largestDegree = Math.max(largestDegree, frozen.offsets[node + 1] - frozen.offsets[node]);
+                for (int i = frozen.offsets[node]; i < frozen.offsets[node + 1]; i++) {
+                    String pred = frozen.getNodeData(node);
+                    String succ = frozen.getNodeData(frozen.targets[i]);
+                    assertEquals(graph.getEdge(pred, succ), graph.getEdge(succ, pred));
+                }
+            }
+            // Tests that a scale-free map has hubs far above the average degree
+            if (topology == GraphGenerator.Topology.SCALE_FREE)
+                assertTrue(largestDegree > 5 * written / frozen.getNodeCount(), "largest " + largestDegree);
+
+            // Tests that the same seed writes the same file, and another does not
+            ByteArrayOutputStream again = new ByteArrayOutputStream();
+            generator.write(again);
+            assertTrue(Arrays.equals(Files.readAllBytes(dot), again.toByteArray()));
+            ByteArrayOutputStream other = new ByteArrayOutputStream();
+            new GraphGenerator(topology, 2_000, 23).write(other);
+            assertFalse(Arrays.equals(again.toByteArray(), other.toByteArray()));
+            Files.delete(dot);
+        }
+    }
+
+}
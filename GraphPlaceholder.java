@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -65,4 +67,47 @@ public class GraphPlaceholder implements GraphADT<String, Double> {
   public double shortestPathCost(String start, String end) {
     return 303.2;
   }
+
+  public RouteResult<String> shortestPathRoute(String start, String end) {
+    return new RouteResult<>(path, Arrays.asList(176.0, 127.2), 303.2);
+  }
+
+  public RouteExplanation<String> explain(String start, String end) {
+    return new RouteExplanation<>(start, end, "GraphPlaceholder", -1, -1, 0, 0, false, path, 303.2);
+  }
+
+  public ShortestPathTree<String> shortestPathTree(String start) {
+    ShortestPathTree<String> tree = new ShortestPathTree<>(path.size());
+    tree.add(path.get(0), 0.0, -1, 0.0);
+    tree.add(path.get(1), 176.0, 0, 176.0);
+    tree.add(path.get(2), 303.2, 1, 127.2);
+    return tree;
+  }
+
+  public ShortestPathTree<String> shortestPathTree(String start, Collection<String> targets) {
+    return shortestPathTree(start);
+  }
+
+  public void setMetrics(RoutingMetrics metrics) {
+  }
+
+  public ShortestPathTree<String> isochrone(String start, double maxCost) {
+    return shortestPathTree(start);
+  }
+
+  public ShortestPathTree<String> reverseIsochrone(String end, double maxCost) {
+    return shortestPathTree(end);
+  }
+
+  public CSRGraph<String> freeze() {
+    return null;
+  }
+
+  public long getModificationCount() {
+    return 0;
+  }
+
+  public GraphADT<String, Double> newEmptyGraph() {
+    return new GraphPlaceholder();
+  }
 }
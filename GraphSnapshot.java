@@ -0,0 +1,155 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class writes a frozen graph of location names to a compact binary
+ * snapshot file, and maps such a file back into a CSRGraph. Loading a
+ * snapshot copies its arrays in bulk instead of parsing text, so it is much
+ * faster than reading the dot file it was made from. The file holds, in order
+ * and in big-endian byte order:
+ *     header:       magic, version, the size and modification time of the
+ *                   source dot file, node count, edge count
+ *     string table: each node's name as a length followed by UTF-8 bytes
+ *     adjacency:    the CSR offsets and targets arrays
+ *     weights:      each edge's weight as a double
+ *     checksum:     the CRC32 of every byte before it
+ * A snapshot is stale when its source dot file's size or modification time
+ * no longer match the header, and is then rejected so callers can fall back
+ * to the dot file.
+ */
+public class GraphSnapshot {
+
+    protected static final int MAGIC = 0x55574753; // "UWGS"
+    protected static final int VERSION = 1;
+    protected static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4;
+
+    /**
+     * Writes a snapshot of a frozen graph. The file is written under a
+     * temporary name and then moved into place, so readers never see a
+     * partly written snapshot.
+     *
+     * @param graph    the graph to save
+     * @param source   the dot file the graph was loaded from
+     * @param snapshot the snapshot file to write
+     * @throws IOException if the source cannot be read or the snapshot
+     *                     cannot be written
+     */
+    public static void write(CSRGraph<String> graph, Path source, Path snapshot) throws IOException {
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        // buffering before the checksum lets the CRC be updated a block at a time
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temporary), crc), 1 << 16))) {
+            int nodeCount = graph.getNodeCount();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(source));
+            out.writeLong(Files.getLastModifiedTime(source).toMillis());
+            out.writeInt(nodeCount);
+            out.writeInt(graph.getEdgeCount());
+            for (int node = 0; node < nodeCount; node++) {
+                byte[] name = graph.getNodeData(node).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+            for (int offset : graph.offsets)
+                out.writeInt(offset);
+            for (int target : graph.targets)
+                out.writeInt(target);
+            for (double weight : graph.weights)
+                out.writeDouble(weight);
+            // flushing first makes the checksum cover everything written before it
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Checks whether a snapshot was written from the current version of its
+     * source dot file. A snapshot whose source no longer exists is still
+     * current, since there is nothing newer to load instead.
+     *
+     * @param snapshot the snapshot file to check
+     * @param source   the dot file the snapshot was made from
+     * @return true if the snapshot exists and matches its source
+     * @throws IOException if either file cannot be read
+     */
+    public static boolean isCurrent(Path snapshot, Path source) throws IOException {
+        if (!Files.isRegularFile(snapshot) || Files.size(snapshot) < HEADER_BYTES)
+            return false;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                return false;
+            if (!Files.exists(source))
+                return true;
+            return header.getLong() == Files.size(source)
+                    && header.getLong() == Files.getLastModifiedTime(source).toMillis();
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot file, verifies its checksum, and copies its
+     * arrays into a new CSRGraph.
+     *
+     * @param snapshot the snapshot file to read
+     * @return the graph saved in the snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot, or
+     *                     its checksum does not match its contents
+     */
+    public static CSRGraph<String> read(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE)
+                throw new IOException("Not a graph snapshot: " + snapshot);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // check the stored checksum before trusting any of the contents
+            CRC32 crc = new CRC32();
+            buffer.limit((int) size - 8);
+            crc.update(buffer);
+            buffer.limit((int) size);
+            if (buffer.getLong((int) size - 8) != crc.getValue())
+                throw new IOException("Graph snapshot checksum does not match: " + snapshot);
+
+            buffer.position(0);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("Not a graph snapshot: " + snapshot);
+            buffer.getLong(); // the source's size and modification time
+            buffer.getLong();
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+
+            String[] names = new String[nodeCount];
+            byte[] bytes = new byte[64];
+            for (int node = 0; node < nodeCount; node++) {
+                int length = buffer.getInt();
+                if (length > bytes.length)
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                buffer.get(bytes, 0, length);
+                names[node] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            int[] offsets = new int[nodeCount + 1];
+            int[] targets = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            buffer.asIntBuffer().get(offsets);
+            buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+            buffer.asIntBuffer().get(targets);
+            buffer.position(buffer.position() + targets.length * Integer.BYTES);
+            buffer.asDoubleBuffer().get(weights);
+            return new CSRGraph<>(names, offsets, targets, weights);
+        }
+    }
+
+}
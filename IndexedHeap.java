@@ -0,0 +1,146 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Implements NodeQueue as an indexed d-ary min heap. The heap is stored in an
+ * int array of node ids, and a second array records where each node id sits
+ * within the heap, so that a node's priority can be lowered in place instead
+ * of adding another entry. No objects are allocated by push or poll.
+ */
+public class IndexedHeap implements NodeQueue {
+
+    protected int arity; // number of children of each heap entry
+    protected int size = 0;
+    protected int[] heap; // node ids in heap order
+    protected int[] position; // heap index of each node id, or -1 when absent
+    protected double[] priority; // priority of each node id
+
+    /**
+     * Constructor for an empty heap.
+     * @param arity the number of children of each entry, at least 2
+     * @param capacity one more than the largest node id that will be pushed
+     */
+    public IndexedHeap(int arity, int capacity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("heap arity must be at least 2");
+        this.arity = arity;
+        this.heap = new int[Math.max(capacity, 1)];
+        this.position = new int[Math.max(capacity, 1)];
+        this.priority = new double[Math.max(capacity, 1)];
+        Arrays.fill(position, -1);
+    }
+
+    @Override
+    public void push(int node, double newPriority) {
+        if (node >= position.length)
+            grow(node + 1);
+        int index = position[node];
+        if (index < 0) {
+            // add a new entry at the end of the heap
+            index = size++;
+            heap[index] = node;
+            position[node] = index;
+        } else if (newPriority >= priority[node]) {
+            return; // the queued priority is already at least as low
+        }
+        priority[node] = newPriority;
+        siftUp(index);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException("queue is empty");
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            // move the last entry to the root and restore the heap order
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    @Override
+    public double peekPriority() {
+        return size == 0 ? Double.POSITIVE_INFINITY : priority[heap[0]];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Checks whether a node is currently in this heap.
+     * @param node the id of the node to check
+     * @return true if node is in this heap, and false otherwise
+     */
+    public boolean contains(int node) {
+        return node < position.length && position[node] >= 0;
+    }
+
+    // moves the entry at index toward the root until its parent is not larger
+    private void siftUp(int index) {
+        int node = heap[index];
+        double key = priority[node];
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            if (priority[heap[parent]] <= key)
+                break;
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    // moves the entry at index toward the leaves until no child is smaller
+    private void siftDown(int index) {
+        int node = heap[index];
+        double key = priority[node];
+        while (true) {
+            int firstChild = index * arity + 1;
+            if (firstChild >= size)
+                break;
+            int lastChild = Math.min(firstChild + arity, size);
+            int smallest = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++)
+                if (priority[heap[child]] < priority[heap[smallest]])
+                    smallest = child;
+            if (priority[heap[smallest]] >= key)
+                break;
+            heap[index] = heap[smallest];
+            position[heap[index]] = index;
+            index = smallest;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    // enlarges the arrays so that node ids below capacity can be pushed
+    private void grow(int capacity) {
+        int newCapacity = Math.max(capacity, position.length * 2);
+        int oldCapacity = position.length;
+        heap = Arrays.copyOf(heap, newCapacity);
+        priority = Arrays.copyOf(priority, newCapacity);
+        position = Arrays.copyOf(position, newCapacity);
+        Arrays.fill(position, oldCapacity, newCapacity, -1);
+    }
+
+}
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class stores precomputed shortest path costs between a few landmark
+ * nodes and every node of a DijkstraGraph. By the triangle inequality, for
+ * any landmark L and nodes v and t:
+ *     cost(v, t) >= cost(L, t) - cost(L, v)
+ *     cost(v, t) >= cost(v, L) - cost(t, L)
+ * so the largest of these differences over all landmarks is a lower bound on
+ * the cost of reaching t from v. These bounds let an A* search head toward
+ * its destination even though the graph stores no coordinates.
+ */
+public class LandmarkTable {
+
+    /**
+     * The ways landmarks can be chosen.
+     */
+    public enum Selection {
+        // each new landmark is the node farthest from those already chosen
+        FARTHEST,
+        // each new landmark is a leaf of a shortest path tree, reached by
+        // following the subtree whose nodes have the worst current bounds
+        AVOID
+    }
+
+    // the node index of each landmark
+    protected int[] landmarks;
+    // fromLandmark[k][v] is the cost from landmark k to the node at index v
+    protected double[][] fromLandmark;
+    // toLandmark[k][v] is the cost from the node at index v to landmark k
+    protected double[][] toLandmark;
+    // the modification count of the graph when this table was computed
+    protected long modificationCount;
+
+    /**
+     * Constructor that chooses landmarks within a graph, and computes the
+     * costs between those landmarks and every node of the graph.
+     *
+     * @param graph     the graph to choose landmarks within
+     * @param count     the number of landmarks to choose
+     * @param selection how to choose the landmarks
+     * @param seed      seed for the random choices made while selecting
+     */
+    public LandmarkTable(DijkstraGraph<?, ?> graph, int count, Selection selection, long seed) {
+        int nodeCount = graph.getNodeCount();
+        count = Math.min(count, nodeCount);
+        this.landmarks = new int[count];
+        this.fromLandmark = new double[count][];
+        this.toLandmark = new double[count][];
+        this.modificationCount = graph.getModificationCount();
+
+        Random random = new Random(seed);
+        for (int k = 0; k < count; k++) {
+            if (selection == Selection.AVOID)
+                landmarks[k] = avoidLandmark(graph, k, random.nextInt(nodeCount));
+            else
+                landmarks[k] = farthestLandmark(graph, k, random.nextInt(nodeCount));
+            fromLandmark[k] = new double[nodeCount];
+            toLandmark[k] = new double[nodeCount];
+            graph.search(landmarks[k], -1, false, fromLandmark[k], new int[nodeCount], null);
+            graph.search(landmarks[k], -1, true, toLandmark[k], new int[nodeCount], null);
+        }
+    }
+
+    /**
+     * Returns the number of landmarks in this table.
+     *
+     * @return the number of landmarks
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Checks whether this table was computed from the current version of a
+     * graph. Any change to the graph's nodes, edges or weights since then may
+     * have made its bounds wrong.
+     *
+     * @param graph the graph this table was computed from
+     * @return true if the graph has not changed since, and false otherwise
+     */
+    public boolean isCurrent(BaseGraph<?, ?> graph) {
+        return graph.getModificationCount() == modificationCount;
+    }
+
+    /**
+     * Returns a lower bound on the cost of the shortest path between two nodes.
+     *
+     * @param from the index of the path's first node
+     * @param to   the index of the path's last node
+     * @return a lower bound on that path's cost, which is infinite when the
+     *         landmarks show there is no such path
+     */
+    public double lowerBound(int from, int to) {
+        return lowerBound(landmarks.length, from, to);
+    }
+
+    /**
+     * Chooses the node whose cost from the landmarks chosen so far is largest.
+     * The first landmark is the node farthest from a random start node.
+     * Nodes that cannot be reached are skipped, so that each landmark is
+     * chosen from the part of the graph its predecessors reach.
+     */
+    private int farthestLandmark(DijkstraGraph<?, ?> graph, int chosen, int randomNode) {
+        int nodeCount = graph.getNodeCount();
+        double[] nearest = new double[nodeCount];
+        if (chosen == 0) {
+            graph.search(randomNode, -1, false, nearest, new int[nodeCount], null);
+        } else {
+            Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+            for (int k = 0; k < chosen; k++)
+                for (int v = 0; v < nodeCount; v++)
+                    nearest[v] = Math.min(nearest[v], fromLandmark[k][v]);
+        }
+        int farthest = randomNode;
+        for (int v = 0; v < nodeCount; v++)
+            if (nearest[v] != Double.POSITIVE_INFINITY && nearest[v] > nearest[farthest])
+                farthest = v;
+        return farthest;
+    }
+
+    /**
+     * Chooses a landmark by growing a shortest path tree from a random root.
+     * Each node is weighted by how much its cost from the root exceeds the
+     * lower bound the current landmarks give for it, and subtrees holding a
+     * landmark are given no weight. The new landmark is the leaf reached by
+     * repeatedly stepping into the child with the heaviest subtree.
+     */
+    private int avoidLandmark(DijkstraGraph<?, ?> graph, int chosen, int root) {
+        int nodeCount = graph.getNodeCount();
+        double[] cost = new double[nodeCount];
+        int[] pred = new int[nodeCount];
+        int[] settledOrder = new int[nodeCount];
+        int settledCount = graph.search(root, -1, false, cost, pred, settledOrder);
+        if (chosen == 0)
+            return settledOrder[settledCount - 1];
+
+        boolean[] isLandmark = new boolean[nodeCount];
+        for (int k = 0; k < chosen; k++)
+            isLandmark[landmarks[k]] = true;
+
+        // sum weights from the leaves up, emptying subtrees that hold a landmark
+        double[] size = new double[nodeCount];
+        boolean[] holdsLandmark = new boolean[nodeCount];
+        for (int i = settledCount - 1; i >= 0; i--) {
+            int v = settledOrder[i];
+            holdsLandmark[v] |= isLandmark[v];
+            size[v] = holdsLandmark[v] ? 0 : size[v] + cost[v] - lowerBound(chosen, root, v);
+            if (pred[v] != -1) {
+                size[pred[v]] += size[v];
+                holdsLandmark[pred[v]] |= holdsLandmark[v];
+            }
+        }
+
+        // step down from the root into the heaviest child until reaching a leaf
+        double[] heaviestChildSize = new double[nodeCount];
+        int[] heaviestChild = new int[nodeCount];
+        Arrays.fill(heaviestChild, -1);
+        for (int i = 1; i < settledCount; i++) {
+            int v = settledOrder[i];
+            if (size[v] > heaviestChildSize[pred[v]]) {
+                heaviestChildSize[pred[v]] = size[v];
+                heaviestChild[pred[v]] = v;
+            }
+        }
+        int node = root;
+        while (heaviestChild[node] != -1)
+            node = heaviestChild[node];
+        return node;
+    }
+
+    // the lower bound given by the first chosen landmarks only
+    private double lowerBound(int chosen, int from, int to) {
+        double bound = 0;
+        for (int k = 0; k < chosen; k++) {
+            double forward = fromLandmark[k][to] - fromLandmark[k][from];
+            double backward = toLandmark[k][from] - toLandmark[k][to];
+            // differences between two unreachable costs are NaN and are skipped
+            if (forward > bound)
+                bound = forward;
+            if (backward > bound)
+                bound = backward;
+        }
+        return bound;
+    }
+
+}
@@ -0,0 +1,162 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts latencies in buckets laid out like an HDR histogram:
+ * each power of two range of nanoseconds is split into 32 equal buckets, so
+ * any recorded latency from 1 ns to hundreds of years is counted in a bucket
+ * within about 3% of its value, using a fixed 15 KB of counts. Recording is
+ * a few arithmetic operations and one atomic increment, so it can be called
+ * from many threads on every query. Percentiles are read from the counts at
+ * any time without stopping the threads that record.
+ */
+public class LatencyHistogram {
+
+    // each power of two range is split into 2^SUB_BUCKET_BITS buckets
+    protected static final int SUB_BUCKET_BITS = 5;
+    protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    protected final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT);
+    protected final AtomicLong totalCount = new AtomicLong();
+    protected final AtomicLong totalNanos = new AtomicLong();
+    protected final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(nanos));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos))
+            max = maxNanos.get();
+    }
+
+    // values below SUB_BUCKET_COUNT each have their own bucket; above that,
+    // the highest set bit picks the range and the next bits the bucket in it
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT)
+            return (int) nanos;
+        int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((nanos >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    // the largest value counted in a bucket
+    private static long bucketMax(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT)
+            return bucket;
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the latency that a percentage of the recorded latencies are at
+     * or below, rounded up to the top of its bucket but never above the
+     * largest latency recorded.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return that latency in nanoseconds, or 0 when nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank)
+                return Math.min(bucketMax(bucket), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the mean of the recorded latencies.
+     *
+     * @return the mean in nanoseconds, or 0 when nothing was recorded
+     */
+    public double getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalNanos.get() / count;
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     *
+     * @return the maximum in nanoseconds, or 0 when nothing was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the median recorded latency.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    public long getP50Nanos() {
+        return getValueAtPercentile(50);
+    }
+
+    /**
+     * Returns the 90th percentile of the recorded latencies.
+     *
+     * @return the 90th percentile in nanoseconds
+     */
+    public long getP90Nanos() {
+        return getValueAtPercentile(90);
+    }
+
+    /**
+     * Returns the 99th percentile of the recorded latencies.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return getValueAtPercentile(99);
+    }
+
+    /**
+     * Returns the 99.9th percentile of the recorded latencies.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    public long getP999Nanos() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Clears every recorded latency. Latencies recorded while this runs may
+     * be partly cleared.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < counts.length(); bucket++)
+            counts.set(bucket, 0);
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries, mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us", getCount(),
+                getMeanNanos() / 1e3, getP50Nanos() / 1e3, getP99Nanos() / 1e3, getMaxNanos() / 1e3);
+    }
+
+}
@@ -0,0 +1,105 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class runs the requests made from one control in the background, so
+ * a slow backend query does not block the thread the request was made on.
+ * Each request supersedes the one before it: a request that has not started
+ * yet is cancelled, one that is running is interrupted, and in either case
+ * its result is dropped rather than published. Results and errors are
+ * handed to a publisher, such as Platform::runLater, to be shown on the
+ * thread that owns the display.
+ *
+ * @param <T> the type of each request's result
+ */
+public class LatestRequest<T> {
+
+    protected final ExecutorService executor;
+    protected final Executor publisher;
+    // incremented by each request; a result is only published while its
+    // request's number is still the latest
+    private final AtomicLong latest = new AtomicLong();
+    private Future<?> running;
+
+    /**
+     * Constructor for the requests of one control.
+     *
+     * @param executor  runs each request, and may be shared between controls
+     * @param publisher runs the code that shows each result or error
+     */
+    public LatestRequest(ExecutorService executor, Executor publisher) {
+        this.executor = executor;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Creates an executor of daemon threads for background requests, so
+     * requests still running do not keep the application from exiting.
+     *
+     * @param name the name of the executor's threads
+     * @return a single-threaded executor for background requests
+     */
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a request in the background, superseding any earlier request
+     * that has not published its result yet. Exactly one of onResult and
+     * onError is run by the publisher when the request finishes, unless it
+     * has been superseded by then.
+     *
+     * @param request  computes the result, off the calling thread
+     * @param onResult shows the result
+     * @param onError  shows the exception the request threw
+     */
+    public synchronized void submit(Callable<T> request, Consumer<T> onResult, Consumer<Exception> onError) {
+        long number = latest.incrementAndGet();
+        if (running != null)
+            running.cancel(true);
+        running = executor.submit(() -> {
+            if (number != latest.get())
+                return;
+            T result;
+            try {
+                result = request.call();
+            } catch (Exception e) {
+                publish(number, () -> onError.accept(e));
+                return;
+            }
+            publish(number, () -> onResult.accept(result));
+        });
+    }
+
+    /**
+     * Supersedes any request that has not published its result yet, without
+     * starting a new one.
+     */
+    public synchronized void cancel() {
+        latest.incrementAndGet();
+        if (running != null)
+            running.cancel(true);
+        running = null;
+    }
+
+    // shows a result on the publisher if its request is still the latest,
+    // checking again there in case a newer request came in meanwhile
+    private void publish(long number, Runnable show) {
+        if (number != latest.get())
+            return;
+        publisher.execute(() -> {
+            if (number == latest.get())
+                show.run();
+        });
+    }
+
+}
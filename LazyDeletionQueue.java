@@ -0,0 +1,61 @@
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Implements NodeQueue using an instance of java.util.PriorityQueue. Every
+ * push adds a new entry, even for a node that is already queued, so the queue
+ * can hold out of date entries that searches skip when they are polled.
+ */
+public class LazyDeletionQueue implements NodeQueue {
+
+    // one entry for each push, ordered by priority
+    protected static class Entry implements Comparable<Entry> {
+        public int node;
+        public double priority;
+
+        public Entry(int node, double priority) {
+            this.node = node;
+            this.priority = priority;
+        }
+
+        public int compareTo(Entry other) {
+            return Double.compare(priority, other.priority);
+        }
+    }
+
+    // use an instance of java.util.PriorityQueue for the functionality of this queue
+    protected PriorityQueue<Entry> baseQueue = new PriorityQueue<>();
+
+    @Override
+    public void push(int node, double priority) {
+        baseQueue.add(new Entry(node, priority));
+    }
+
+    @Override
+    public int poll() {
+        if (baseQueue.isEmpty())
+            throw new NoSuchElementException("queue is empty");
+        return baseQueue.poll().node;
+    }
+
+    @Override
+    public double peekPriority() {
+        return baseQueue.isEmpty() ? Double.POSITIVE_INFINITY : baseQueue.peek().priority;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return baseQueue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return baseQueue.size();
+    }
+
+    @Override
+    public void clear() {
+        baseQueue.clear();
+    }
+
+}
@@ -0,0 +1,191 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class finds location names that start with what has been typed so
+ * far, for type-ahead. Names are compared by their search keys, in which
+ * letters and digits are lower-cased and each run of other characters
+ * becomes a single space, so "atmospheric oce" matches "Atmospheric,
+ * Oceanic and Space Sciences". A name also matches when one of its later
+ * words starts with the query, so "oceanic" matches it as well.
+ *
+ * The index is two sorted arrays of entries, each entry packing a name's
+ * position in the list with the offset of a word in its key: one array
+ * for the start of every name and one for every later word. All entries
+ * matching a query are a contiguous range of each array, found by binary
+ * search without copying any keys, so a lookup takes O(log n + limit)
+ * comparisons however many names share the prefix.
+ */
+public class LocationIndex {
+
+    protected final List<String> names;
+    protected final String[] keys; // the search key of each name
+    // entries sorted by the key text from their offset on, each holding the
+    // name's position in its high 32 bits and the offset in its low 32 bits
+    protected final long[] nameStarts;
+    protected final long[] wordStarts;
+
+    /**
+     * Constructor that indexes a list of location names. The list is read
+     * once here, so later changes to it are not seen by this index.
+     *
+     * @param names the names to index, without duplicates
+     */
+    public LocationIndex(List<String> names) {
+        this.names = new ArrayList<>(names);
+        this.keys = new String[names.size()];
+        int wordCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = normalize(this.names.get(i));
+            for (int j = 1; j < keys[i].length(); j++)
+                if (keys[i].charAt(j - 1) == ' ')
+                    wordCount++;
+        }
+
+        nameStarts = new long[keys.length];
+        wordStarts = new long[wordCount];
+        int word = 0;
+        for (int i = 0; i < keys.length; i++) {
+            nameStarts[i] = (long) i << 32;
+            for (int j = 1; j < keys[i].length(); j++)
+                if (keys[i].charAt(j - 1) == ' ')
+                    wordStarts[word++] = (long) i << 32 | j;
+        }
+        sort(nameStarts);
+        sort(wordStarts);
+    }
+
+    /**
+     * Returns the search key of a name or query: its letters and digits in
+     * lower case, with each run of other characters replaced by one space
+     * and none at either end.
+     *
+     * @param text the name or query
+     * @return the search key of text
+     */
+    public static String normalize(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean gap = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && key.length() > 0)
+                    key.append(' ');
+                key.append(Character.toLowerCase(c));
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns up to limit names that match a query. Names that start with
+     * the query come first, in order of their keys, followed by names where
+     * a later word starts with it.
+     *
+     * @param query the text typed so far
+     * @param limit the most names to return
+     * @return the matching names, or an empty list when the query has no
+     *         letters or digits
+     */
+    public List<String> search(String query, int limit) {
+        String prefix = normalize(query);
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        if (prefix.isEmpty())
+            return matches;
+        addMatches(nameStarts, prefix, limit, matches, false);
+        if (matches.size() < limit)
+            addMatches(wordStarts, prefix, limit, matches, true);
+        return matches;
+    }
+
+    /**
+     * Returns the number of names in this index.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    // adds the names of the entries matching prefix, in order, until there
+    // are limit matches; for later words, names already added are skipped
+    private void addMatches(long[] entries, String prefix, int limit, List<String> matches, boolean laterWords) {
+        for (int i = lowerBound(entries, prefix); i < entries.length && matches.size() < limit; i++) {
+            int name = (int) (entries[i] >>> 32);
+            if (!keys[name].startsWith(prefix, (int) entries[i]))
+                break;
+            // a name whose start matches was added from the name starts, and
+            // two later words of one name can both match, as in "a hall b hall"
+            if (laterWords && (keys[name].startsWith(prefix) || matches.contains(names.get(name))))
+                continue;
+            matches.add(names.get(name));
+        }
+    }
+
+    // returns the first entry whose text is not less than prefix
+    private int lowerBound(long[] entries, String prefix) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(entries[middle], prefix) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    // compares the text of an entry with a prefix, up to the prefix's length
+    private int compare(long entry, String prefix) {
+        String key = keys[(int) (entry >>> 32)];
+        int offset = (int) entry;
+        int length = Math.min(key.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = key.charAt(offset + i) - prefix.charAt(i);
+            if (difference != 0)
+                return difference;
+        }
+        return key.length() - offset < prefix.length() ? -1 : 0;
+    }
+
+    // compares the text of two entries, breaking ties by name position
+    private int compare(long a, long b) {
+        String keyA = keys[(int) (a >>> 32)];
+        String keyB = keys[(int) (b >>> 32)];
+        int offsetA = (int) a;
+        int offsetB = (int) b;
+        int length = Math.min(keyA.length() - offsetA, keyB.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            int difference = keyA.charAt(offsetA + i) - keyB.charAt(offsetB + i);
+            if (difference != 0)
+                return difference;
+        }
+        int difference = (keyA.length() - offsetA) - (keyB.length() - offsetB);
+        return difference != 0 ? difference : Long.compare(a, b);
+    }
+
+    // sorts entries by their text with a merge sort, since the primitive
+    // sorts of java.util.Arrays take no comparator
+    private void sort(long[] entries) {
+        long[] buffer = new long[entries.length];
+        for (int width = 1; width < entries.length; width *= 2) {
+            for (int low = 0; low < entries.length - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, entries.length);
+                if (compare(entries[middle - 1], entries[middle]) <= 0)
+                    continue; // already in order
+                int i = low;
+                int j = middle;
+                for (int k = low; k < high; k++)
+                    buffer[k] = j >= high || i < middle && compare(entries[i], entries[j]) <= 0 ? entries[i++]
+                            : entries[j++];
+                System.arraycopy(buffer, low, entries, low, high - low);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of LocationIndex's search keys and type-ahead queries.
+ */
+public class LocationIndexTests {
+
+    // an index of names with punctuation, mixed case, and words that start
+    // later in a name
+    private final LocationIndex index = new LocationIndex(List.of("Union South",
+            "Atmospheric, Oceanic and Space Sciences", "Computer Sciences and Statistics", "Union-South Garage",
+            "Science Hall", "south hall south"));
+
+    @Test
+    public void testNormalize() {
+        // Tests that keys are lower-cased, with each run of other characters
+        // as one space and none at either end
+        assertEquals("atmospheric oceanic and space sciences",
+                LocationIndex.normalize("  Atmospheric, Oceanic and Space Sciences!"));
+    }
+
+    @Test
+    public void testPrefixMatches() {
+        // Tests that names starting with the query come first, in key order,
+        // ignoring case and punctuation
+        assertEquals(List.of("Union South", "Union-South Garage"), index.search("union s", 10));
+        assertEquals(List.of("Union South", "Union-South Garage"), index.search("UNION   south", 10));
+        assertEquals(List.of("Atmospheric, Oceanic and Space Sciences"), index.search("atmospheric oce", 10));
+
+        // Tests that names with a later word matching follow, once each
+        assertEquals(List.of("Science Hall", "Atmospheric, Oceanic and Space Sciences",
+                "Computer Sciences and Statistics"), index.search("scien", 10));
+        assertEquals(List.of("south hall south", "Union South", "Union-South Garage"), index.search("south", 10));
+        assertEquals(List.of("south hall south"), index.search("south", 1));
+    }
+
+    @Test
+    public void testNoMatches() {
+        // Tests queries that match nothing
+        assertEquals(List.of(), index.search("library", 10));
+        assertEquals(List.of(), index.search(" , ", 10));
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * This interface represents the priority queue used by shortest path searches.
+ * It holds int node ids, each with a double priority, and always removes the
+ * id with the lowest priority first. Node ids must be between 0 and the
+ * capacity the queue was created with.
+ */
+public interface NodeQueue {
+
+    /**
+     * The available queue implementations. A graph is given one of these when
+     * it is constructed, and creates a new queue from it for each search.
+     */
+    public enum Strategy {
+        // a java.util.PriorityQueue that adds a new entry for every push
+        LAZY_DELETION,
+        // an indexed binary heap with decrease-key
+        BINARY_HEAP,
+        // an indexed 4-ary heap with decrease-key
+        QUATERNARY_HEAP;
+
+        /**
+         * Creates an empty queue that uses this strategy.
+         * @param capacity one more than the largest node id that will be pushed
+         * @return the new queue
+         */
+        public NodeQueue create(int capacity) {
+            switch (this) {
+                case LAZY_DELETION:
+                    return new LazyDeletionQueue();
+                case QUATERNARY_HEAP:
+                    return new IndexedHeap(4, capacity);
+                default:
+                    return new IndexedHeap(2, capacity);
+            }
+        }
+    }
+
+    /**
+     * Adds a node with the provided priority. When the node is already in the
+     * queue with a higher priority, its priority is lowered instead. Queues
+     * that do not support decrease-key may hold several entries for the same
+     * node, so searches must skip nodes that they have already settled.
+     * @param node the id of the node to add
+     * @param priority the priority of that node, lower values are removed first
+     */
+    public void push(int node, double priority);
+
+    /**
+     * Removes the node with the lowest priority from this queue.
+     * @return the id of the removed node
+     * @throws java.util.NoSuchElementException when this queue is empty
+     */
+    public int poll();
+
+    /**
+     * Retrieves the lowest priority in this queue without removing its node.
+     * @return the lowest priority, or Double.POSITIVE_INFINITY when empty
+     */
+    public double peekPriority();
+
+    /**
+     * Checks whether this queue has no entries left.
+     * @return true if this queue is empty, and false otherwise
+     */
+    public boolean isEmpty();
+
+    /**
+     * Retrieves the number of entries in this queue.
+     * @return the number of entries in this queue
+     */
+    public int size();
+
+    /**
+     * Removes all entries from this queue.
+     */
+    public void clear();
+
+}
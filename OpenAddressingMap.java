@@ -0,0 +1,335 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Implements MapADT with an open addressing hash table. Keys, values and key
+ * hash codes are stored in parallel arrays whose length (the capacity) is
+ * always a power of two, so a key's home slot is taken from the top bits of
+ * its spread hash code instead of by division. Collisions are resolved by
+ * linear probing, comparing stored hash codes before calling equals, and
+ * removals shift later entries of the same probe run back into the hole, so
+ * the table never needs tombstones. Each operation hashes its key once.
+ */
+public class OpenAddressingMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.5;
+    // the largest power of two an array length can be
+    public static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    protected Object[] keys;
+    protected Object[] values;
+    protected int[] hashes; // the spread hash code of each key
+    protected int shift; // 32 minus log2 of the capacity
+    protected int size = 0;
+    protected double loadFactor;
+    protected int resizeThreshold; // the size at which the arrays are doubled
+
+    /**
+     * Constructor for an empty map with the default capacity and load factor.
+     */
+    public OpenAddressingMap() {
+        this(0, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor for an empty map that can hold expectedSize keys at the
+     * default load factor without growing.
+     *
+     * @param expectedSize the number of keys this map is expected to hold
+     */
+    public OpenAddressingMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor for an empty map that can hold expectedSize keys without
+     * growing, and grows whenever its size would exceed loadFactor times its
+     * capacity.
+     *
+     * @param expectedSize the number of keys this map is expected to hold,
+     *                     at least 0
+     * @param loadFactor   the largest fraction of slots that may be filled,
+     *                     greater than 0 and less than 1
+     * @throws IllegalArgumentException if expectedSize or loadFactor is out
+     *                                  of range
+     */
+    public OpenAddressingMap(int expectedSize, double loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("expected size must not be negative: " + expectedSize);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("load factor must be between 0 and 1");
+        this.loadFactor = loadFactor;
+        allocate(capacityFor(expectedSize, loadFactor));
+    }
+
+    /**
+     * Returns the smallest power of two capacity, from DEFAULT_CAPACITY up to
+     * MAXIMUM_CAPACITY, that holds expectedSize keys at loadFactor. Sizes too
+     * large for any array get MAXIMUM_CAPACITY.
+     *
+     * @param expectedSize the number of keys to hold, at least 0
+     * @param loadFactor   the largest fraction of slots that may be filled
+     * @return the capacity for a map of that size
+     */
+    static int capacityFor(int expectedSize, double loadFactor) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity * loadFactor < expectedSize)
+            capacity *= 2;
+        return capacity;
+    }
+
+    @Override
+    public void put(KeyType key, ValueType value) throws IllegalArgumentException {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        int hash = spread(key);
+        int slot = find(key, hash);
+        if (keys[slot] != null)
+            throw new IllegalArgumentException("key " + key.toString() + " already present in map");
+        if (size + 1 > resizeThreshold) {
+            resize(keys.length * 2);
+            slot = find(key, hash);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+    }
+
+    /**
+     * Adds a key and value unless the key is already in this map, hashing
+     * the key only once either way.
+     *
+     * @param key   the key to add
+     * @param value the value to store with the key when it is new
+     * @return the value already stored with key, or null if it was added
+     * @throws NullPointerException if key is null
+     */
+    @SuppressWarnings("unchecked")
+    public ValueType putIfAbsent(KeyType key, ValueType value) {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        int hash = spread(key);
+        int slot = find(key, hash);
+        if (keys[slot] != null)
+            return (ValueType) values[slot];
+        if (size + 1 > resizeThreshold) {
+            resize(keys.length * 2);
+            slot = find(key, hash);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(KeyType key) {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        return keys[find(key, spread(key))] != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType get(KeyType key) throws NoSuchElementException {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        int slot = find(key, spread(key));
+        if (keys[slot] == null)
+            throw new NoSuchElementException("key " + key.toString() + " not in map");
+        return (ValueType) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType remove(KeyType key) throws NoSuchElementException {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        int slot = find(key, spread(key));
+        if (keys[slot] == null)
+            throw new NoSuchElementException("key " + key.toString() + " not in map");
+        ValueType value = (ValueType) values[slot];
+
+        // move later entries of this probe run back into the hole, unless
+        // that would place them before their home slot
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = hashes[next] >>> shift;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        allocate(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the fraction of slots that may be filled before this map grows.
+     *
+     * @return this map's load factor
+     */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    // multiplies the key's hash code by a constant derived from the golden
+    // ratio, which mixes every bit of the hash code into the top bits that
+    // choose a key's home slot
+    private static int spread(Object key) {
+        return key.hashCode() * 0x9E3779B9;
+    }
+
+    // returns the slot holding key, or the empty slot that ends its probe run
+    private int find(Object key, int hash) {
+        int mask = keys.length - 1;
+        int slot = hash >>> shift;
+        while (keys[slot] != null && (hashes[slot] != hash || !keys[slot].equals(key)))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    // replaces the arrays with empty arrays of the given capacity
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        resizeThreshold = (int) (capacity * loadFactor);
+    }
+
+    // moves every entry into new arrays of the given capacity
+    private void resize(int capacity) {
+        // doubling MAXIMUM_CAPACITY overflows to a negative capacity
+        if (capacity <= 0)
+            throw new IllegalStateException("map cannot grow past " + MAXIMUM_CAPACITY + " slots");
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = find(oldKeys[i], oldHashes[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        // Creating a map and filling it past several resizes
+        OpenAddressingMap<String, Integer> map = new OpenAddressingMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, i);
+        }
+        // Tests that every key is found, and the capacity keeps the load factor
+        assertEquals(1000, map.getSize());
+        assertEquals(2048, map.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) map.get("key" + i));
+        }
+        assertEquals(false, map.containsKey("key1000"));
+        assertThrows(NoSuchElementException.class, () -> map.get("key1000"));
+        assertThrows(IllegalArgumentException.class, () -> map.put("key5", 5));
+        assertThrows(NullPointerException.class, () -> map.put(null, 5));
+        assertEquals(5, (int) map.putIfAbsent("key5", 6));
+        assertEquals(null, map.putIfAbsent("key1000", 1000));
+        assertEquals(1000, (int) map.remove("key1000"));
+
+        // Tests that removing every other key leaves the rest reachable
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i, (int) map.remove("key" + i));
+        }
+        assertEquals(500, map.getSize());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, map.containsKey("key" + i), "key" + i);
+        }
+        assertThrows(NoSuchElementException.class, () -> map.remove("key0"));
+        map.clear();
+        assertEquals(0, map.getSize());
+        assertEquals(false, map.containsKey("key1"));
+    }
+
+    // keys that are equal when their ids are, but all have the same hash code
+    private static class SameHash {
+        final int id;
+
+        SameHash(int id) {
+            this.id = id;
+        }
+
+        public int hashCode() {
+            return 7;
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof SameHash && ((SameHash) other).id == id;
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // Creating keys that all share a home slot, by giving them the same hash
+        OpenAddressingMap<SameHash, Integer> map = new OpenAddressingMap<>(8, 0.75);
+        for (int i = 0; i < 8; i++) {
+            map.put(new SameHash(i), i);
+        }
+        // Tests that removing from the middle of one probe run keeps the rest
+        map.remove(new SameHash(3));
+        map.remove(new SameHash(0));
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i != 3 && i != 0, map.containsKey(new SameHash(i)), "id " + i);
+        }
+        assertEquals(7, (int) map.get(new SameHash(7)));
+        assertEquals(0.75, map.getLoadFactor());
+        assertThrows(IllegalArgumentException.class, () -> new OpenAddressingMap<String, String>(8, 1.0));
+    }
+
+    @Test
+    public void testCapacity() {
+        // Tests that capacities double from the default until they hold the
+        // expected size, and stop at the largest array length
+        assertEquals(DEFAULT_CAPACITY, capacityFor(0, 0.5));
+        assertEquals(DEFAULT_CAPACITY, capacityFor(8, 0.5));
+        assertEquals(32, capacityFor(9, 0.5));
+        assertEquals(2048, new OpenAddressingMap<String, String>(1000).getCapacity());
+        assertEquals(MAXIMUM_CAPACITY, capacityFor(Integer.MAX_VALUE, 0.5));
+        assertEquals(MAXIMUM_CAPACITY, capacityFor(Integer.MAX_VALUE, 0.999));
+
+        // Tests that sizes and load factors out of range are rejected
+        assertThrows(IllegalArgumentException.class, () -> new OpenAddressingMap<String, String>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OpenAddressingMap<String, String>(8, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new OpenAddressingMap<String, String>(8, 0.0));
+    }
+
+}
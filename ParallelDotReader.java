@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class loads a large dot file into a CSRGraph using several threads.
+ * The file is split into byte ranges that end at line breaks, and each range
+ * is parsed by its own DotReader on a ForkJoinPool into a buffer of edges
+ * that refer to nodes by chunk-local ids. The buffers are then merged in file
+ * order: each chunk's names are given global ids, and every edge is placed
+ * into the graph's arrays in a single counting sort by source node, without
+ * inserting edges one at a time. The result matches what Backend.loadGraphData
+ * builds from the same file: nodes are numbered in the order their names first
+ * appear, and when an edge appears more than once the first weight is kept.
+ */
+public class ParallelDotReader {
+
+    // ranges smaller than this are not worth a task of their own
+    protected static final long MIN_CHUNK_BYTES = DotReader.BUFFER_SIZE;
+    // chunks per thread, so that a slow chunk does not leave threads idle
+    protected static final int CHUNKS_PER_THREAD = 4;
+
+    protected final ForkJoinPool pool;
+
+    /**
+     * Constructor for a reader that parses on the common ForkJoinPool.
+     */
+    public ParallelDotReader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a reader that parses on the provided pool.
+     *
+     * @param pool the pool whose threads parse the file's chunks
+     */
+    public ParallelDotReader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reads every edge of a dot file into a new CSRGraph.
+     *
+     * @param path the dot file to read
+     * @return a graph of the file's location names and edges
+     * @throws IOException if the file cannot be read, or has too many edges
+     *                     to fit in a graph's arrays
+     */
+    public CSRGraph<String> read(Path path) throws IOException {
+        long[] bounds = chunkBounds(path, pool.getParallelism() * CHUNKS_PER_THREAD);
+        List<Callable<ChunkReader>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            tasks.add(() -> {
+                ChunkReader chunk = new ChunkReader();
+                chunk.read(path, start, end);
+                return chunk;
+            });
+        }
+        List<ChunkReader> chunks = new ArrayList<>();
+        try {
+            for (Future<ChunkReader> chunk : pool.invokeAll(tasks))
+                chunks.add(chunk.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + path, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Could not read " + path, e.getCause());
+        }
+        return build(chunks);
+    }
+
+    // splits a file into at most chunkCount ranges, each of which ends just
+    // after a newline or at the end of the file
+    private static long[] chunkBounds(Path path, int chunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            chunkCount = (int) Math.max(1, Math.min(chunkCount, size / MIN_CHUNK_BYTES));
+            long[] bounds = new long[chunkCount + 1];
+            ByteBuffer block = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunkCount; i++) {
+                // move each even split forward to just after the next newline
+                long position = Math.max(size * i / chunkCount, bounds[i - 1]);
+                bounds[i] = size;
+                while (position < size && bounds[i] == size) {
+                    block.clear();
+                    int read = channel.read(block, position);
+                    if (read < 0)
+                        break;
+                    for (int j = 0; j < read; j++) {
+                        if (block.get(j) == '\n') {
+                            bounds[i] = position + j + 1;
+                            break;
+                        }
+                    }
+                    position += read;
+                }
+            }
+            bounds[chunkCount] = size;
+            return bounds;
+        }
+    }
+
+    // merges the chunks' edges, in file order, into one CSRGraph
+    private CSRGraph<String> build(List<ChunkReader> chunks) throws IOException {
+        // give each name a global id in the order it first appears in the file
+        OpenAddressingMap<String, Integer> ids = new OpenAddressingMap<>();
+        List<String> names = new ArrayList<>();
+        long edgeTotal = 0;
+        for (ChunkReader chunk : chunks) {
+            chunk.globalIds = new int[chunk.nameCount];
+            for (int local = 0; local < chunk.nameCount; local++) {
+                Integer id = ids.putIfAbsent(chunk.names[local], names.size());
+                if (id == null) {
+                    id = names.size();
+                    names.add(chunk.names[local]);
+                }
+                chunk.globalIds[local] = id;
+            }
+            chunk.names = null; // no longer needed, so let it be collected
+            edgeTotal += chunk.edgeCount;
+        }
+        if (edgeTotal > Integer.MAX_VALUE - 8)
+            throw new IOException("Too many edges for one graph: " + edgeTotal);
+        int nodeCount = names.size();
+        int edgeCount = (int) edgeTotal;
+        // renumber every chunk's edges with global ids in parallel
+        pool.submit(() -> chunks.parallelStream().forEach(ChunkReader::useGlobalIds)).join();
+
+        // count each node's edges, then place the edges into their rows,
+        // which keeps each row's edges in file order
+        int[] offsets = new int[nodeCount + 1];
+        for (ChunkReader chunk : chunks)
+            for (int e = 0; e < chunk.edgeCount; e++)
+                offsets[chunk.preds[e] + 1]++;
+        for (int node = 0; node < nodeCount; node++)
+            offsets[node + 1] += offsets[node];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        for (ChunkReader chunk : chunks) {
+            for (int e = 0; e < chunk.edgeCount; e++) {
+                int position = next[chunk.preds[e]]++;
+                targets[position] = chunk.succs[e];
+                weights[position] = chunk.weights[e];
+            }
+        }
+
+        // drop repeated edges, keeping the first, by compacting each row
+        int[] seenInRow = new int[nodeCount];
+        Arrays.fill(seenInRow, -1);
+        int kept = 0;
+        int rowStart = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int rowEnd = offsets[node + 1];
+            for (int e = rowStart; e < rowEnd; e++) {
+                if (seenInRow[targets[e]] != node) {
+                    seenInRow[targets[e]] = node;
+                    targets[kept] = targets[e];
+                    weights[kept] = weights[e];
+                    kept++;
+                }
+            }
+            rowStart = rowEnd;
+            offsets[node + 1] = kept;
+        }
+        if (kept < edgeCount) {
+            targets = Arrays.copyOf(targets, kept);
+            weights = Arrays.copyOf(weights, kept);
+        }
+        return new CSRGraph<>(names.toArray(new String[0]), ids, offsets, targets, weights);
+    }
+
+    // parses one chunk, collecting its edges by chunk-local name number
+    private static class ChunkReader extends DotReader {
+        int[] preds = new int[1024];
+        int[] succs = new int[1024];
+        double[] weights = new double[1024];
+        int[] globalIds; // the global id of each local name number, set while merging
+
+        ChunkReader() {
+            super(null);
+        }
+
+        @Override
+        protected void edge(int pred, int succ, double seconds) {
+            int edge = (int) edgeCount;
+            if (edge == preds.length) {
+                preds = Arrays.copyOf(preds, edge * 2);
+                succs = Arrays.copyOf(succs, edge * 2);
+                weights = Arrays.copyOf(weights, edge * 2);
+            }
+            preds[edge] = pred;
+            succs[edge] = succ;
+            weights[edge] = seconds;
+        }
+
+        // replaces the local name numbers in preds and succs with global ids
+        void useGlobalIds() {
+            for (int e = 0; e < edgeCount; e++) {
+                preds[e] = globalIds[preds[e]];
+                succs[e] = globalIds[succs[e]];
+            }
+        }
+    }
+
+}
@@ -29,8 +29,11 @@ public class PlaceholderMap<KeyType, ValueType> implements MapADT<KeyType, Value
     public ValueType get(KeyType key) throws NoSuchElementException {
         if (key == null)
             throw new NullPointerException("null keys not allowed");
-        if (baseMap.containsKey(key)) {
-            return baseMap.get(key);
+        // a null result means the key is missing or maps to null, and only
+        // then is the key hashed a second time to tell which
+        ValueType value = baseMap.get(key);
+        if (value != null || baseMap.containsKey(key)) {
+            return value;
         }
         throw new NoSuchElementException("key " + key.toString() + " not in map");
     }
@@ -39,8 +42,11 @@ public class PlaceholderMap<KeyType, ValueType> implements MapADT<KeyType, Value
     public ValueType remove(KeyType key) throws NoSuchElementException {
         if (key == null)
             throw new NullPointerException("null keys not allowed");
-        if (baseMap.containsKey(key)) {
-            return baseMap.remove(key);
+        // the size only drops when the key was present, even if it mapped to null
+        int oldSize = baseMap.size();
+        ValueType value = baseMap.remove(key);
+        if (baseMap.size() < oldSize) {
+            return value;
         }
         throw new NoSuchElementException("key " + key.toString() + " not in map");
     }
@@ -0,0 +1,96 @@
+/**
+ * This class is a read-only record of how a Backend's graph reloads have
+ * gone: how many reloads succeeded or failed, how long the last successful
+ * reload took to read the file and build its query structures, and how long
+ * swapping the new graph in took. A new record replaces the old one after
+ * each reload, so the numbers in one record are always consistent.
+ */
+public class ReloadMetrics {
+
+    protected final int reloadCount;
+    protected final int failedReloadCount;
+    protected final long lastReloadMillis;
+    protected final long lastSwapNanos;
+    protected final long lastChangeToSwapMillis;
+
+    /**
+     * Constructor for a record of reloads.
+     *
+     * @param reloadCount            the number of successful reloads
+     * @param failedReloadCount      the number of reloads that failed and
+     *                               left the previous graph in place
+     * @param lastReloadMillis       how long the last successful reload took
+     *                               to read the file and build the new graph
+     * @param lastSwapNanos          how long swapping the last new graph in
+     *                               took
+     * @param lastChangeToSwapMillis how long after its file change was
+     *                               noticed the last new graph was swapped in
+     */
+    public ReloadMetrics(int reloadCount, int failedReloadCount, long lastReloadMillis, long lastSwapNanos,
+            long lastChangeToSwapMillis) {
+        this.reloadCount = reloadCount;
+        this.failedReloadCount = failedReloadCount;
+        this.lastReloadMillis = lastReloadMillis;
+        this.lastSwapNanos = lastSwapNanos;
+        this.lastChangeToSwapMillis = lastChangeToSwapMillis;
+    }
+
+    /**
+     * Returns the number of reloads that swapped in a new graph.
+     *
+     * @return the number of successful reloads
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Returns the number of reloads that could not read the file, and so
+     * left the previous graph answering queries.
+     *
+     * @return the number of failed reloads
+     */
+    public int getFailedReloadCount() {
+        return failedReloadCount;
+    }
+
+    /**
+     * Returns how long the last successful reload spent reading the file and
+     * building the new graph and its query tables, while queries kept being
+     * answered from the previous graph.
+     *
+     * @return the last reload's duration in milliseconds, or 0 before the
+     *         first reload
+     */
+    public long getLastReloadMillis() {
+        return lastReloadMillis;
+    }
+
+    /**
+     * Returns how long publishing the last new graph to queries took.
+     *
+     * @return the last swap's duration in nanoseconds, or 0 before the first
+     *         reload
+     */
+    public long getLastSwapNanos() {
+        return lastSwapNanos;
+    }
+
+    /**
+     * Returns the time from noticing the last file change until new queries
+     * were answered from the graph read from it, including the wait for the
+     * file to stop changing.
+     *
+     * @return that time in milliseconds, or 0 before the first reload
+     */
+    public long getLastChangeToSwapMillis() {
+        return lastChangeToSwapMillis;
+    }
+
+    @Override
+    public String toString() {
+        return reloadCount + " reloads (" + failedReloadCount + " failed), last took " + lastReloadMillis
+                + " ms, swap " + lastSwapNanos + " ns, change to swap " + lastChangeToSwapMillis + " ms";
+    }
+
+}
@@ -0,0 +1,170 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes how one shortest path query was answered, to see why
+ * a particular route is slow: which engine answered it, how much of the
+ * graph its search settled, how large its priority queue grew, how the time
+ * was split between searching and reading the path back, and whether a
+ * precomputed table answered it without searching at all. It also holds the
+ * path and cost found, so explaining a query answers it too.
+ */
+public class RouteExplanation<NodeType> {
+
+    protected final NodeType source;
+    protected final NodeType target;
+    protected final String engine;
+    protected final int settledNodes;
+    protected final int heapHighWater;
+    protected final long searchNanos;
+    protected final long pathNanos;
+    protected final boolean cached;
+    protected final List<NodeType> path;
+    protected final double cost;
+
+    /**
+     * Constructor for the explanation of one query.
+     *
+     * @param source        the start of the query
+     * @param target        the end of the query
+     * @param engine        the name of what answered it, such as
+     *                      "DijkstraGraph DIJKSTRA BINARY_HEAP"
+     * @param settledNodes  the number of nodes the search settled, which is
+     *                      0 when cached and -1 when not tracked
+     * @param heapHighWater the most entries the search's priority queue
+     *                      held at once, which is 0 when cached and -1 when
+     *                      not tracked
+     * @param searchNanos   the time spent searching, or looking the answer
+     *                      up when cached
+     * @param pathNanos     the time spent reading the path back
+     * @param cached        true if a precomputed table answered the query
+     * @param path          the path found, or an empty list when there is
+     *                      none
+     * @param cost          the cost of the path, or infinity when there is
+     *                      none
+     */
+    public RouteExplanation(NodeType source, NodeType target, String engine, int settledNodes, int heapHighWater,
+            long searchNanos, long pathNanos, boolean cached, List<NodeType> path, double cost) {
+        this.source = source;
+        this.target = target;
+        this.engine = engine;
+        this.settledNodes = settledNodes;
+        this.heapHighWater = heapHighWater;
+        this.searchNanos = searchNanos;
+        this.pathNanos = pathNanos;
+        this.cached = cached;
+        this.path = Collections.unmodifiableList(path);
+        this.cost = cost;
+    }
+
+    /**
+     * Returns the start of the query.
+     *
+     * @return the source node's data
+     */
+    public NodeType getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the end of the query.
+     *
+     * @return the target node's data
+     */
+    public NodeType getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the name of what answered the query: the graph class with its
+     * search algorithm and priority queue, or the precomputed table.
+     *
+     * @return the engine's name
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the number of nodes the search settled before it stopped.
+     *
+     * @return the settled node count, which is 0 for a cached answer and -1
+     *         when the engine does not track it
+     */
+    public int getSettledNodes() {
+        return settledNodes;
+    }
+
+    /**
+     * Returns the most entries the search's priority queue held at once.
+     *
+     * @return the queue's high-water mark, which is 0 for a cached answer
+     *         and -1 when the engine does not track it
+     */
+    public int getHeapHighWater() {
+        return heapHighWater;
+    }
+
+    /**
+     * Returns the time spent searching, or looking the answer up in a table.
+     *
+     * @return that time in nanoseconds
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * Returns the time spent reading the path back from the search.
+     *
+     * @return that time in nanoseconds
+     */
+    public long getPathNanos() {
+        return pathNanos;
+    }
+
+    /**
+     * Returns whether a precomputed table answered the query.
+     *
+     * @return true if no search was run
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Returns whether a path was found.
+     *
+     * @return true if the target can be reached from the source
+     */
+    public boolean isFound() {
+        return !path.isEmpty();
+    }
+
+    /**
+     * Returns the path found.
+     *
+     * @return read-only list of node data from source to target, which is
+     *         empty when there is no path
+     */
+    public List<NodeType> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the cost of the path found.
+     *
+     * @return the path's cost, or infinity when there is no path
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s by %s%s: %s, settled %d nodes, queue peak %d, search %.1f us, path %.1f us",
+                source, target, engine, cached ? " (cached)" : "", isFound() ? "cost " + cost : "no path",
+                settledNodes, heapHighWater, searchNanos / 1e3, pathNanos / 1e3);
+    }
+
+}
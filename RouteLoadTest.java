@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A load test for RouteServer. It sends /route requests between random
+ * locations, keeping a fixed number of requests in flight at once, each on
+ * its own connection, and then reports throughput and latency percentiles.
+ * Run it against a server started separately, for example:
+ *     java RouteServer 8080 &
+ *     java RouteLoadTest http://localhost:8080 10000 200000
+ * The arguments are the server's URL, the number of concurrent connections
+ * (10,000 by default) and the number of requests to send (100,000 by
+ * default). Opening that many connections needs a limit on open files above
+ * the connection count, on both the client and the server.
+ */
+public class RouteLoadTest {
+
+    /**
+     * Runs the load test.
+     *
+     * @param args optional server URL, connection count and request count
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = args.length > 0 ? args[0] : "http://localhost:" + RouteServer.DEFAULT_PORT;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int requestCount = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30)).build();
+        List<String> locations = parseLocations(client.send(HttpRequest.newBuilder(URI.create(url + "/locations"))
+                .build(), HttpResponse.BodyHandlers.ofString()).body());
+        System.out.printf("%s: %d locations, %,d requests over %,d connections%n", url, locations.size(),
+                requestCount, connections);
+
+        Random random = new Random(18);
+        long[] latencies = new long[requestCount];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(connections);
+        CountDownLatch done = new CountDownLatch(requestCount);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < requestCount; i++) {
+            String start = locations.get(random.nextInt(locations.size()));
+            String end = locations.get(random.nextInt(locations.size()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/route?start="
+                    + URLEncoder.encode(start, StandardCharsets.UTF_8) + "&end="
+                    + URLEncoder.encode(end, StandardCharsets.UTF_8))).timeout(Duration.ofSeconds(60)).build();
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                latencies[index] = System.nanoTime() - sent;
+                // a 404 for a pair with no path is still an answer
+                if (failure != null || (response.statusCode() != 200 && response.statusCode() != 404)) {
+                    errors.incrementAndGet();
+                    firstError.compareAndSet(null, failure != null ? failure.toString() : "status " + response.statusCode());
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%,.0f requests/s, %d errors%s%n", requestCount / seconds, errors.get(),
+                errors.get() == 0 ? "" : ", the first was " + firstError.get());
+        System.out.printf("latency p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n", percentile(latencies, 50),
+                percentile(latencies, 90), percentile(latencies, 99), latencies[requestCount - 1] / 1e6);
+    }
+
+    // returns a percentile of sorted nanosecond latencies, in milliseconds
+    private static double percentile(long[] sorted, double percent) {
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // reads the names from the /locations endpoint's JSON array of strings
+    private static List<String> parseLocations(String json) {
+        List<String> locations = new ArrayList<>();
+        StringBuilder name = null;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (name == null) {
+                if (c == '"')
+                    name = new StringBuilder();
+            } else if (c == '\\') {
+                c = json.charAt(++i);
+                if (c == 'u') {
+                    name.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                } else {
+                    name.append(c);
+                }
+            } else if (c == '"') {
+                locations.add(name.toString());
+                name = null;
+            } else {
+                name.append(c);
+            }
+        }
+        return locations;
+    }
+
+}
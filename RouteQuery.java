@@ -0,0 +1,57 @@
+import java.util.Objects;
+
+/**
+ * This class is one request for the shortest route between two locations,
+ * as passed in a batch to BackendInterface.findShortestPaths.
+ */
+public class RouteQuery {
+
+    protected final String startLocation;
+    protected final String endLocation;
+
+    /**
+     * Constructor for a query from one location to another.
+     *
+     * @param startLocation the start location of the route
+     * @param endLocation   the end location of the route
+     */
+    public RouteQuery(String startLocation, String endLocation) {
+        this.startLocation = Objects.requireNonNull(startLocation);
+        this.endLocation = Objects.requireNonNull(endLocation);
+    }
+
+    /**
+     * Returns the location this query's route starts at.
+     *
+     * @return the start location
+     */
+    public String getStartLocation() {
+        return startLocation;
+    }
+
+    /**
+     * Returns the location this query's route ends at.
+     *
+     * @return the end location
+     */
+    public String getEndLocation() {
+        return endLocation;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RouteQuery && ((RouteQuery) other).startLocation.equals(startLocation)
+                && ((RouteQuery) other).endLocation.equals(endLocation);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * startLocation.hashCode() + endLocation.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return startLocation + " -> " + endLocation;
+    }
+
+}
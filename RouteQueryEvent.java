@@ -0,0 +1,106 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.function.Supplier;
+
+/**
+ * A JDK Flight Recorder event for one shortest path query, carrying the
+ * same data as a RouteExplanation. The event is disabled by default, so it
+ * is only recorded by a recording that turns it on, either from code with
+ * Recording.enable(RouteQueryEvent.NAME) or with a .jfc settings file,
+ * passed to -XX:StartFlightRecording, that sets
+ * UWCampusRouteFinder.RouteQuery#enabled to true. While it is
+ * enabled, shortestPathData and shortestPathCost on DijkstraGraph and
+ * CSRGraph, and Backend queries answered from its all pairs table, are
+ * traced: each runs as an explained query and commits one event. While it
+ * is disabled, they only check that it is.
+ */
+@Name(RouteQueryEvent.NAME)
+@Label("Route Query")
+@Category({ "UW Campus Route Finder", "Routing" })
+@Description("One shortest path query, with the engine and work that answered it")
+@Enabled(false)
+@StackTrace(false)
+public class RouteQueryEvent extends Event {
+
+    public static final String NAME = "UWCampusRouteFinder.RouteQuery";
+
+    private static final EventType TYPE = EventType.getEventType(RouteQueryEvent.class);
+
+    @Label("Source")
+    String source;
+
+    @Label("Target")
+    String target;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Settled Nodes")
+    int settledNodes;
+
+    @Label("Heap High-Water Mark")
+    @Description("The most entries the search's priority queue held at once, or -1 when not tracked")
+    int heapHighWater;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long searchTime;
+
+    @Label("Path Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long pathTime;
+
+    @Label("Cached")
+    @Description("Whether a precomputed table answered the query without a search")
+    boolean cached;
+
+    @Label("Found")
+    boolean found;
+
+    /**
+     * Returns whether any recording has this event turned on, in which case
+     * queries should be traced.
+     *
+     * @return true if query events are being recorded
+     */
+    public static boolean isTracing() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Runs an explained query and commits an event describing it, timed from
+     * the start of the query to its end.
+     *
+     * @param explain  runs the query and explains it
+     * @param <NodeType> the type of the query's nodes
+     * @return the query's explanation
+     */
+    public static <NodeType> RouteExplanation<NodeType> trace(Supplier<RouteExplanation<NodeType>> explain) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        RouteExplanation<NodeType> explanation = explain.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = String.valueOf(explanation.getSource());
+            event.target = String.valueOf(explanation.getTarget());
+            event.engine = explanation.getEngine();
+            event.settledNodes = explanation.getSettledNodes();
+            event.heapHighWater = explanation.getHeapHighWater();
+            event.searchTime = explanation.getSearchNanos();
+            event.pathTime = explanation.getPathNanos();
+            event.cached = explanation.isCached();
+            event.found = explanation.isFound();
+            event.commit();
+        }
+        return explanation;
+    }
+
+}
@@ -0,0 +1,62 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds everything a single shortest path search finds about a
+ * route: the nodes along the path, the weight of each edge between
+ * consecutive nodes, and the total cost. Returning these together lets
+ * callers show a path with its travel times without searching again or
+ * looking up each edge afterwards.
+ */
+public class RouteResult<NodeType> {
+
+    protected final List<NodeType> path;
+    protected final List<Double> legWeights;
+    protected final double totalCost;
+
+    /**
+     * Constructor for a route found by a search.
+     *
+     * @param path       the nodes along the route, from start to end
+     * @param legWeights the weight of the edge leaving each node of path
+     *                   except the last, so one fewer than path's size
+     * @param totalCost  the sum of legWeights
+     */
+    public RouteResult(List<NodeType> path, List<Double> legWeights, double totalCost) {
+        if (legWeights.size() != path.size() - 1)
+            throw new IllegalArgumentException("a route needs one leg weight between each pair of nodes");
+        this.path = Collections.unmodifiableList(path);
+        this.legWeights = Collections.unmodifiableList(legWeights);
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Returns the nodes along this route, starting with the start node and
+     * ending with the end node.
+     *
+     * @return read-only list of node data along the route
+     */
+    public List<NodeType> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the weight of each edge along this route, in path order.
+     *
+     * @return read-only list with one weight per leg, which is empty when the
+     *         route starts and ends at the same node
+     */
+    public List<Double> getLegWeights() {
+        return legWeights;
+    }
+
+    /**
+     * Returns the total cost of this route.
+     *
+     * @return the sum of the route's leg weights
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+}
@@ -0,0 +1,272 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class serves a backend's routing queries as JSON over HTTP, using the
+ * HTTP server built into the JDK, so the router can run without the JavaFX
+ * frontend. Every endpoint answers GET requests, takes its locations as URL
+ * query parameters, and responds with a JSON document:
+ *     /locations                      ["Location", ...]
+ *     /path?start=A&end=B             ["A", ..., "B"]
+ *     /travel-times?start=A&end=B     [12.5, ...]
+ *     /route?start=A&end=B            {"path": [...], "travelTimes": [...],
+ *                                      "totalSeconds": 123.4}
+ *     /most-distant?location=A        {"location": "Z"}
+ *     /within?location=A&seconds=300  {"locations": ["A", ...],
+ *                                      "seconds": [0.0, ...]}
+ *     /reaching?location=A&seconds=300
+ *                                     the same, for walks that end at A
+ * A location that does not exist, or a pair with no path between them, is
+ * answered with status 404 and {"error": "..."}, and a missing or invalid
+ * parameter with status 400. Each request runs on its own virtual thread when the JDK
+ * has them, and otherwise on a pool of platform threads. When run with main,
+ * the backend's RoutingMetrics are enabled and published over JMX.
+ */
+public class RouteServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    // connections waiting to be accepted before new ones are refused
+    protected static final int BACKLOG = 16384;
+
+    static {
+        // without this, each response's headers and body are sent in separate
+        // packets that wait on the client's delayed ACK, adding ~40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    protected final BackendInterface backend;
+    protected final HttpServer server;
+    protected final ExecutorService executor;
+
+    /**
+     * Constructor for a server that answers queries from a backend. The
+     * server does not accept connections until start is called.
+     *
+     * @param backend the backend to answer queries from
+     * @param port    the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public RouteServer(BackendInterface backend, int port) throws IOException {
+        this.backend = backend;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/locations", handler(parameters -> json(backend.getListOfAllLocations())));
+        server.createContext("/path", handler(parameters -> json(
+                backend.findShortestPath(parameter(parameters, "start"), parameter(parameters, "end")))));
+        server.createContext("/travel-times", handler(parameters -> json(
+                backend.getTravelTimesOnPath(parameter(parameters, "start"), parameter(parameters, "end")))));
+        server.createContext("/route", handler(parameters -> {
+            RouteResult<String> route = backend.findRoute(parameter(parameters, "start"), parameter(parameters, "end"));
+            return "{\"path\": " + json(route.getPath()) + ", \"travelTimes\": " + json(route.getLegWeights())
+                    + ", \"totalSeconds\": " + route.getTotalCost() + "}";
+        }));
+        server.createContext("/most-distant", handler(parameters ->
+                "{\"location\": " + json(backend.getMostDistantLocation(parameter(parameters, "location"))) + "}"));
+        server.createContext("/within", handler(parameters -> json(backend.findLocationsWithin(
+                parameter(parameters, "location"), Double.parseDouble(parameter(parameters, "seconds"))))));
+        server.createContext("/reaching", handler(parameters -> json(backend.findLocationsReaching(
+                parameter(parameters, "location"), Double.parseDouble(parameter(parameters, "seconds"))))));
+    }
+
+    /**
+     * Creates the executor that runs each request: a new virtual thread per
+     * request when this JDK has them, and otherwise a pool of daemon platform
+     * threads that grows with the number of requests in progress.
+     *
+     * @return an executor for the server's requests
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            // looked up by name so the server still compiles and runs on JDKs
+            // from before virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "route-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting connections, waits up to delaySeconds for requests in
+     * progress to finish, and then shuts the server down.
+     *
+     * @param delaySeconds the longest time to wait for requests in progress
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port this server listens on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // computes a JSON response body from a request's query parameters
+    private interface Endpoint {
+        String respond(Map<String, String> parameters);
+    }
+
+    // thrown when a request is missing a query parameter
+    private static class MissingParameterException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MissingParameterException(String name) {
+            super("Missing parameter: " + name);
+        }
+    }
+
+    // wraps an endpoint with request parsing, error statuses and the response
+    private static HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            int status = 200;
+            String body;
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    status = 405;
+                    body = error("Only GET is supported");
+                } else {
+                    body = endpoint.respond(parameters(exchange));
+                }
+            } catch (MissingParameterException | IllegalArgumentException e) {
+                // IllegalArgumentException covers unparsable and negative numbers
+                status = 400;
+                body = error(e.getMessage());
+            } catch (NoSuchElementException e) {
+                status = 404;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error(e.toString());
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        };
+    }
+
+    // decodes the query parameters of a request's URL
+    private static Map<String, String> parameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+            return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0)
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String parameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null)
+            throw new MissingParameterException(name);
+        return value;
+    }
+
+    private static String error(String message) {
+        return "{\"error\": " + json(String.valueOf(message)) + "}";
+    }
+
+    // writes a list of strings or numbers as a JSON array
+    private static String json(List<?> values) {
+        StringBuilder json = new StringBuilder("[");
+        for (Object value : values) {
+            if (json.length() > 1)
+                json.append(", ");
+            json.append(value instanceof Number ? value.toString() : json(value.toString()));
+        }
+        return json.append(']').toString();
+    }
+
+    // writes the locations of a tree and their costs as parallel JSON arrays
+    private static String json(ShortestPathTree<String> tree) {
+        List<String> locations = tree.getReachedNodes();
+        List<Double> seconds = new ArrayList<>(locations.size());
+        for (String location : locations)
+            seconds.add(tree.getCost(location));
+        return "{\"locations\": " + json(locations) + ", \"seconds\": " + json(seconds) + "}";
+    }
+
+    // writes a string as a quoted JSON string
+    private static String json(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if (c < 0x20)
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Loads campus.dot, or the dot file named by the second argument, and
+     * serves it on port 8080, or the port named by the first argument. The
+     * dot file is watched and reloaded when it changes.
+     *
+     * @param args optional port and dot file
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String dot = args.length > 1 ? args[1] : "campus.dot";
+        Backend back = new Backend(new DijkstraGraph<>());
+        try {
+            back.loadGraphData(dot, dot.replaceFirst("\\.dot$", "") + ".snapshot");
+            back.watchGraphData(dot);
+            new RouteServer(back, port).start();
+        } catch (IOException e) {
+            System.out.println("Error loading data or starting the server: " + e.getMessage());
+            System.exit(1);
+        }
+        // query latencies and search work, readable with jconsole or any JMX client
+        back.getMetrics().setEnabled(true);
+        try {
+            back.getMetrics().register(RoutingMetrics.OBJECT_NAME);
+        } catch (JMException e) {
+            System.out.println("Could not publish routing metrics: " + e.getMessage());
+        }
+        System.out.println("Serving " + back.getListOfAllLocations().size() + " locations on port " + port);
+    }
+
+}
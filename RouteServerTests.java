@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of RouteServer's endpoints, sent as HTTP requests to a server for a
+ * small graph running on a free port.
+ */
+public class RouteServerTests {
+
+    private RouteServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        // Creating a backend for the graph from DijkstraGraph's tests, and
+        // serving it on any free port
+        Path dot = Files.createTempFile("server", ".dot");
+        Files.writeString(dot, "digraph test {\n\"A\" -> \"C\" [seconds=1];\n"
+                + "\"A\" -> \"D\" [seconds=4];\n\"C\" -> \"E\" [seconds=10];\n\"D\" -> \"B\" [seconds=2];\n"
+                + "\"D\" -> \"E\" [seconds=10];\n\"B\" -> \"E\" [seconds=1];\n\"F G\" -> \"A\" [seconds=3];\n}\n");
+        Backend backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData(dot.toString());
+        Files.delete(dot);
+        server = new RouteServer(backend, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    // sends a GET request for the path and query to the server
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.getPort() + pathAndQuery);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testEndpoints() throws Exception {
+        // Tests that each endpoint answers with the backend's results as JSON
+        HttpResponse<String> response = get("/route?start=A&end=E");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"path\": [\"A\", \"D\", \"B\", \"E\"], \"travelTimes\": [4.0, 2.0, 1.0], "
+                + "\"totalSeconds\": 7.0}", response.body());
+        assertEquals("[\"A\", \"C\", \"D\", \"E\", \"B\", \"F G\"]", get("/locations").body());
+        assertEquals("{\"location\": \"E\"}", get("/most-distant?location=A").body());
+        assertEquals("{\"locations\": [\"A\", \"C\", \"D\"], \"seconds\": [0.0, 1.0, 4.0]}",
+                get("/within?location=A&seconds=4").body());
+        assertEquals("{\"locations\": [\"A\", \"F G\"], \"seconds\": [0.0, 3.0]}",
+                get("/reaching?location=A&seconds=5").body());
+    }
+
+    @Test
+    public void testErrorStatuses() throws Exception {
+        // Tests the statuses for a missing path, a missing parameter and a
+        // malformed one
+        assertEquals(404, get("/path?start=E&end=F%20G").statusCode());
+        HttpResponse<String> response = get("/travel-times?start=A");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\": \"Missing parameter: end\"}", response.body());
+        assertEquals(400, get("/within?location=A&seconds=soon").statusCode());
+    }
+
+}
@@ -0,0 +1,172 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the routing core, so that changes to the search, the
+ * graph or the dot reader can be checked for speed regressions and not only
+ * for correctness. Each benchmark runs on campus.dot and on synthetic graphs
+ * chosen by the graph parameter:
+ *     campus        the campus map, read from campus.dot
+ *     grid-100      a 100 by 100 street grid from Benchmarks.gridGraph
+ *     random-10000  a 10,000 node random graph from Benchmarks.randomGraph
+ * The JMH jars (jmh-core, jmh-generator-annprocess, jopt-simple and
+ * commons-math3) are expected in ../jmh, beside the JUnit and JavaFX jars
+ * the other targets use, and JavaFX is not needed. Run every benchmark with
+ * allocation rates from the GC profiler using:
+ *     make runJMH
+ * or pass JMH options, for example to run one benchmark on one graph:
+ *     make runJMH JMH_ARGS="RoutingBenchmarks.mostDistant -p graph=campus"
+ * The metrics parameter runs each query benchmark with the backend's
+ * RoutingMetrics disabled and enabled, to measure what recording costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmarks {
+
+    // the number of start locations queries are drawn from
+    private static final int PAIR_COUNT = 64;
+
+    @Param({ "campus", "grid-100", "random-10000" })
+    public String graph;
+
+    // whether the backend's RoutingMetrics are recorded, to measure their cost
+    @Param({ "false", "true" })
+    public boolean metrics;
+
+    private String dotFile;
+    private DijkstraGraph<String, Double> searchGraph;
+    private Backend backend;
+    // a graph that insert and remove benchmarks change and then restore
+    private DijkstraGraph<String, Double> editGraph;
+    // query pairs whose end is near the start (at the 5th percentile of
+    // the costs from it) or as far from it as any location can be
+    private String[][] nearPairs;
+    private String[][] farPairs;
+    private String[] editNodes;
+    private int next;
+
+    /**
+     * Builds the graph named by the graph parameter, writes it to a dot file
+     * for the loading benchmark, and picks the query pairs.
+     *
+     * @throws IOException if the dot file cannot be read or written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (graph.equals("campus")) {
+            dotFile = "campus.dot";
+        } else if (graph.startsWith("grid-")) {
+            int width = Integer.parseInt(graph.substring("grid-".length()));
+            dotFile = Benchmarks.writeDotFile(Benchmarks.gridGraph(width, width, 21).freeze()).getPath();
+        } else if (graph.startsWith("random-")) {
+            int nodeCount = Integer.parseInt(graph.substring("random-".length()));
+            dotFile = Benchmarks.writeDotFile(Benchmarks.randomGraph(nodeCount, 4, 21).freeze()).getPath();
+        } else {
+            throw new IllegalArgumentException("Unknown graph: " + graph);
+        }
+
+        backend = new Backend(new DijkstraGraph<>());
+        // answer from searches, so the same code is measured on every graph
+        backend.setAllPairsThreshold(0);
+        backend.loadGraphData(dotFile);
+        backend.getMetrics().setEnabled(metrics);
+        searchGraph = (DijkstraGraph<String, Double>) backend.getGraph();
+        Backend editBackend = new Backend(new DijkstraGraph<>());
+        editBackend.loadGraphData(dotFile);
+        editGraph = (DijkstraGraph<String, Double>) editBackend.getGraph();
+
+        Random random = new Random(21);
+        List<String> locations = backend.getListOfAllLocations();
+        nearPairs = new String[PAIR_COUNT][];
+        farPairs = new String[PAIR_COUNT][];
+        editNodes = new String[PAIR_COUNT];
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            String start = locations.get(random.nextInt(locations.size()));
+            List<String> reached = searchGraph.shortestPathTree(start).getReachedNodes();
+            nearPairs[i] = new String[] { start, reached.get(Math.min(Math.max(1, reached.size() / 20),
+                    reached.size() - 1)) };
+            farPairs[i] = new String[] { start, reached.get(reached.size() - 1) };
+            editNodes[i] = locations.get(random.nextInt(locations.size()));
+        }
+    }
+
+    // cycles through the query pairs, so no single pair is measured
+    private int nextPair() {
+        next = (next + 1) % PAIR_COUNT;
+        return next;
+    }
+
+    @Benchmark
+    public Object shortestPathNear() {
+        String[] pair = nearPairs[nextPair()];
+        return searchGraph.computeShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public Object shortestPathFar() {
+        String[] pair = farPairs[nextPair()];
+        return searchGraph.computeShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public String mostDistant() {
+        return backend.getMostDistantLocation(nearPairs[nextPair()][0]);
+    }
+
+    @Benchmark
+    public List<Double> travelTimesOnPath() {
+        String[] pair = farPairs[nextPair()];
+        return backend.getTravelTimesOnPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Backend loadGraphData() throws IOException {
+        Backend loaded = new Backend(new DijkstraGraph<>());
+        loaded.loadGraphData(dotFile);
+        return loaded;
+    }
+
+    @Benchmark
+    public boolean insertRemoveEdge() {
+        // an edge between two locations, which is removed again so every
+        // invocation starts from the same graph
+        int i = nextPair();
+        String pred = editNodes[i];
+        String succ = editNodes[(i + 1) % PAIR_COUNT];
+        if (!editGraph.insertEdge(pred, succ, 60.0))
+            return false; // already an edge
+        return editGraph.removeEdge(pred, succ);
+    }
+
+    @Benchmark
+    public boolean insertRemoveNode() {
+        // a new location joined both ways to an existing one; removing it
+        // removes its edges too
+        String pred = editNodes[nextPair()];
+        editGraph.insertNode("benchmark node");
+        editGraph.insertEdge(pred, "benchmark node", 60.0);
+        editGraph.insertEdge("benchmark node", pred, 60.0);
+        return editGraph.removeNode("benchmark node");
+    }
+
+}
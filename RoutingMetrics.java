@@ -0,0 +1,209 @@
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts how much work routing queries do: how long each kind of
+ * query takes, and how many nodes and edges the searches behind them visit.
+ * A Backend times its queries into it, and the graphs it searches add up
+ * each search's counts into it once the search is done, so the searches'
+ * inner loops only ever touch local variables. Counters are LongAdders and
+ * latencies go into LatencyHistograms, so many threads can record at once.
+ * Metrics start disabled; while disabled, recording returns after reading
+ * one volatile field. They can be read over JMX once registered.
+ */
+public class RoutingMetrics implements RoutingMetricsMXBean {
+
+    /**
+     * The kinds of query timed separately.
+     */
+    public enum Query {
+        SHORTEST_PATH, TRAVEL_TIMES, ROUTE, BATCH, MOST_DISTANT, ISOCHRONE
+    }
+
+    // the name RoutingMetrics are registered under by default
+    public static final String OBJECT_NAME = "UWCampusRouteFinder:type=RoutingMetrics";
+
+    private volatile boolean enabled = false;
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder settledNodes = new LongAdder();
+    private final LongAdder relaxedEdges = new LongAdder();
+    private final LongAdder queuePushes = new LongAdder();
+    private final LongAdder stalePops = new LongAdder();
+    private final LongAdder pathNodes = new LongAdder();
+    private final LongAdder pathCount = new LongAdder();
+    private final Map<Query, LatencyHistogram> latencies = new EnumMap<>(Query.class);
+
+    /**
+     * Constructor for disabled metrics with every count at zero.
+     */
+    public RoutingMetrics() {
+        for (Query query : Query.values())
+            latencies.put(query, new LatencyHistogram());
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server, replacing any
+     * metrics already registered under the same name.
+     *
+     * @param name the object name to register under, such as OBJECT_NAME
+     * @throws JMException if the name is malformed or registration fails
+     */
+    public void register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            // a backend that was replaced, for example by a reload, gives way
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        }
+    }
+
+    /**
+     * Returns the time to pass to recordQuery when a query finishes.
+     *
+     * @return the current System.nanoTime(), or 0 while disabled
+     */
+    public long startQuery() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records how long a query took, and the length of the path it found.
+     *
+     * @param query      the kind of query
+     * @param startNanos the time startQuery returned when the query began
+     * @param pathLength the number of locations on the path found, or -1
+     *                   when the query does not find a path
+     */
+    public void recordQuery(Query query, long startNanos, int pathLength) {
+        // a query that started while disabled has no start time to go on
+        if (!enabled || startNanos == 0)
+            return;
+        latencies.get(query).record(System.nanoTime() - startNanos);
+        if (pathLength >= 0)
+            recordPath(pathLength);
+    }
+
+    /**
+     * Records the length of a path found by a query that was timed without
+     * one, such as each path of a batch.
+     *
+     * @param pathLength the number of locations on the path
+     */
+    public void recordPath(int pathLength) {
+        if (!enabled)
+            return;
+        pathNodes.add(pathLength);
+        pathCount.increment();
+    }
+
+    /**
+     * Adds up the work of one finished search.
+     *
+     * @param settled the number of nodes the search settled
+     * @param relaxed the number of edges it relaxed
+     * @param pushes  the number of pushes onto its priority queue
+     * @param stale   the number of queue entries it skipped as stale
+     */
+    public void recordSearch(int settled, int relaxed, int pushes, int stale) {
+        if (!enabled)
+            return;
+        searchCount.increment();
+        settledNodes.add(settled);
+        relaxedEdges.add(relaxed);
+        queuePushes.add(pushes);
+        stalePops.add(stale);
+    }
+
+    /**
+     * Returns the latency histogram of one kind of query.
+     *
+     * @param query the kind of query
+     * @return its histogram
+     */
+    public LatencyHistogram getLatency(Query query) {
+        return latencies.get(query);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getSearchCount() {
+        return searchCount.sum();
+    }
+
+    @Override
+    public long getSettledNodes() {
+        return settledNodes.sum();
+    }
+
+    @Override
+    public long getRelaxedEdges() {
+        return relaxedEdges.sum();
+    }
+
+    @Override
+    public long getQueuePushes() {
+        return queuePushes.sum();
+    }
+
+    @Override
+    public long getStalePops() {
+        return stalePops.sum();
+    }
+
+    @Override
+    public long getPathNodes() {
+        return pathNodes.sum();
+    }
+
+    @Override
+    public long getPathCount() {
+        return pathCount.sum();
+    }
+
+    @Override
+    public Map<String, LatencyHistogram> getLatencies() {
+        Map<String, LatencyHistogram> byName = new LinkedHashMap<>();
+        for (Map.Entry<Query, LatencyHistogram> entry : latencies.entrySet())
+            byName.put(entry.getKey().name(), entry.getValue());
+        return byName;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] { searchCount, settledNodes, relaxedEdges, queuePushes, stalePops,
+                pathNodes, pathCount })
+            counter.reset();
+        for (LatencyHistogram histogram : latencies.values())
+            histogram.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder(String.format(
+                "%d searches settled %d nodes, relaxed %d edges, %d pushes, %d stale pops; %d paths of %d locations",
+                getSearchCount(), getSettledNodes(), getRelaxedEdges(), getQueuePushes(), getStalePops(),
+                getPathCount(), getPathNodes()));
+        for (Map.Entry<Query, LatencyHistogram> entry : latencies.entrySet())
+            if (entry.getValue().getCount() > 0)
+                summary.append('\n').append(entry.getKey()).append(": ").append(entry.getValue());
+        return summary.toString();
+    }
+
+}
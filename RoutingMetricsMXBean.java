@@ -0,0 +1,89 @@
+import java.util.Map;
+
+/**
+ * The management interface of RoutingMetrics, as published over JMX. The
+ * JDK's MXBean mapping shows each latency histogram as a row of its count,
+ * mean, percentiles and maximum in nanoseconds, so jconsole, VisualVM or any
+ * JMX client can read it without this project's classes.
+ */
+public interface RoutingMetricsMXBean {
+
+    /**
+     * Returns whether queries and searches are being counted.
+     *
+     * @return true if metrics are recorded
+     */
+    public boolean isEnabled();
+
+    /**
+     * Starts or stops counting queries and searches.
+     *
+     * @param enabled true to record metrics
+     */
+    public void setEnabled(boolean enabled);
+
+    /**
+     * Returns the number of shortest path searches run for queries.
+     *
+     * @return the search count
+     */
+    public long getSearchCount();
+
+    /**
+     * Returns the number of nodes those searches settled.
+     *
+     * @return the settled node count
+     */
+    public long getSettledNodes();
+
+    /**
+     * Returns the number of edges those searches relaxed.
+     *
+     * @return the relaxed edge count
+     */
+    public long getRelaxedEdges();
+
+    /**
+     * Returns the number of nodes those searches pushed onto, or lowered in,
+     * their priority queues.
+     *
+     * @return the queue push count
+     */
+    public long getQueuePushes();
+
+    /**
+     * Returns the number of queue entries those searches skipped because
+     * their node had already been settled at a lower cost.
+     *
+     * @return the stale pop count
+     */
+    public long getStalePops();
+
+    /**
+     * Returns the total number of locations on the paths returned.
+     *
+     * @return the summed path length
+     */
+    public long getPathNodes();
+
+    /**
+     * Returns the number of paths whose length is counted in getPathNodes.
+     *
+     * @return the path count
+     */
+    public long getPathCount();
+
+    /**
+     * Returns the latency histogram of each query type that has been timed,
+     * keyed by the query's name.
+     *
+     * @return the histograms by query type
+     */
+    public Map<String, LatencyHistogram> getLatencies();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public void reset();
+
+}
@@ -0,0 +1,222 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the work and latencies RoutingMetrics records for a Backend's
+ * queries, of reading them over JMX, and of explaining and tracing single
+ * queries.
+ */
+public class RoutingMetricsTests {
+
+    private Backend backend;
+    private RoutingMetrics metrics;
+
+    @BeforeEach
+    public void createBackend() {
+        // Creating a backend that searches the graph for every query
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        TestGraphs.insertShortPathOne(graph);
+        backend = new Backend(graph);
+        backend.setAllPairsThreshold(0);
+        metrics = backend.getMetrics();
+    }
+
+    @Test
+    public void testDisabled() {
+        // Tests that nothing is counted while metrics are disabled
+        backend.findShortestPath("A", "E");
+        assertEquals(0, (int) metrics.getSearchCount());
+        assertEquals(0, (int) metrics.getLatency(RoutingMetrics.Query.SHORTEST_PATH).getCount());
+    }
+
+    @Test
+    public void testSearchWork() {
+        // Tests the work of the search from A to E: it settles A, C, D, B and
+        // E, relaxes 6 edges, and pushes the start and 5 better costs
+        metrics.setEnabled(true);
+        assertEquals(List.of("A", "D", "B", "E"), backend.findShortestPath("A", "E"));
+        assertEquals(1, (int) metrics.getSearchCount());
+        assertEquals(5, (int) metrics.getSettledNodes());
+        assertEquals(6, (int) metrics.getRelaxedEdges());
+        assertEquals(6, (int) metrics.getQueuePushes());
+        assertEquals(0, (int) metrics.getStalePops());
+        assertEquals(4, (int) metrics.getPathNodes());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.SHORTEST_PATH).getCount());
+        backend.getMostDistantLocation("A");
+        backend.findShortestPaths(List.of(new RouteQuery("A", "E"), new RouteQuery("A", "B")));
+        assertEquals(3, (int) metrics.getSearchCount());
+        assertEquals(3, (int) metrics.getPathCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.MOST_DISTANT).getCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.BATCH).getCount());
+    }
+
+    @Test
+    public void testFailedQueries() {
+        // Tests that queries that throw are timed, without counting a path
+        metrics.setEnabled(true);
+        assertThrows(NoSuchElementException.class, () -> backend.findShortestPath("E", "A"));
+        assertThrows(NoSuchElementException.class, () -> backend.findRoute("A", "Nowhere"));
+        assertThrows(NoSuchElementException.class, () -> backend.getTravelTimesOnPath("B", "A"));
+        assertThrows(NoSuchElementException.class, () -> backend.getMostDistantLocation("Nowhere"));
+        assertThrows(NoSuchElementException.class, () -> backend.findLocationsWithin("Nowhere", 60));
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.SHORTEST_PATH).getCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.ROUTE).getCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.TRAVEL_TIMES).getCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.MOST_DISTANT).getCount());
+        assertEquals(1, (int) metrics.getLatency(RoutingMetrics.Query.ISOCHRONE).getCount());
+        assertEquals(0, (int) metrics.getPathCount());
+    }
+
+    @Test
+    public void testConcurrentGraph() {
+        // Tests that a concurrent graph's searches are counted the same way
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        TestGraphs.insertShortPathOne(graph);
+        Backend concurrent = new Backend(graph);
+        RoutingMetrics concurrentMetrics = concurrent.getMetrics();
+        concurrentMetrics.setEnabled(true);
+        assertEquals(List.of("A", "D", "B", "E"), concurrent.findShortestPath("A", "E"));
+        assertEquals(1, (int) concurrentMetrics.getSearchCount());
+        assertEquals(5, (int) concurrentMetrics.getSettledNodes());
+        assertEquals(6, (int) concurrentMetrics.getRelaxedEdges());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        // Tests that the counters and histograms can be read over JMX
+        metrics.setEnabled(true);
+        backend.findShortestPath("A", "E");
+        metrics.register(RoutingMetrics.OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(RoutingMetrics.OBJECT_NAME);
+        try {
+            assertEquals(1L, server.getAttribute(name, "SearchCount"));
+            TabularData latencies = (TabularData) server.getAttribute(name, "Latencies");
+            CompositeData row = latencies.get(new Object[] { "SHORTEST_PATH" });
+            assertEquals(1L, ((CompositeData) row.get("value")).get("count"));
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals(0L, server.getAttribute(name, "SettledNodes"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testExplain() throws Exception {
+        // Creating the graph from testShortPathOne, plus an unreachable node
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        TestGraphs.insertShortPathOne(graph);
+        graph.insertNode("F");
+
+        // Tests the search from A to E: it settles all 5 reachable nodes, and
+        // its queue holds at most 2 entries, first C and D, then E twice
+        RouteExplanation<String> explanation = graph.explain("A", "E");
+        assertEquals(List.of("A", "D", "B", "E"), explanation.getPath());
+        assertEquals(7.0, explanation.getCost());
+        assertEquals("DijkstraGraph DIJKSTRA BINARY_HEAP", explanation.getEngine());
+        assertEquals(5, explanation.getSettledNodes());
+        assertEquals(2, explanation.getHeapHighWater());
+        assertEquals(false, explanation.isCached());
+        assertEquals(false, graph.explain("A", "F").isFound());
+        assertThrows(NoSuchElementException.class, () -> graph.explain("A", "G"));
+        for (DijkstraGraph.SearchAlgorithm algorithm : DijkstraGraph.SearchAlgorithm.values()) {
+            graph.setSearchAlgorithm(algorithm);
+            explanation = graph.explain("A", "E");
+            assertEquals(List.of("A", "D", "B", "E"), explanation.getPath());
+            graph.shortestPathData("A", "E");
+            assertEquals(graph.getLastSettledCount(), explanation.getSettledNodes());
+            assertTrue(explanation.getSettledNodes() > 0, algorithm.toString());
+            assertEquals(algorithm == DijkstraGraph.SearchAlgorithm.DIJKSTRA ? 2 : -1, explanation.getHeapHighWater());
+        }
+        graph.setSearchAlgorithm(DijkstraGraph.SearchAlgorithm.DIJKSTRA);
+
+        // Tests that a concurrent graph explains its own search
+        ConcurrentGraph<String> concurrent = new ConcurrentGraph<>();
+        TestGraphs.insertShortPathOne(concurrent);
+        explanation = concurrent.explain("A", "E");
+        assertEquals("ConcurrentGraph", explanation.getEngine());
+        assertEquals(List.of("A", "D", "B", "E"), explanation.getPath());
+        assertEquals(5, explanation.getSettledNodes());
+        assertEquals(-1, explanation.getHeapHighWater());
+
+        // Tests the same query on a frozen graph and from an all pairs table
+        CSRGraph<String> frozen = graph.freeze();
+        assertEquals(2, frozen.explain("A", "E").getHeapHighWater());
+        assertEquals(5, frozen.explain("A", "E").getSettledNodes());
+        assertEquals(List.of("A", "D", "B", "E"), new ContractionHierarchy<>(graph).explain("A", "E").getPath());
+        Backend backend = new Backend(graph);
+        backend.setAllPairsThreshold(0);
+        assertEquals("DijkstraGraph DIJKSTRA BINARY_HEAP", backend.explain("A", "E").getEngine());
+        backend.setAllPairsThreshold(Backend.DEFAULT_ALL_PAIRS_THRESHOLD);
+        explanation = backend.explain("A", "E");
+        assertEquals(true, explanation.isCached());
+        assertEquals("AllPairsTable", explanation.getEngine());
+        assertEquals(List.of("A", "D", "B", "E"), explanation.getPath());
+        assertEquals(7.0, explanation.getCost());
+        assertEquals(false, backend.explain("A", "F").isFound());
+
+        // Tests that queries are only traced while a recording enables the event
+        assertEquals(false, RouteQueryEvent.isTracing());
+        Path file = Files.createTempFile("routes", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RouteQueryEvent.NAME);
+            recording.start();
+            assertEquals(true, RouteQueryEvent.isTracing());
+            assertEquals(List.of("A", "D", "B", "E"), graph.shortestPathData("A", "E"));
+            assertEquals(Double.NaN, frozen.shortestPathCost("A", "F"));
+            assertEquals(List.of("A", "D", "B", "E"), backend.findShortestPath("A", "E"));
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file))
+                if (event.getEventType().getName().equals(RouteQueryEvent.NAME))
+                    events.add(event);
+            assertEquals(3, events.size());
+            assertEquals("DijkstraGraph DIJKSTRA BINARY_HEAP", events.get(0).getString("engine"));
+            assertEquals(5, events.get(0).getInt("settledNodes"));
+            assertEquals(2, events.get(0).getInt("heapHighWater"));
+            assertEquals(true, events.get(0).getBoolean("found"));
+            assertEquals("F", events.get(1).getString("target"));
+            assertEquals(false, events.get(1).getBoolean("found"));
+            assertEquals(true, events.get(2).getBoolean("cached"));
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(false, RouteQueryEvent.isTracing());
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        // Tests that percentiles are within the histogram's 1/32 precision
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++)
+            histogram.record(micros * 1000);
+        assertTrue(Math.abs(histogram.getP50Nanos() - 5_000_000) <= 5_000_000 / 32);
+        assertTrue(Math.abs(histogram.getP99Nanos() - 9_900_000) <= 9_900_000 / 32);
+        assertEquals(10_000_000, (int) histogram.getMaxNanos());
+        assertEquals(5_000.5, histogram.getMeanNanos() / 1000);
+    }
+
+}
@@ -0,0 +1,75 @@
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * The optional parts of one run of Dijkstra's algorithm by a DijkstraGraph,
+ * CSRGraph or ConcurrentGraph: a set of targets to stop after settling, the
+ * metrics to add the search's work to, an array to receive the weight of the
+ * edge from each node's predecessor, and whether to track the most entries
+ * the priority queue held at once. A search counts off the targets it
+ * settles and fills in heapHighWater, so each SearchOptions is used for one
+ * search only.
+ */
+public class SearchOptions {
+
+    // the metrics to add the search's work to, or null
+    final RoutingMetrics metrics;
+    // receives the weight of the edge from each node's predecessor, or null
+    double[] predWeight = null;
+    // true to track the queue's high-water mark in heapHighWater
+    boolean trackHeapHighWater = false;
+    // the most entries the search's queue held at once, or -1 when not tracked
+    int heapHighWater = -1;
+
+    // marks the ids of the nodes to stop after settling all of, or null
+    private boolean[] targets = null;
+    // the number of marked targets not settled yet
+    private int remainingTargets = 0;
+
+    /**
+     * Creates options for a search that stops only at its end node, if any.
+     *
+     * @param metrics the metrics to add the search's work to, or null
+     */
+    public SearchOptions(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Marks the nodes of a collection of targets, so the search stops once
+     * it has settled every one of them. With no targets, the search stops
+     * after settling its start node.
+     *
+     * @param <NodeType> the data type stored at each graph node
+     * @param targets    the data items to find shortest paths to
+     * @param idLimit    one more than the largest id a node can have
+     * @param idOf       returns the id of a data item's node, or -1 when it
+     *                   has none
+     * @throws NoSuchElementException when a target does not correspond to a
+     *                                graph node
+     */
+    public <NodeType> void markTargets(Collection<NodeType> targets, int idLimit, ToIntFunction<NodeType> idOf) {
+        this.targets = new boolean[idLimit];
+        for (NodeType target : targets) {
+            int id = idOf.applyAsInt(target);
+            if (id == -1)
+                throw new NoSuchElementException("End does not exist");
+            if (!this.targets[id]) {
+                this.targets[id] = true;
+                remainingTargets++;
+            }
+        }
+    }
+
+    /**
+     * Counts off a node the search has just settled.
+     *
+     * @param id the id of the settled node
+     * @return true once every marked target has been settled, so the search
+     *         can stop
+     */
+    boolean settled(int id) {
+        return targets != null && (remainingTargets == 0 || targets[id] && --remainingTargets == 0);
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class stores the result of a single-source shortest path search: the
+ * cost of the shortest path from a root node to every node reached by the
+ * search, along with each reached node's predecessor on that path. Nodes are
+ * stored in the order the search settled them, so their costs never decrease
+ * from one node to the next.
+ */
+public class ShortestPathTree<NodeType> {
+
+    // reached nodes in settled order, with the cost of reaching them, the
+    // position of their predecessor within these arrays (-1 for the root),
+    // and the weight of the edge from that predecessor (0 for the root)
+    protected NodeType[] nodes;
+    protected double[] costs;
+    protected int[] parents;
+    protected double[] parentWeights;
+    protected int size = 0;
+
+    // position of each reached node within the arrays above
+    protected MapADT<NodeType, Integer> positions;
+
+    /**
+     * Constructor for an empty tree, which nodes are then added to in the
+     * order they are settled, starting with the root.
+     *
+     * @param capacity the expected number of reached nodes
+     */
+    @SuppressWarnings("unchecked")
+    protected ShortestPathTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.nodes = (NodeType[]) new Object[capacity];
+        this.costs = new double[capacity];
+        this.parents = new int[capacity];
+        this.parentWeights = new double[capacity];
+        this.positions = new OpenAddressingMap<>(capacity);
+    }
+
+    /**
+     * Adds the next settled node to this tree.
+     *
+     * @param node   the data of the settled node
+     * @param cost   the cost of the shortest path from the root to node
+     * @param parent       the position returned when node's predecessor was
+     *                     added, or -1 for the root
+     * @param parentWeight the weight of the edge from node's predecessor to
+     *                     node, or 0 for the root
+     * @return the position of node within this tree
+     */
+    protected int add(NodeType node, double cost, int parent, double parentWeight) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            costs = Arrays.copyOf(costs, size * 2);
+            parents = Arrays.copyOf(parents, size * 2);
+            parentWeights = Arrays.copyOf(parentWeights, size * 2);
+        }
+        nodes[size] = node;
+        costs[size] = cost;
+        parents[size] = parent;
+        parentWeights[size] = parentWeight;
+        positions.put(node, size);
+        return size++;
+    }
+
+    /**
+     * Returns the node this tree is rooted at.
+     *
+     * @return the data of the root node
+     */
+    public NodeType getRoot() {
+        return nodes[0];
+    }
+
+    /**
+     * Returns the number of nodes reached, including the root.
+     *
+     * @return the number of nodes in this tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns every reached node, in the order the search settled them.
+     *
+     * @return list of reached nodes ordered by non-decreasing cost
+     */
+    public List<NodeType> getReachedNodes() {
+        return new ArrayList<>(Arrays.asList(nodes).subList(0, size));
+    }
+
+    /**
+     * Returns the reached node with the largest cost, or the root when no
+     * other node was reached.
+     *
+     * @return the data of the last node settled
+     */
+    public NodeType getMostDistantNode() {
+        return nodes[size - 1];
+    }
+
+    /**
+     * Checks whether a node was reached from the root.
+     *
+     * @param node the data of the node to check
+     * @return true if there is a path from the root to node, false otherwise
+     */
+    public boolean contains(NodeType node) {
+        return positions.containsKey(node);
+    }
+
+    /**
+     * Returns the cost of the shortest path from the root to a node.
+     *
+     * @param node the data of the destination node
+     * @return the cost of the shortest path to node
+     * @throws NoSuchElementException if node was not reached
+     */
+    public double getCost(NodeType node) {
+        return costs[position(node)];
+    }
+
+    /**
+     * Returns the predecessor of a node on its shortest path from the root.
+     *
+     * @param node the data of the node
+     * @return the data of node's predecessor, or null when node is the root
+     * @throws NoSuchElementException if node was not reached
+     */
+    public NodeType getPredecessor(NodeType node) {
+        int parent = parents[position(node)];
+        return parent == -1 ? null : nodes[parent];
+    }
+
+    /**
+     * Returns the list of nodes along the shortest path from the root to a
+     * node, starting with the root and ending with that node.
+     *
+     * @param node the data of the destination node
+     * @return list of node data along this shortest path
+     * @throws NoSuchElementException if node was not reached
+     */
+    public List<NodeType> getPathTo(NodeType node) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        for (int i = position(node); i != -1; i = parents[i])
+            path.addFirst(nodes[i]);
+        return path;
+    }
+
+    /**
+     * Returns the route from the root to a node, with the weight of each edge
+     * along it and its total cost, all read from this tree without looking
+     * any edge up in the graph.
+     *
+     * @param node the data of the destination node
+     * @return the route along the shortest path from the root to node
+     * @throws NoSuchElementException if node was not reached
+     */
+    public RouteResult<NodeType> getRouteTo(NodeType node) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        LinkedList<Double> legWeights = new LinkedList<>();
+        for (int i = position(node); i != -1; i = parents[i]) {
+            path.addFirst(nodes[i]);
+            if (parents[i] != -1)
+                legWeights.addFirst(parentWeights[i]);
+        }
+        return new RouteResult<>(path, legWeights, costs[position(node)]);
+    }
+
+    // finds the position of a reached node, throwing NSE for other nodes
+    private int position(NodeType node) {
+        if (!positions.containsKey(node))
+            throw new NoSuchElementException("No path from " + getRoot() + " to " + node);
+        return positions.get(node);
+    }
+
+}
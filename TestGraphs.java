@@ -0,0 +1,24 @@
+/**
+ * Small graphs shared by the tests of the graphs and the Backend, so each
+ * test class builds the same fixture rather than its own copy of it.
+ */
+public class TestGraphs {
+
+    /**
+     * Inserts the graph from DijkstraGraph's testShortPathOne: nodes A to E,
+     * with the shortest path from A to E running through D and B at a cost
+     * of 7.
+     *
+     * @param graph the graph to insert the nodes and edges into
+     */
+    public static void insertShortPathOne(GraphADT<String, Double> graph) {
+        for (String node : new String[] { "A", "B", "C", "D", "E" })
+            graph.insertNode(node);
+        graph.insertEdge("A", "C", 1.0);
+        graph.insertEdge("A", "D", 4.0);
+        graph.insertEdge("C", "E", 10.0);
+        graph.insertEdge("D", "B", 2.0);
+        graph.insertEdge("D", "E", 10.0);
+        graph.insertEdge("B", "E", 1.0);
+    }
+}